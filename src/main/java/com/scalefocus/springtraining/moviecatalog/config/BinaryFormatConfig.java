@@ -0,0 +1,107 @@
+package com.scalefocus.springtraining.moviecatalog.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * This class configures the binary formats of the bodies - Smile ('application/x-jackson-smile')
+ * and CBOR ('application/cbor'). They are used only when the 'Accept' (or the 'Content-Type') header
+ * asks for them, JSON stays the default format.
+ * The mappers of the binary formats are built by the {@link Jackson2ObjectMapperBuilder} of Spring Boot,
+ * so they write the same fields and dates as the JSON mapper.
+ *
+ * @author Kristiyan SLavov
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * This method returns the format of the body which is accepted by the client.
+     * It chooses the format like the converters (and the codecs) choose it - the first of JSON, Smile and CBOR
+     * which is included by the most specific type with the highest quality, so a wildcard chooses JSON.
+     *
+     * @param accept - the value of the 'Accept' header or null if there is not such header
+     * @return - the media type of the body, JSON if the header is missing, invalid or does not ask for any of them
+     */
+    public static MediaType negotiate(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (mediaType.includes(APPLICATION_SMILE)) {
+                return APPLICATION_SMILE;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * This method returns the Smile converter of the servlet stack.
+     * It replaces the default Smile converter of Spring MVC, which is not built by Spring Boot.
+     * @param builder - the object mapper builder of Spring Boot
+     * @return - new {@link MappingJackson2SmileHttpMessageConverter} instance
+     */
+    @Bean
+    @Profile("!reactive")
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * This method returns the CBOR converter of the servlet stack.
+     * @param builder - the object mapper builder of Spring Boot
+     * @return - new {@link MappingJackson2CborHttpMessageConverter} instance
+     */
+    @Bean
+    @Profile("!reactive")
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * This method returns a customizer which registers the CBOR codecs of the reactive stack.
+     * Smile is already registered by Spring WebFlux - with its own mapper, which writes the dates as arrays,
+     * because the custom codecs cannot take precedence over the default ones.
+     * The CBOR encoder writes single values only, which are all bodies of the reactive controller.
+     * @param builder - the object mapper builder of Spring Boot
+     * @return - new {@link CodecCustomizer} instance
+     */
+    @Bean
+    @Profile("reactive")
+    public CodecCustomizer cborCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        return configurer -> {
+            configurer.customCodecs().encoder(new Jackson2CborEncoder(cborMapper, MediaType.APPLICATION_CBOR));
+            configurer.customCodecs().decoder(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+}
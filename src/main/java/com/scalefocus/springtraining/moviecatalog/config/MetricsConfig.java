@@ -0,0 +1,59 @@
+package com.scalefocus.springtraining.moviecatalog.config;
+
+import com.mongodb.MongoClientOptions;
+import com.scalefocus.springtraining.moviecatalog.service.listener.MongoCommandMetricsListener;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class configures the metrics which are not recorded by Spring Boot itself:
+ * the {@link io.micrometer.core.annotation.Timed} methods, the MongoDB commands of both drivers
+ * and the connection pool of the blocking MongoDB driver.
+ * All metrics are published on the /actuator/prometheus endpoint.
+ *
+ * @author Kristiyan SLavov
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * This method returns a new object of type {@link TimedAspect},
+     * which records the methods annotated with {@link io.micrometer.core.annotation.Timed}.
+     * @param meterRegistry - the registry of the metrics
+     * @return - new {@link TimedAspect} instance
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * This method returns the options of the blocking MongoDB driver
+     * with the command and the connection pool metrics.
+     * @param meterRegistry - the registry of the metrics
+     * @param commandMetricsListener - the listener which records the commands
+     * @return - new {@link MongoClientOptions} instance
+     */
+    @Bean
+    public MongoClientOptions mongoClientOptions(MeterRegistry meterRegistry,
+                                                 MongoCommandMetricsListener commandMetricsListener) {
+        return MongoClientOptions.builder()
+                .addCommandListener(commandMetricsListener)
+                .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry))
+                .build();
+    }
+
+    /**
+     * This method returns a customizer which registers the command metrics in the reactive MongoDB driver.
+     * @param commandMetricsListener - the listener which records the commands
+     * @return - new {@link MongoClientSettingsBuilderCustomizer} instance
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMetricsCustomizer(MongoCommandMetricsListener commandMetricsListener) {
+        return builder -> builder.addCommandListener(commandMetricsListener);
+    }
+}
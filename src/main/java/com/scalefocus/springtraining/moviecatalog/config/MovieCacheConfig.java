@@ -0,0 +1,45 @@
+package com.scalefocus.springtraining.moviecatalog.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * This class configures the in-process cache of the application.
+ * The caches are backed by Caffeine, which uses W-TinyLFU eviction - it keeps
+ * the frequently requested movies even when many movies are requested only once.
+ * Every cache is bounded by size and by time to live and records statistics.
+ *
+ * @author Kristiyan SLavov
+ */
+@Configuration
+@EnableCaching
+public class MovieCacheConfig {
+
+    public static final String MOVIES_CACHE = "movies";
+
+    /**
+     * This method returns a new {@link CacheManager} which creates Caffeine caches
+     * with the configured maximum size and time to live.
+     *
+     * @param maximumSize - the maximum number of entries in every cache
+     * @param timeToLive - the time after which an entry expires
+     * @return - new {@link CaffeineCacheManager} instance
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${movies.cache.maximum-size}") long maximumSize,
+                                     @Value("${movies.cache.time-to-live}") Duration timeToLive) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(MOVIES_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,143 @@
+package com.scalefocus.springtraining.moviecatalog.config;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.backfill.MovieNormalizationBackfill;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * This class creates the indexes of the movies collection at startup.
+ * Every list query is keyset based (filter + id greater than the cursor, ordered by id),
+ * so each of them has a compound index that ends with the id - this way
+ * a page is a single index range scan instead of a collection scan.
+ * The unique index on the normalized title and writer rejects the duplicate movies.
+ * It covers only the movies which have the normalized fields, so the movies saved before they were introduced
+ * (which would all have the same null key) do not break it. If the backfill of these fields is enabled,
+ * it runs before the index is built. If the collection already contains duplicates, the index can not be built -
+ * the duplicates are logged, the application starts with the former non-unique index and the duplicates
+ * must be merged by hand (see the README) before the next start.
+ * The text index on the title and the writer serves the search.
+ * The index creation can be disabled with the 'movies.indexes.create-on-startup' property.
+ *
+ * @author Kristiyan SLavov
+ */
+@Configuration
+@ConditionalOnProperty(name = "movies.indexes.create-on-startup", havingValue = "true", matchIfMissing = true)
+public class MovieIndexConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MovieIndexConfig.class);
+
+    private static final String ID_FIELD = "_id";
+
+    private static final String LEGACY_TITLE_WRITER_INDEX = "normalizedTitle_normalizedWriter";
+
+    private static final String TITLE_WRITER_INDEX = "normalizedTitle_normalizedWriter_unique";
+
+    private static final int LOGGED_DUPLICATES = 10;
+
+    private final MongoOperations mongoOperations;
+
+    private final ObjectProvider<MovieNormalizationBackfill> backfill;
+
+    public MovieIndexConfig(MongoOperations mongoOperations, ObjectProvider<MovieNormalizationBackfill> backfill) {
+        this.mongoOperations = mongoOperations;
+        this.backfill = backfill;
+    }
+
+    /**
+     * This method ensures that all indexes used by the movie queries exist.
+     * Creating an index that already exists is a no-op in MongoDB.
+     */
+    @PostConstruct
+    public void createIndexes() {
+        IndexOperations indexOperations = mongoOperations.indexOps(Movie.class);
+
+        indexOperations.ensureIndex(new Index()
+                .on("rate", Sort.Direction.ASC)
+                .on(ID_FIELD, Sort.Direction.ASC)
+                .named("rate_id"));
+
+        indexOperations.ensureIndex(new Index()
+                .on("normalizedGenre", Sort.Direction.ASC)
+                .on(ID_FIELD, Sort.Direction.ASC)
+                .named("normalizedGenre_id"));
+
+        indexOperations.ensureIndex(new Index()
+                .on("normalizedGenre", Sort.Direction.ASC)
+                .on("rate", Sort.Direction.DESC)
+                .on(ID_FIELD, Sort.Direction.ASC)
+                .named("normalizedGenre_rate_id"));
+
+        createTitleWriterIndex(indexOperations);
+
+        // a collection can have only one text index
+        indexOperations.ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                .onField("title")
+                .onField("writer")
+                .named("title_writer_text")
+                .build());
+
+        LOGGER.info("The indexes of the movies collection are created");
+    }
+
+    /**
+     * This method creates the unique index on the normalized title and writer.
+     * The former non-unique index with the same keys is dropped only after the unique one exists,
+     * so the lookups by title and writer are always served by an index.
+     *
+     * @param indexOperations - the index operations of the movies collection
+     */
+    private void createTitleWriterIndex(IndexOperations indexOperations) {
+        List<String> names = indexOperations.getIndexInfo().stream().map(IndexInfo::getName).collect(Collectors.toList());
+        if (!names.contains(TITLE_WRITER_INDEX)) {
+            backfill.ifAvailable(MovieNormalizationBackfill::backfill);
+            try {
+                indexOperations.ensureIndex(new Index()
+                        .on("normalizedTitle", Sort.Direction.ASC)
+                        .on("normalizedWriter", Sort.Direction.ASC)
+                        .unique()
+                        .partial(PartialIndexFilter.of(where("normalizedTitle").exists(true)))
+                        .named(TITLE_WRITER_INDEX));
+            } catch (DataAccessException ex) {
+                LOGGER.error("The unique index on the title and the writer can not be created, the duplicates are not"
+                        + " rejected until they are merged. Duplicated movies (title, writer): {}", findDuplicates(), ex);
+                return;
+            }
+        }
+        if (names.contains(LEGACY_TITLE_WRITER_INDEX)) {
+            indexOperations.dropIndex(LEGACY_TITLE_WRITER_INDEX);
+        }
+    }
+
+    /**
+     * This method returns some of the normalized titles and writers which are shared by more than one movie.
+     *
+     * @return the duplicated title and writer pairs
+     */
+    private List<Document> findDuplicates() {
+        return mongoOperations.aggregate(Aggregation.newAggregation(
+                Aggregation.match(where("normalizedTitle").exists(true)),
+                Aggregation.group("normalizedTitle", "normalizedWriter").count().as("movies"),
+                Aggregation.match(where("movies").gt(1)),
+                Aggregation.limit(LOGGED_DUPLICATES)), Movie.class, Document.class).getMappedResults();
+    }
+}
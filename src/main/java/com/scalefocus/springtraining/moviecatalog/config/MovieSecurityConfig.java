@@ -4,8 +4,10 @@ import com.scalefocus.springtraining.moviecatalog.config.jwt.JwtAuthenticationEn
 import com.scalefocus.springtraining.moviecatalog.config.jwt.JwtRequestFilter;
 import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtUserDetailsService;
 import com.scalefocus.springtraining.moviecatalog.util.Authority;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -24,6 +26,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
  * @author Kristiyan SLavov
  */
 @Configuration
+@Profile("!reactive")
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class MovieSecurityConfig extends WebSecurityConfigurerAdapter {
@@ -34,12 +37,16 @@ public class MovieSecurityConfig extends WebSecurityConfigurerAdapter {
 
     private JwtRequestFilter jwtRequestFilter;
 
+    private int bcryptStrength;
+
     public MovieSecurityConfig(JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
-                               JwtUserDetailsService jwtUserDetailsService, JwtRequestFilter jwtRequestFilter) {
+                               JwtUserDetailsService jwtUserDetailsService, JwtRequestFilter jwtRequestFilter,
+                               @Value("${authentication.bcrypt.strength}") int bcryptStrength) {
 
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.jwtUserDetailsService = jwtUserDetailsService;
         this.jwtRequestFilter = jwtRequestFilter;
+        this.bcryptStrength = bcryptStrength;
     }
 
     /**
@@ -55,11 +62,13 @@ public class MovieSecurityConfig extends WebSecurityConfigurerAdapter {
 
     /**
      * This method returns a new object of type {@link BCryptPasswordEncoder}.
+     * The strength ('authentication.bcrypt.strength') is used for the newly encoded passwords -
+     * the stored ones are checked with the strength they were encoded with.
      * @return - new {@link BCryptPasswordEncoder} instance
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     /**
@@ -84,10 +93,16 @@ public class MovieSecurityConfig extends WebSecurityConfigurerAdapter {
         httpSecurity.csrf().disable()
                 // don't authenticate this particular request
                 .authorizeRequests()
-                .antMatchers("/authenticate").permitAll()
+                .antMatchers("/authenticate", "/authenticate/refresh", "/actuator/health",
+                        "/actuator/prometheus").permitAll()
+                .antMatchers("/actuator/**").hasRole(Authority.ADMIN.name())
+                .antMatchers(HttpMethod.POST, "/authenticate/revoke").hasRole(Authority.ADMIN.name())
+                .antMatchers("/cache/**").hasRole(Authority.ADMIN.name())
                 .antMatchers(HttpMethod.GET, "/movies/**").hasAnyRole(Authority.USER.name(), Authority.ADMIN.name())
                 .antMatchers(HttpMethod.POST, "/movies/movie").hasRole(Authority.ADMIN.name())
+                .antMatchers(HttpMethod.POST, "/movies/bulk").hasRole(Authority.ADMIN.name())
                 .antMatchers(HttpMethod.PUT, "/movies/**").hasRole(Authority.ADMIN.name())
+                .antMatchers(HttpMethod.PATCH, "/movies/**").hasRole(Authority.ADMIN.name())
                 .antMatchers(HttpMethod.DELETE, "/movies/**").hasRole(Authority.ADMIN.name())
                 //all other requests need to be authenticated
                 .anyRequest().authenticated().and()
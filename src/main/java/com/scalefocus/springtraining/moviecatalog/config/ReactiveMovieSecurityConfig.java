@@ -0,0 +1,123 @@
+package com.scalefocus.springtraining.moviecatalog.config;
+
+import com.scalefocus.springtraining.moviecatalog.config.jwt.ReactiveJwtRequestFilter;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.AuthenticationExecutor;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtTokenService;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtUserDetailsService;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.TokenRevocationService;
+import com.scalefocus.springtraining.moviecatalog.util.Authority;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class is the WebFlux counterpart of {@link MovieSecurityConfig}
+ * and it is used when the application runs with the 'reactive' profile.
+ * It applies the same access rules and the same stateless JWT authentication.
+ *
+ * @author Kristiyan SLavov
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveMovieSecurityConfig {
+
+    /**
+     * This method returns a new object of type {@link BCryptPasswordEncoder}.
+     * The strength is used for the newly encoded passwords - the stored ones are
+     * checked with the strength they were encoded with.
+     * @param strength - the BCrypt strength (log rounds)
+     * @return - new {@link BCryptPasswordEncoder} instance
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${authentication.bcrypt.strength}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * This method returns a {@link ReactiveAuthenticationManager} which loads the users
+     * from {@link JwtUserDetailsService}. Loading the user is blocking and the BCrypt password check
+     * is CPU heavy, so both are moved from the event loop to the bounded {@link AuthenticationExecutor}.
+     *
+     * @param jwtUserDetailsService - the service which loads the users
+     * @param passwordEncoder - the encoder used for the password check
+     * @param authenticationExecutor - the pool which verifies the credentials
+     * @return - new {@link ReactiveAuthenticationManager} instance
+     */
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(JwtUserDetailsService jwtUserDetailsService,
+                                                                       PasswordEncoder passwordEncoder,
+                                                                       AuthenticationExecutor authenticationExecutor) {
+        ReactiveUserDetailsService userDetailsService = username -> Mono
+                .fromCallable(() -> jwtUserDetailsService.loadUserByUsername(username))
+                .subscribeOn(authenticationExecutor.getScheduler())
+                .onErrorResume(UsernameNotFoundException.class, ex -> Mono.empty());
+
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setScheduler(authenticationExecutor.getScheduler());
+        return authenticationManager;
+    }
+
+    /**
+     * This method configures the {@link SecurityWebFilterChain}.
+     * @param http - {@link ServerHttpSecurity} instance to be configured
+     * @param jwtTokenService - the service which validates the tokens
+     * @param tokenRevocationService - the service which checks if the tokens are revoked
+     * @param meterRegistry - the registry of the JWT metrics
+     * @return - the configured {@link SecurityWebFilterChain}
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         JwtTokenService jwtTokenService,
+                                                         TokenRevocationService tokenRevocationService,
+                                                         MeterRegistry meterRegistry) {
+        return http.csrf().disable()
+                .httpBasic().disable()
+                .formLogin().disable()
+                // make sure we use stateless session;
+                // session won't be used to store user's state
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling()
+                .authenticationEntryPoint((exchange, ex) ->
+                        Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED)))
+                .and()
+                // don't authenticate this particular request
+                .authorizeExchange()
+                .pathMatchers("/authenticate", "/authenticate/refresh", "/actuator/health",
+                        "/actuator/prometheus").permitAll()
+                .pathMatchers("/actuator/**").hasRole(Authority.ADMIN.name())
+                .pathMatchers(HttpMethod.POST, "/authenticate/revoke").hasRole(Authority.ADMIN.name())
+                .pathMatchers("/cache/**").hasRole(Authority.ADMIN.name())
+                .pathMatchers(HttpMethod.GET, "/movies/**").hasAnyRole(Authority.USER.name(), Authority.ADMIN.name())
+                .pathMatchers(HttpMethod.POST, "/movies/movie").hasRole(Authority.ADMIN.name())
+                .pathMatchers(HttpMethod.POST, "/movies/bulk").hasRole(Authority.ADMIN.name())
+                .pathMatchers(HttpMethod.PUT, "/movies/**").hasRole(Authority.ADMIN.name())
+                .pathMatchers(HttpMethod.PATCH, "/movies/**").hasRole(Authority.ADMIN.name())
+                .pathMatchers(HttpMethod.DELETE, "/movies/**").hasRole(Authority.ADMIN.name())
+                //all other requests need to be authenticated
+                .anyExchange().authenticated()
+                .and()
+                // Add a filter to validate the tokens with every request
+                .addFilterAt(new ReactiveJwtRequestFilter(jwtTokenService, tokenRevocationService, meterRegistry),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.scalefocus.springtraining.moviecatalog.config;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.RevokedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * This class creates the TTL index of the revoked tokens collection at startup.
+ * MongoDB removes every revoked token at its expireAt date - an expired token
+ * is rejected anyway, so it does not have to be kept in the collection.
+ * The index creation can be disabled with the 'movies.indexes.create-on-startup' property.
+ *
+ * @author Kristiyan SLavov
+ */
+@Configuration
+@ConditionalOnProperty(name = "movies.indexes.create-on-startup", havingValue = "true", matchIfMissing = true)
+public class RevokedTokenIndexConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevokedTokenIndexConfig.class);
+
+    private final MongoOperations mongoOperations;
+
+    public RevokedTokenIndexConfig(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    /**
+     * This method ensures that the TTL index exists.
+     * Creating an index that already exists is a no-op in MongoDB.
+     */
+    @PostConstruct
+    public void createIndexes() {
+        mongoOperations.indexOps(RevokedToken.class).ensureIndex(new Index()
+                .on("expireAt", Sort.Direction.ASC)
+                .expire(Duration.ZERO)
+                .named("expireAt_ttl"));
+
+        LOGGER.info("The indexes of the revoked tokens collection are created");
+    }
+}
@@ -0,0 +1,35 @@
+package com.scalefocus.springtraining.moviecatalog.config;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * This filter adds the 'Vary: Accept' header to every response of the servlet stack.
+ * The bodies (the errors included) are sent as JSON, Smile or CBOR by the 'Accept' header,
+ * so a cache must not send a body stored for one format to a client which accepts another one.
+ * It is the first filter, so the responses of the security filters vary too.
+ *
+ * @author Kristiyan SLavov
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class VaryAcceptFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,54 @@
+package com.scalefocus.springtraining.moviecatalog.config.jwt;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scalefocus.springtraining.moviecatalog.config.BinaryFormatConfig;
+import com.scalefocus.springtraining.moviecatalog.model.error.ErrorResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * This class encodes the {@link ErrorResponse} bodies which the request filters write themselves,
+ * before the request reaches the message converters (or the codecs) of the application.
+ * The format is chosen by the 'Accept' header like the converters choose it - JSON,
+ * Smile ('application/x-jackson-smile') or CBOR ('application/cbor'), and it is JSON if the header
+ * is missing, invalid or does not ask for any of them.
+ *
+ * @author Kristiyan SLavov
+ */
+public class ErrorResponseEncoder {
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+    /**
+     * This method returns the format of the error body which is accepted by the client.
+     *
+     * @param accept - the value of the 'Accept' header or null if there is not such header
+     * @return - the media type of the error body
+     */
+    public MediaType negotiate(String accept) {
+        return BinaryFormatConfig.negotiate(accept);
+    }
+
+    /**
+     * This method encodes the error body in the specified format.
+     *
+     * @param errorResponse - the error body
+     * @param mediaType     - the format returned by {@link #negotiate(String)}
+     * @return - the encoded body
+     * @throws JsonProcessingException if the body cannot be encoded
+     */
+    public byte[] encode(ErrorResponse errorResponse, MediaType mediaType) throws JsonProcessingException {
+        if (BinaryFormatConfig.APPLICATION_SMILE.equals(mediaType)) {
+            return smileMapper.writeValueAsBytes(errorResponse);
+        }
+        if (MediaType.APPLICATION_CBOR.equals(mediaType)) {
+            return cborMapper.writeValueAsBytes(errorResponse);
+        }
+        return jsonMapper.writeValueAsBytes(errorResponse);
+    }
+}
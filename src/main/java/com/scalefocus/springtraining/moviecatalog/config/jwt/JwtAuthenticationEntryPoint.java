@@ -1,6 +1,7 @@
 package com.scalefocus.springtraining.moviecatalog.config.jwt;
 
 import io.jsonwebtoken.JwtException;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -18,6 +19,7 @@ import java.io.IOException;
  * @author Kristiyan SLavov
  */
 @Component
+@Profile("!reactive")
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
     /**
@@ -0,0 +1,74 @@
+package com.scalefocus.springtraining.moviecatalog.config.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class holds the counters of the outcomes of the JWT verification
+ * in the request filters ('jwt.requests' tagged with the outcome).
+ * The counters are registered once, so the filters only increment them.
+ *
+ * @author Kristiyan SLavov
+ */
+public class JwtMetrics {
+
+    public static final String SCRAPE_ENDPOINT = "/actuator/prometheus";
+
+    private static final String METRIC_NAME = "jwt.requests";
+
+    private final Counter noToken;
+
+    private final Counter badToken;
+
+    private final Counter expired;
+
+    private final Counter revoked;
+
+    private final Counter authenticated;
+
+    public JwtMetrics(MeterRegistry meterRegistry) {
+        this.noToken = counter(meterRegistry, "no_token");
+        this.badToken = counter(meterRegistry, "bad_token");
+        this.expired = counter(meterRegistry, "expired");
+        this.revoked = counter(meterRegistry, "revoked");
+        this.authenticated = counter(meterRegistry, "authenticated");
+    }
+
+    /**
+     * This method checks if the specified path is the metrics endpoint,
+     * which is scraped without a token and is not filtered.
+     *
+     * @param path - the path of the request
+     * @return - true if the path is the metrics endpoint
+     */
+    public static boolean isScrapeEndpoint(String path) {
+        return SCRAPE_ENDPOINT.equals(path);
+    }
+
+    public Counter noToken() {
+        return noToken;
+    }
+
+    public Counter badToken() {
+        return badToken;
+    }
+
+    public Counter expired() {
+        return expired;
+    }
+
+    public Counter revoked() {
+        return revoked;
+    }
+
+    public Counter authenticated() {
+        return authenticated;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_NAME)
+                .description("The outcomes of the JWT verification in the request filter")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
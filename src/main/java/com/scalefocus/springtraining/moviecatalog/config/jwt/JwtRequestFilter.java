@@ -1,17 +1,20 @@
 package com.scalefocus.springtraining.moviecatalog.config.jwt;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scalefocus.springtraining.moviecatalog.model.error.ErrorResponse;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.VerifiedToken;
 import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtTokenService;
-import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtUserDetailsService;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.TokenRevocationService;
 import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
-import com.scalefocus.springtraining.moviecatalog.util.GeneralConstant;
+import com.scalefocus.springtraining.moviecatalog.util.BearerTokenUtils;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,7 +24,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 
 /**
  * For any incoming request this JwtRequestFilter class get executed.
@@ -33,30 +36,46 @@ import java.io.PrintWriter;
  * @author Kristiyan SLavov
  */
 @Component
+@Profile("!reactive")
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
 
     private static final String BEARER_TOKEN_TYPE = "Bearer ";
 
-    private JwtUserDetailsService jwtUserDetailsService;
-
-    private final ObjectMapper objectMapper;
+    private final ErrorResponseEncoder errorResponseEncoder;
 
     private JwtTokenService jwtTokenService;
 
-    public JwtRequestFilter(JwtUserDetailsService jwtUserDetailsService,
-                            JwtTokenService jwtTokenService) {
-        this.jwtUserDetailsService = jwtUserDetailsService;
+    private TokenRevocationService tokenRevocationService;
+
+    private final JwtMetrics jwtMetrics;
+
+    public JwtRequestFilter(JwtTokenService jwtTokenService, TokenRevocationService tokenRevocationService,
+                            MeterRegistry meterRegistry) {
         this.jwtTokenService = jwtTokenService;
-        this.objectMapper = new ObjectMapper();
+        this.tokenRevocationService = tokenRevocationService;
+        this.jwtMetrics = new JwtMetrics(meterRegistry);
+        this.errorResponseEncoder = new ErrorResponseEncoder();
+    }
+
+    /**
+     * The metrics endpoint is scraped without a token, so it is not filtered at all.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return JwtMetrics.isScrapeEndpoint(request.getServletPath());
     }
 
     /**
      * This method checks if the request has a JWT and if it has,
      * this method uses {@link JwtTokenService} to validate the JWT.
      * If the request has a valid JWT then it sets the Authentication in the context,
-     * to specify that the current user is authenticated.
+     * to specify that the current user is authenticated. The Authentication is built
+     * from the username and the roles in the token, so the user is not loaded.
+     * The verified token is the credentials of the Authentication.
+     * A revoked token is rejected - the database is queried only if the in-memory
+     * filter of {@link TokenRevocationService} may contain the token.
      * Otherwise, JwtRequestFilter class references
      * to {@link com.scalefocus.springtraining.moviecatalog.controller.jwt.JwtAuthenticationController}
      * for checking user's authentication and generating token.
@@ -73,49 +92,69 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
     throws ServletException, IOException {
 
-        final String requestTokenHeader = request.getHeader(AUTHORIZATION_HEADER);
-        String username = null;
-        String jwtToken = null;
-
         //JWT Token is in the form "Bearer token".
         //If the header is not null & contains a bearer token, extract it
-        if (requestTokenHeader != null && requestTokenHeader.trim().split(" ")[0].toLowerCase().equals(GeneralConstant.BEARER_TOKEN_TYPE)) {
-            jwtToken = requestTokenHeader.split(" ")[1];
+        final String jwtToken = BearerTokenUtils.resolveToken(request.getHeader(AUTHORIZATION_HEADER));
+        VerifiedToken verifiedToken = null;
+
+        if (jwtToken != null) {
             try {
-                username = jwtTokenService.getUsernameFromToken(jwtToken);
+                // the token is parsed (or taken from the cache of the verified tokens) only once
+                verifiedToken = jwtTokenService.verify(jwtToken);
+            } catch (ExpiredJwtException ex) {
+                jwtMetrics.expired().increment();
+                writeUnauthorized(request, response, ErrorMessage.BAD_TOKEN);
+                return;
             } catch (JwtException ex) {
-                try (PrintWriter writer = response.getWriter()) {
-                    response.setStatus(HttpStatus.UNAUTHORIZED.value());
-                    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-                    writer.write(objectMapper.writeValueAsString(
-                            new ErrorResponse(ErrorMessage.BAD_TOKEN.toString(),
-                                    HttpStatus.UNAUTHORIZED)));
-                } catch (IOException e) {
-                    logger.warn("An exception occurs in PrintWriter writer");
-                    response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
-                }
+                jwtMetrics.badToken().increment();
+                writeUnauthorized(request, response, ErrorMessage.BAD_TOKEN);
+                return;
+            }
+            if (tokenRevocationService.isRevoked(verifiedToken)) {
+                jwtMetrics.revoked().increment();
+                writeUnauthorized(request, response, ErrorMessage.REVOKED_TOKEN);
                 return;
             }
+            jwtMetrics.authenticated().increment();
         } else {
+            jwtMetrics.noToken().increment();
             logger.warn("The authorization header not begin with Bearer String");
         }
 
-        //Once we get the token validate it.
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.jwtUserDetailsService.loadUserByUsername(username);
-
-            //If token is valid, configure Spring Security to manually set authentication
-            if (jwtTokenService.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                // After setting the Authentication in the context, we specify
-                // that the current user is authenticated. So it passes the
-                // Spring Security Configurations successfully.
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-            }
+        //Once we get the verified token, configure Spring Security to manually set authentication
+        if (verifiedToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                    verifiedToken.getUsername(), verifiedToken, verifiedToken.getAuthorities());
+            usernamePasswordAuthenticationToken
+                    .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // After setting the Authentication in the context, we specify
+            // that the current user is authenticated. So it passes the
+            // Spring Security Configurations successfully.
+            SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
         }
         chain.doFilter(request, response);
     }
+
+    /**
+     * This method writes 401 response with an {@link ErrorResponse} body
+     * in the format accepted by the client (JSON, Smile or CBOR).
+     *
+     * @param request      - the request with the 'Accept' header
+     * @param response     - the response to be written
+     * @param errorMessage - the message of the error
+     */
+    private void writeUnauthorized(HttpServletRequest request, HttpServletResponse response, ErrorMessage errorMessage) {
+        MediaType mediaType = errorResponseEncoder.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        try (OutputStream outputStream = response.getOutputStream()) {
+            byte[] body = errorResponseEncoder.encode(
+                    new ErrorResponse(errorMessage.toString(), HttpStatus.UNAUTHORIZED), mediaType);
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setContentType(mediaType.toString());
+            response.setContentLength(body.length);
+            outputStream.write(body);
+        } catch (IOException e) {
+            logger.warn("An exception occurs while writing the error response");
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+    }
 }
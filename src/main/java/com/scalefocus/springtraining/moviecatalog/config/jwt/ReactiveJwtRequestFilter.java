@@ -0,0 +1,156 @@
+package com.scalefocus.springtraining.moviecatalog.config.jwt;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.scalefocus.springtraining.moviecatalog.model.error.ErrorResponse;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.VerifiedToken;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtTokenService;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.TokenRevocationService;
+import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import com.scalefocus.springtraining.moviecatalog.util.BearerTokenUtils;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * This ReactiveJwtRequestFilter class is the WebFlux counterpart of {@link JwtRequestFilter}
+ * and it is used when the application runs with the 'reactive' profile.
+ * For any incoming request it checks if the request has a JWT token, and if it has
+ * it validates it using {@link JwtTokenService} and puts the authentication in the
+ * reactive security context of the request.
+ * It is intentionally not a bean - it is registered only in the security filter chain,
+ * otherwise WebFlux would add it a second time to the global filters.
+ *
+ * @author Kristiyan SLavov
+ */
+public class ReactiveJwtRequestFilter implements WebFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveJwtRequestFilter.class);
+
+    private final JwtTokenService jwtTokenService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final JwtMetrics jwtMetrics;
+
+    private final ErrorResponseEncoder errorResponseEncoder;
+
+    public ReactiveJwtRequestFilter(JwtTokenService jwtTokenService, TokenRevocationService tokenRevocationService,
+                                    MeterRegistry meterRegistry) {
+        this.jwtTokenService = jwtTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.jwtMetrics = new JwtMetrics(meterRegistry);
+        this.errorResponseEncoder = new ErrorResponseEncoder();
+    }
+
+    /**
+     * This method checks if the request has a JWT and if it has,
+     * this method uses {@link JwtTokenService} to validate the JWT.
+     * If the request has a valid JWT then it sets the Authentication in the reactive context,
+     * to specify that the current user is authenticated. The Authentication is built
+     * from the username and the roles in the token, so the user is not loaded.
+     * The verified token is the credentials of the Authentication.
+     * A revoked token is rejected - the database is queried (on the bounded elastic scheduler)
+     * only if the in-memory filter of {@link TokenRevocationService} may contain the token.
+     * If the JWT is not valid it responds with 401 and an {@link ErrorResponse}.
+     *
+     * @param exchange - the current server exchange
+     * @param chain    - provides a way to delegate to the next filter
+     * @return {@link Mono} to indicate when request processing is complete
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // the metrics endpoint is scraped without a token, so it is not filtered at all
+        if (JwtMetrics.isScrapeEndpoint(exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        //JWT Token is in the form "Bearer token".
+        //If the header is not null & contains a bearer token, extract it
+        final String jwtToken = BearerTokenUtils.resolveToken(
+                exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        if (jwtToken == null) {
+            jwtMetrics.noToken().increment();
+            LOGGER.warn("The authorization header not begin with Bearer String");
+            return chain.filter(exchange);
+        }
+        final VerifiedToken verifiedToken;
+        try {
+            // the token is parsed (or taken from the cache of the verified tokens) only once
+            verifiedToken = jwtTokenService.verify(jwtToken);
+        } catch (ExpiredJwtException ex) {
+            jwtMetrics.expired().increment();
+            return writeUnauthorized(exchange, ErrorMessage.BAD_TOKEN);
+        } catch (JwtException ex) {
+            jwtMetrics.badToken().increment();
+            return writeUnauthorized(exchange, ErrorMessage.BAD_TOKEN);
+        }
+
+        // almost every token is not in the filter, so it is authenticated without leaving the event loop
+        if (!tokenRevocationService.mightBeRevoked(verifiedToken)) {
+            return authenticate(exchange, chain, verifiedToken);
+        }
+        return Mono.fromCallable(() -> tokenRevocationService.isRevoked(verifiedToken))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(revoked -> {
+                    if (revoked) {
+                        jwtMetrics.revoked().increment();
+                        return writeUnauthorized(exchange, ErrorMessage.REVOKED_TOKEN);
+                    }
+                    return authenticate(exchange, chain, verifiedToken);
+                });
+    }
+
+    /**
+     * This method puts the authentication of the verified token in the reactive security context
+     * and delegates to the next filter.
+     *
+     * @param exchange      - the current server exchange
+     * @param chain         - provides a way to delegate to the next filter
+     * @param verifiedToken - the verified token of the request
+     * @return {@link Mono} to indicate when request processing is complete
+     */
+    private Mono<Void> authenticate(ServerWebExchange exchange, WebFilterChain chain, VerifiedToken verifiedToken) {
+        jwtMetrics.authenticated().increment();
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                verifiedToken.getUsername(), verifiedToken, verifiedToken.getAuthorities());
+        return chain.filter(exchange)
+                .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    /**
+     * This method writes 401 response with an {@link ErrorResponse} body
+     * in the format accepted by the client (JSON, Smile or CBOR).
+     *
+     * @param exchange     - the current server exchange
+     * @param errorMessage - the message of the error
+     * @return {@link Mono} to indicate when the response is written
+     */
+    private Mono<Void> writeUnauthorized(ServerWebExchange exchange, ErrorMessage errorMessage) {
+        ServerHttpResponse response = exchange.getResponse();
+        MediaType mediaType = errorResponseEncoder.negotiate(
+                exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(mediaType);
+        try {
+            byte[] body = errorResponseEncoder.encode(
+                    new ErrorResponse(errorMessage.toString(), HttpStatus.UNAUTHORIZED), mediaType);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("An exception occurs while writing the error response");
+            response.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+            return response.setComplete();
+        }
+    }
+}
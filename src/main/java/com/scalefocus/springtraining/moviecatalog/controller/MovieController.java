@@ -1,26 +1,50 @@
 package com.scalefocus.springtraining.moviecatalog.controller;
 
+import com.scalefocus.springtraining.moviecatalog.config.BinaryFormatConfig;
 import com.scalefocus.springtraining.moviecatalog.exception.MovieDuplicateKeyException;
 import com.scalefocus.springtraining.moviecatalog.exception.MovieNotFoundException;
+import com.scalefocus.springtraining.moviecatalog.exception.MoviePreconditionFailedException;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkMovieOperation;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationResult;
 import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePatchDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieProjectionDto;
 import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
 import com.scalefocus.springtraining.moviecatalog.service.MovieService;
+import com.scalefocus.springtraining.moviecatalog.service.bulk.MovieBulkService;
+import com.scalefocus.springtraining.moviecatalog.service.export.MovieExportService;
+import com.scalefocus.springtraining.moviecatalog.util.ETagUtils;
+import com.scalefocus.springtraining.moviecatalog.util.SearchCursorUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -33,69 +57,225 @@ import java.util.List;
  */
 
 @RestController
+@Profile("!reactive")
 @Validated
 @RequestMapping("/movies")
 public class MovieController {
 
     private final MovieService movieService;
 
+    private final MovieExportService movieExportService;
+
+    private final MovieBulkService movieBulkService;
+
     @Autowired
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, MovieExportService movieExportService,
+                           MovieBulkService movieBulkService) {
         this.movieService = movieService;
+        this.movieExportService = movieExportService;
+        this.movieBulkService = movieBulkService;
     }
 
     /**
      * This method takes an id as parameter and returns the movie that sits behind this id
      * or @throws MovieNotFoundException if no movie was found.
      * Also it validates the input id.
+     * The ETag of the response is the version of the movie in the accepted format, so if the client sends it back
+     * in the 'If-None-Match' header and the movie is not changed, the response is 304 (Not Modified)
+     * and the movie is not serialized.
      *
      * @param id - the input id - a number that must be greater than '1'
+     * @param accept - the formats accepted by the client
      * @return - the movie that sits behind the specified id or
      * @throws MovieNotFoundException - if there isn't movie for the specified id
      */
     @GetMapping("/{id}")
-    public Movie getById(@PathVariable @Min(value = 1, message = "Id cannot be less than '1'") Long id) throws MovieNotFoundException {
-        return movieService.getById(id);
+    public ResponseEntity<Movie> getById(@PathVariable @Min(value = 1, message = "Id cannot be less than '1'") Long id,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws MovieNotFoundException {
+        Movie movie = movieService.getById(id);
+        return ResponseEntity.ok()
+                .eTag(ETagUtils.toETag(movie.getVersion(), BinaryFormatConfig.negotiate(accept)))
+                .body(movie);
     }
 
     /**
-     * This method returns list of all movies or @throws MovieNotFoundException
+     * This method returns a page of movies or @throws MovieNotFoundException
      * if there are not found movies.
+     * The next page is requested by passing the returned cursor as 'after' parameter.
      *
-     * @return - list of all movies or
+     * @param after - the cursor of the page (the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param fields - the comma separated fields of the movies (all fields if it is missing)
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of movies and the cursor of the next page or
      * @throws MovieNotFoundException - if there are not found movies
      */
     @GetMapping
-    public ResponseEntity<List<MovieDto>> getAll() throws MovieNotFoundException {
-        return movieService.getAll();
+    public ResponseEntity<MoviePageDto<?>> getAll(@RequestParam(required = false) @Min(value = 0, message = "Cursor cannot be less than '0'") Long after,
+                                                  @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                  @RequestParam(required = false) @Pattern(regexp = MovieProjectionDto.FIELDS_PATTERN,
+                                                          message = "Fields must be a comma separated list of the movie fields") String fields,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    throws MovieNotFoundException {
+        return movieService.getAll(after, limit, fields, ifNoneMatch);
+    }
+
+    /**
+     * This method streams all movies as NDJSON (one movie per line),
+     * optionally gzip compressed. The movies are written as they are read
+     * from the database, so the memory usage does not depend on the catalog size.
+     *
+     * @param gzip - true if the response must be gzip compressed
+     * @param request - the current request
+     * @return - the streamed movies
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(defaultValue = "false") boolean gzip,
+                                                        NativeWebRequest request) {
+        return movieExportService.exportAll(gzip, request);
     }
 
     /**
-     * This method returns list of all movies by the specified genre
+     * This method returns a page of movies by the specified genre
      * or @throws MovieNotFoundException if there are not found movies.
      *
      * @param genre - the specified genre by which the movies will be filtered and returned
-     * @return - list of all movies that match the specified genre or
+     * @param after - the cursor of the page (the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param fields - the comma separated fields of the movies (all fields if it is missing)
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of movies that match the specified genre or
      * @throws MovieNotFoundException - if there are not found movies
      */
     @GetMapping("/genre/{genre}")
-    public ResponseEntity<List<MovieDto>> getByGenre(@PathVariable("genre") String genre) throws MovieNotFoundException {
-        return movieService.getByGenre(genre);
+    public ResponseEntity<MoviePageDto<?>> getByGenre(@PathVariable("genre") String genre,
+                                                      @RequestParam(required = false) @Min(value = 0, message = "Cursor cannot be less than '0'") Long after,
+                                                      @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                      @RequestParam(required = false) @Pattern(regexp = MovieProjectionDto.FIELDS_PATTERN,
+                                                              message = "Fields must be a comma separated list of the movie fields") String fields,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    throws MovieNotFoundException {
+        return movieService.getByGenre(genre, after, limit, fields, ifNoneMatch);
     }
 
     /**
-     * This method returns list of all movies by the specified rate
+     * This method returns the top rated movies of the specified genre
+     * or @throws MovieNotFoundException if there are not found movies.
+     *
+     * @param genre - the specified genre by which the movies will be filtered and returned
+     * @param n - the maximum number of movies
+     * @param ifNoneMatch - the ETag of the movies which the client already has
+     * @return - the top n movies of the genre ordered by rate (the highest first) or
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    @GetMapping("/genre/{genre}/top")
+    public ResponseEntity<List<MovieDto>> getTopByGenre(@PathVariable("genre") String genre,
+                                                        @RequestParam(defaultValue = "10") @Min(value = 1, message = "N cannot be less than '1'") int n,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    throws MovieNotFoundException {
+        return movieService.getTopByGenre(genre, n, ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies by the specified rate
      * or @throws MovieNotFoundException if there are not found movies.
      * Also it validates the input rate.
      *
      * @param rate - the specified rate by which the movies will be filtered and returned
-     * @return - list of all movies that match the specified rate or
+     * @param after - the cursor of the page (the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param fields - the comma separated fields of the movies (all fields if it is missing)
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of movies that match the specified rate or
      * @throws MovieNotFoundException - if there are not found movies
      */
     @GetMapping("/rate/{rate}")
-    public ResponseEntity<List<MovieDto>> getByRate(@PathVariable("rate") @DecimalMax("10.0")
-                                                 @DecimalMin(value = "0.0", message = "Rate must be less than or equal to 10.0") Double rate) throws MovieNotFoundException {
-        return movieService.getByRate(rate);
+    public ResponseEntity<MoviePageDto<?>> getByRate(@PathVariable("rate") @DecimalMax("10.0")
+                                                     @DecimalMin(value = "0.0", message = "Rate must be less than or equal to 10.0") Double rate,
+                                                     @RequestParam(required = false) @Min(value = 0, message = "Cursor cannot be less than '0'") Long after,
+                                                     @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                     @RequestParam(required = false) @Pattern(regexp = MovieProjectionDto.FIELDS_PATTERN,
+                                                             message = "Fields must be a comma separated list of the movie fields") String fields,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    throws MovieNotFoundException {
+        return movieService.getByRate(rate, after, limit, fields, ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies which match the specified filter
+     * or @throws MovieNotFoundException if there are not found movies.
+     * Every part of the filter is optional and the bounds of the ranges are inclusive.
+     *
+     * @param genre - the genre of the movies
+     * @param minRate - the minimum rate of the movies
+     * @param maxRate - the maximum rate of the movies
+     * @param releasedFrom - the earliest release date of the movies
+     * @param releasedTo - the latest release date of the movies
+     * @param after - the cursor of the page (the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param fields - the comma separated fields of the movies (all fields if it is missing)
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of movies that match the specified filter or
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<MoviePageDto<?>> filter(@RequestParam(required = false) String genre,
+                                                  @RequestParam(required = false) @DecimalMax("10.0")
+                                                  @DecimalMin(value = "0.0", message = "Rate must be less than or equal to 10.0") Double minRate,
+                                                  @RequestParam(required = false) @DecimalMax("10.0")
+                                                  @DecimalMin(value = "0.0", message = "Rate must be less than or equal to 10.0") Double maxRate,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedFrom,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedTo,
+                                                  @RequestParam(required = false) @Min(value = 0, message = "Cursor cannot be less than '0'") Long after,
+                                                  @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                  @RequestParam(required = false) @Pattern(regexp = MovieProjectionDto.FIELDS_PATTERN,
+                                                          message = "Fields must be a comma separated list of the movie fields") String fields,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    throws MovieNotFoundException {
+        return movieService.filter(new MovieFilterDto(genre, minRate, maxRate, releasedFrom, releasedTo),
+                after, limit, fields, ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies whose title or writer contain the searched words,
+     * ordered by relevance, or @throws MovieNotFoundException if there are not found movies.
+     *
+     * @param q - the searched words
+     * @param after - the cursor of the page (the score and the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of the found movies (the most relevant first) or
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    @GetMapping("/search")
+    public ResponseEntity<MoviePageDto<MovieDto>> search(@RequestParam @NotBlank(message = "The searched words are required!")
+                                                         @Size(max = 100, message = "The searched words cannot be longer than 100 characters") String q,
+                                                         @RequestParam(required = false) @Pattern(regexp = SearchCursorUtils.PATTERN,
+                                                                 message = "Cursor must be a cursor of the search") String after,
+                                                         @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    throws MovieNotFoundException {
+        return movieService.search(q, after, limit, ifNoneMatch);
+    }
+
+    /**
+     * This method returns the titles which start with the specified prefix, allowing a few typos,
+     * or @throws MovieNotFoundException if there are not found titles.
+     * It is meant to be called on every keystroke, so it never reaches the database.
+     *
+     * @param prefix - the prefix typed by the user
+     * @param n - the maximum number of titles
+     * @param ifNoneMatch - the ETag of the titles which the client already has
+     * @return - the titles, the closest to the prefix first or
+     * @throws MovieNotFoundException - if there are not found titles
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(@RequestParam @NotBlank(message = "The prefix is required!")
+                                                @Size(max = 100, message = "The prefix cannot be longer than 100 characters") String prefix,
+                                                @RequestParam(defaultValue = "10") @Min(value = 1, message = "N cannot be less than '1'") int n,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+    throws MovieNotFoundException {
+        return movieService.suggest(prefix, n, ifNoneMatch);
     }
 
     /**
@@ -104,37 +284,86 @@ public class MovieController {
      * It also validates the Movie's input properties.
      *
      * @param newMovie - the movie that must be inserted into the database
+     * @param accept - the formats accepted by the client
      * @return - the already inserted movie or
      * @throws MovieDuplicateKeyException - if there is already a same movie
      */
     @PostMapping("/movie")
-    public ResponseEntity<MovieDto> insert(@RequestBody @Valid MovieDto newMovie) throws MovieDuplicateKeyException {
-        return movieService.insert(newMovie);
+    public ResponseEntity<MovieDto> insert(@RequestBody @Valid MovieDto newMovie,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws MovieDuplicateKeyException {
+        return ETagUtils.withFormat(movieService.insert(newMovie), BinaryFormatConfig.negotiate(accept));
+    }
+
+    /**
+     * This method executes a mixed list of insert, upsert and delete operations
+     * as one bulk write and returns the result of every operation.
+     * It also validates the operations and their movies.
+     *
+     * @param operations - the operations that must be executed
+     * @return - the results of the operations in the order of the request
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkOperationResult>> bulk(@RequestBody @Valid
+                                                          @Size(min = 1, max = 10000, message = "The operations must be between 1 and 10000")
+                                                          List<BulkMovieOperation> operations) {
+        return movieBulkService.execute(operations);
     }
 
     /**
      * This method updates an existing Movie by a specified id or
      * insert a Movie if there is not found a movie to be updated.
+     * If the 'If-Match' header is supplied, the movie is updated only if its ETag matches the header.
      *
      * @param movie - the movie that will be updated / inserted
      * @param id - the id of the movie
-     * @return - the movie that was inserted / updated
+     * @param ifMatch - the ETag of the movie which the client has changed
+     * @param accept - the formats accepted by the client
+     * @return - the movie that was inserted / updated or
+     * @throws MovieDuplicateKeyException - if there is already another movie with the same title and writer
+     * @throws MoviePreconditionFailedException - if the ETag of the movie does not match the 'If-Match' header
      */
     @PutMapping("/{id}")
-    public ResponseEntity<MovieDto> update(@RequestBody @Valid MovieDto movie, @PathVariable @Min(1) Long id) {
-        return movieService.update(movie, id);
+    public ResponseEntity<MovieDto> update(@RequestBody @Valid MovieDto movie, @PathVariable @Min(1) Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+    throws MovieDuplicateKeyException, MoviePreconditionFailedException {
+        return ETagUtils.withFormat(movieService.update(movie, id, ifMatch), BinaryFormatConfig.negotiate(accept));
+    }
+
+    /**
+     * This method updates only the supplied fields of an existing Movie by a specified id or
+     * @throws MovieNotFoundException if there is not found movie.
+     * It also validates the supplied fields.
+     *
+     * @param movie - the fields that will be updated
+     * @param id - the id of the movie
+     * @param accept - the formats accepted by the client
+     * @return - the updated movie or
+     * @throws MovieNotFoundException - if there is not found movie to be updated
+     * @throws MovieDuplicateKeyException - if there is already another movie with the same title and writer
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<MovieDto> patch(@RequestBody @Valid MoviePatchDto movie, @PathVariable @Min(1) Long id,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+    throws MovieNotFoundException, MovieDuplicateKeyException {
+        return ETagUtils.withFormat(movieService.patch(movie, id), BinaryFormatConfig.negotiate(accept));
     }
 
     /**
      * This method deletes a movie by a specified id or
      * @throws MovieNotFoundException if there is not found movie.
+     * If the 'If-Match' header is supplied, the movie is deleted only if its ETag matches the header.
      *
      * @param id - the movie's id
+     * @param ifMatch - the ETag of the movie which the client deletes
      * @return - suitable answer (ResponseEntity.ok - HttpStatus OK 200) if the movie is deleted or
      * @throws MovieNotFoundException - if there is not found movie to be deleted
+     * @throws MoviePreconditionFailedException - if the ETag of the movie does not match the 'If-Match' header
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity delete(@PathVariable @Min(value = 1, message = "Id cannot be less than '1'") Long id) throws MovieNotFoundException {
-        return movieService.delete(id);
+    public ResponseEntity delete(@PathVariable @Min(value = 1, message = "Id cannot be less than '1'") Long id,
+                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+    throws MovieNotFoundException, MoviePreconditionFailedException {
+        return movieService.delete(id, ifMatch);
     }
 }
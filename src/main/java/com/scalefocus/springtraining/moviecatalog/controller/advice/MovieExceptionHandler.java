@@ -1,10 +1,13 @@
 package com.scalefocus.springtraining.moviecatalog.controller.advice;
 
+import com.scalefocus.springtraining.moviecatalog.exception.AuthenticationOverloadedException;
 import com.scalefocus.springtraining.moviecatalog.exception.MovieDuplicateKeyException;
 import com.scalefocus.springtraining.moviecatalog.exception.MovieNotFoundException;
+import com.scalefocus.springtraining.moviecatalog.exception.MoviePreconditionFailedException;
 import com.scalefocus.springtraining.moviecatalog.model.error.ErrorResponse;
 import com.scalefocus.springtraining.moviecatalog.util.GeneralConstant;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -35,6 +38,7 @@ import java.util.stream.Collectors;
  * makes good use of the RESTful @ResponseEntity response.
  */
 @ControllerAdvice
+@Profile("!reactive")
 public class MovieExceptionHandler extends ResponseEntityExceptionHandler {
 
     /**
@@ -79,8 +83,41 @@ public class MovieExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ErrorResponse> handleMoviesDuplicateKey(Exception ex) {
         ErrorResponse errors = new ErrorResponse(
                 ex.getMessage(),
-                HttpStatus.UNPROCESSABLE_ENTITY);
-        return new ResponseEntity<>(errors, HttpStatus.UNPROCESSABLE_ENTITY);
+                HttpStatus.CONFLICT);
+        return new ResponseEntity<>(errors, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * This method handles exceptions of type {@link MoviePreconditionFailedException}
+     * and return a {@link ResponseEntity} instance
+     * which contains custom {@link ErrorResponse} and {@link HttpStatus}
+     * @param ex - the exception that would be handled
+     * @return - a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(MoviePreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handleMoviePreconditionFailed(Exception ex) {
+        ErrorResponse errors = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.PRECONDITION_FAILED);
+        return new ResponseEntity<>(errors, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * This method handles exceptions of type {@link AuthenticationOverloadedException}
+     * and return a {@link ResponseEntity} instance
+     * which contains custom {@link ErrorResponse}, {@link HttpStatus} and
+     * Retry-After header with the seconds after which the user can retry.
+     * @param ex - the exception that would be handled
+     * @return - a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(AuthenticationOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationOverloaded(AuthenticationOverloadedException ex) {
+        ErrorResponse error = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
     }
 
     /**
@@ -0,0 +1,186 @@
+package com.scalefocus.springtraining.moviecatalog.controller.advice;
+
+import com.scalefocus.springtraining.moviecatalog.exception.AuthenticationOverloadedException;
+import com.scalefocus.springtraining.moviecatalog.exception.MovieDuplicateKeyException;
+import com.scalefocus.springtraining.moviecatalog.exception.MovieNotFoundException;
+import com.scalefocus.springtraining.moviecatalog.exception.MoviePreconditionFailedException;
+import com.scalefocus.springtraining.moviecatalog.model.error.ErrorResponse;
+import com.scalefocus.springtraining.moviecatalog.util.GeneralConstant;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MethodNotAllowedException;
+import org.springframework.web.server.ServerWebInputException;
+
+import javax.validation.ConstraintViolationException;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @author Kristiyan SLavov
+ * <p>
+ * The reactive global exception handler class.
+ * This class is the WebFlux counterpart of {@link MovieExceptionHandler}
+ * and it is used when the application runs with the 'reactive' profile.
+ * It maps the same exceptions to the same status codes and error bodies,
+ * so the clients can not tell which stack served the request.
+ */
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveMovieExceptionHandler {
+
+    /**
+     * This method handles exceptions of type {@link ConstraintViolationException}
+     * and return a {@link ResponseEntity} instance
+     * which contains custom {@link ErrorResponse} and {@link HttpStatus}
+     * @param ex - the exception that would be handled
+     * @return - a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolationException(Exception ex) {
+        ErrorResponse error = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This method handles exceptions of type {@link MovieNotFoundException}
+     * and return a {@link ResponseEntity} instance
+     * which contains custom {@link ErrorResponse} and {@link HttpStatus}
+     * @param ex - the exception that would be handled
+     * @return - a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(MovieNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleMovieNotFound(Exception ex) {
+        ErrorResponse errors = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(errors, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * This method handles exceptions of type {@link MovieDuplicateKeyException}
+     * and return a {@link ResponseEntity} instance
+     * which contains custom {@link ErrorResponse} and {@link HttpStatus}
+     * @param ex - the exception that would be handled
+     * @return - a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(MovieDuplicateKeyException.class)
+    public ResponseEntity<ErrorResponse> handleMoviesDuplicateKey(Exception ex) {
+        ErrorResponse errors = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.CONFLICT);
+        return new ResponseEntity<>(errors, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * This method handles exceptions of type {@link MoviePreconditionFailedException}
+     * and return a {@link ResponseEntity} instance
+     * which contains custom {@link ErrorResponse} and {@link HttpStatus}
+     * @param ex - the exception that would be handled
+     * @return - a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(MoviePreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handleMoviePreconditionFailed(Exception ex) {
+        ErrorResponse errors = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.PRECONDITION_FAILED);
+        return new ResponseEntity<>(errors, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * This method handles exceptions of type {@link AuthenticationOverloadedException}
+     * and return a {@link ResponseEntity} instance
+     * which contains custom {@link ErrorResponse}, {@link HttpStatus} and
+     * Retry-After header with the seconds after which the user can retry.
+     * @param ex - the exception that would be handled
+     * @return - a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(AuthenticationOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationOverloaded(AuthenticationOverloadedException ex) {
+        ErrorResponse error = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * This method handles exceptions of type {@link AuthenticationException}
+     * thrown while authenticating the user and return a {@link ResponseEntity} instance
+     * which contains custom {@link ErrorResponse} and {@link HttpStatus}
+     * @param ex - the exception that would be handled
+     * @return - a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleAuthentication(Exception ex) {
+        ErrorResponse error = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.UNAUTHORIZED);
+        return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * This method handles exceptions of type {@link WebExchangeBindException}
+     * (the reactive counterpart of MethodArgumentNotValidException),
+     * customize and return a {@link ResponseEntity}.
+     * @param ex - the exception that would be handled
+     * @return a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> handleWebExchangeBind(WebExchangeBindException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", GeneralConstant.DATE_NOW.format(DateTimeFormatter.ofPattern("DD-mm-yyyy hh:mm:ss")));
+        body.put("status", ex.getStatus().value());
+
+        //Get all fields errors
+        List<String> errors = ex.getBindingResult()
+                .getFieldErrors()
+                .stream()
+                .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.toList());
+        body.put("errors", errors);
+
+        return new ResponseEntity<>(body, ex.getStatus());
+    }
+
+    /**
+     * This method handles exceptions of type {@link MethodNotAllowedException},
+     * customize and return a {@link ResponseEntity}.
+     * @param ex - the exception that would be handled
+     * @return a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(MethodNotAllowedException.class)
+    public ResponseEntity<ErrorResponse> handleMethodNotAllowed(MethodNotAllowedException ex) {
+        ErrorResponse error = new ErrorResponse(
+                ex.getMessage(),
+                HttpStatus.METHOD_NOT_ALLOWED);
+        return new ResponseEntity<>(error, HttpStatus.METHOD_NOT_ALLOWED);
+    }
+
+    /**
+     * This method handles exceptions of type {@link ServerWebInputException}
+     * (not readable body or type mismatch of a parameter),
+     * customize and return a {@link ResponseEntity}.
+     * @param ex - the exception that would be handled
+     * @return a {@link ResponseEntity} instance
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleServerWebInput(ServerWebInputException ex) {
+        ErrorResponse error = new ErrorResponse(
+                ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage(),
+                HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+}
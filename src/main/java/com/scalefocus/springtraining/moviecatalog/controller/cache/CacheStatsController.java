@@ -0,0 +1,49 @@
+package com.scalefocus.springtraining.moviecatalog.controller.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.scalefocus.springtraining.moviecatalog.model.cache.CacheStatsDto;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The cache statistics controller class.
+ * This class exposes the hit, miss and eviction statistics
+ * of the in-process caches managed by the {@link CacheManager}.
+ *
+ * @author Kristiyan SLavov
+ */
+@RestController
+public class CacheStatsController {
+
+    private final CacheManager cacheManager;
+
+    public CacheStatsController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * This method returns the statistics of all caches.
+     *
+     * @return - list of the statistics of every cache
+     */
+    @GetMapping("/cache/stats")
+    public List<CacheStatsDto> getStats() {
+        return cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .map(cache -> toDto((CaffeineCache) cache))
+                .collect(Collectors.toList());
+    }
+
+    private CacheStatsDto toDto(CaffeineCache cache) {
+        CacheStats stats = cache.getNativeCache().stats();
+        return new CacheStatsDto(cache.getName(), cache.getNativeCache().estimatedSize(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
@@ -1,33 +1,46 @@
 package com.scalefocus.springtraining.moviecatalog.controller.jwt;
 
+import com.scalefocus.springtraining.moviecatalog.exception.AuthenticationOverloadedException;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtRefreshRequest;
 import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtRequest;
 import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtResponse;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtRevocationRequest;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.VerifiedToken;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.AuthenticationExecutor;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtRefreshService;
 import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtTokenService;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.TokenRevocationService;
 import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
-import com.scalefocus.springtraining.moviecatalog.util.GeneralConstant;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Expose a POST API/authenticate using the JwtAuthenticationController.
  * The POST API gets username and password in the body- Using Spring Authentication
  * Manager we authenticate the username and password. If the credentials are valid,
  * a JWT token is created using the JwtTokenUtil and provided it to the client.
+ * The credentials are verified on the {@link AuthenticationExecutor}, so the request
+ * thread is released while the password is checked.
+ * The POST API/authenticate/refresh exchanges a refresh token for a new JWT token
+ * without a password check, the POST API/authenticate/logout revokes the tokens of the user
+ * and the POST API/authenticate/revoke revokes any token (admins only).
  *
  * @author Kristiyan SLavov
  */
 @RestController
+@Profile("!reactive")
 @CrossOrigin
 public class JwtAuthenticationController {
 
@@ -35,12 +48,21 @@ public class JwtAuthenticationController {
 
     private JwtTokenService jwtTokenService;
 
-    private UserDetailsService jwtUserDetailsService;
+    private AuthenticationExecutor authenticationExecutor;
 
-    public JwtAuthenticationController(AuthenticationManager authenticationManager, JwtTokenService jwtTokenService, UserDetailsService jwtUserDetailsService) {
+    private JwtRefreshService jwtRefreshService;
+
+    private TokenRevocationService tokenRevocationService;
+
+    public JwtAuthenticationController(AuthenticationManager authenticationManager, JwtTokenService jwtTokenService,
+                                       AuthenticationExecutor authenticationExecutor,
+                                       JwtRefreshService jwtRefreshService,
+                                       TokenRevocationService tokenRevocationService) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenService = jwtTokenService;
-        this.jwtUserDetailsService = jwtUserDetailsService;
+        this.authenticationExecutor = authenticationExecutor;
+        this.jwtRefreshService = jwtRefreshService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -48,20 +70,66 @@ public class JwtAuthenticationController {
      * to authenticate the {@link JwtRequest}which contains
      * the username and the password of the user. If the authentication is
      * successful then this method returns a {@link ResponseEntity} with
-     * {@link JwtResponse} instance which contains a token, token type and token expiry date.
+     * {@link JwtResponse} instance which contains a token, token type, token expiry date,
+     * a refresh token and refresh token expiry date.
      *
      * @param authenticationRequest - the {@link JwtRequest} authenticationRequest
-     * @return {@link ResponseEntity} with {@link JwtResponse}
+     * @return {@link CompletableFuture} with {@link ResponseEntity} with {@link JwtResponse}
+     * @throws AuthenticationOverloadedException if there are too many authentication requests at the moment
      */
     @PostMapping(value = "/authenticate")
-    public ResponseEntity<?> createAuthenticationToken(@RequestBody JwtRequest authenticationRequest) {
-        authenticate(authenticationRequest.getUsername(), authenticationRequest.getPassword());
+    public CompletableFuture<ResponseEntity<?>> createAuthenticationToken(@RequestBody JwtRequest authenticationRequest)
+            throws AuthenticationOverloadedException {
+        return authenticationExecutor.submit(() -> {
+            // the authenticated principal is the loaded user, so the user is not loaded a second time
+            final UserDetails userDetails = (UserDetails) authenticate(authenticationRequest.getUsername(),
+                    authenticationRequest.getPassword()).getPrincipal();
+
+            return ResponseEntity.ok(jwtTokenService.generateTokens(userDetails));
+        });
+    }
+
+    /**
+     * This method uses {@link JwtRefreshService#refresh} to exchange the refresh token
+     * from the {@link JwtRefreshRequest} for a new JWT token. If the refresh token is valid
+     * then this method returns a {@link ResponseEntity} with {@link JwtResponse} instance
+     * which contains the new token and the same refresh token.
+     *
+     * @param refreshRequest - the {@link JwtRefreshRequest} refreshRequest
+     * @return {@link ResponseEntity} with {@link JwtResponse}
+     */
+    @PostMapping(value = "/authenticate/refresh")
+    public ResponseEntity<JwtResponse> refreshAuthenticationToken(@RequestBody JwtRefreshRequest refreshRequest) {
+        return ResponseEntity.ok(jwtRefreshService.refresh(refreshRequest.getRefreshToken()));
+    }
 
-        final UserDetails userDetails = jwtUserDetailsService.loadUserByUsername(authenticationRequest.getUsername());
-        final String token = jwtTokenService.generateToken(userDetails);
-        final LocalDateTime tokenExpirationDate = jwtTokenService.getExpirationDateFromToken(token);
+    /**
+     * This method uses {@link TokenRevocationService#logout} to revoke the JWT token of the request
+     * and the refresh token from the {@link JwtRefreshRequest}, if there is one.
+     *
+     * @param authentication - the authentication of the request, which has the verified token as credentials
+     * @param refreshRequest - the {@link JwtRefreshRequest} refreshRequest or null
+     * @return {@link ResponseEntity} without body
+     */
+    @PostMapping(value = "/authenticate/logout")
+    public ResponseEntity<Void> logout(Authentication authentication,
+                                       @RequestBody(required = false) JwtRefreshRequest refreshRequest) {
+        tokenRevocationService.logout((VerifiedToken) authentication.getCredentials(),
+                refreshRequest != null ? refreshRequest.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
 
-        return ResponseEntity.ok(new JwtResponse(GeneralConstant.BEARER_TOKEN_TYPE, token, tokenExpirationDate));
+    /**
+     * This method uses {@link TokenRevocationService#revoke} to revoke the token
+     * from the {@link JwtRevocationRequest}.
+     *
+     * @param revocationRequest - the {@link JwtRevocationRequest} revocationRequest
+     * @return {@link ResponseEntity} without body
+     */
+    @PostMapping(value = "/authenticate/revoke")
+    public ResponseEntity<Void> revoke(@RequestBody JwtRevocationRequest revocationRequest) {
+        tokenRevocationService.revoke(revocationRequest.getToken());
+        return ResponseEntity.noContent().build();
     }
 
     /**
@@ -70,10 +138,11 @@ public class JwtAuthenticationController {
      *
      * @param username - the username
      * @param password - the password
+     * @return the authentication of the user
      */
-    private void authenticate(String username, String password) {
+    private Authentication authenticate(String username, String password) {
         try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+            return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
         } catch (DisabledException e) {
             throw new DisabledException(ErrorMessage.USER_DISABLED.toString(), e);
         } catch (BadCredentialsException e) {
@@ -0,0 +1,134 @@
+package com.scalefocus.springtraining.moviecatalog.controller.jwt;
+
+import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtRefreshRequest;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtRequest;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtResponse;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtRevocationRequest;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.VerifiedToken;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.AuthenticationExecutor;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtRefreshService;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtTokenService;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.TokenRevocationService;
+import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * This class is the WebFlux counterpart of {@link JwtAuthenticationController}
+ * and it is used when the application runs with the 'reactive' profile.
+ * It authenticates the username and the password with the {@link ReactiveAuthenticationManager}
+ * and if the credentials are valid, a JWT token is created and provided to the client.
+ *
+ * @author Kristiyan SLavov
+ */
+@RestController
+@CrossOrigin
+@Profile("reactive")
+public class ReactiveJwtAuthenticationController {
+
+    private final ReactiveAuthenticationManager reactiveAuthenticationManager;
+
+    private final JwtTokenService jwtTokenService;
+
+    private final AuthenticationExecutor authenticationExecutor;
+
+    private final JwtRefreshService jwtRefreshService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public ReactiveJwtAuthenticationController(ReactiveAuthenticationManager reactiveAuthenticationManager,
+                                               JwtTokenService jwtTokenService,
+                                               AuthenticationExecutor authenticationExecutor,
+                                               JwtRefreshService jwtRefreshService,
+                                               TokenRevocationService tokenRevocationService) {
+        this.reactiveAuthenticationManager = reactiveAuthenticationManager;
+        this.jwtTokenService = jwtTokenService;
+        this.authenticationExecutor = authenticationExecutor;
+        this.jwtRefreshService = jwtRefreshService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /**
+     * This method authenticates the {@link JwtRequest} which contains
+     * the username and the password of the user. If the authentication is
+     * successful then this method returns a {@link ResponseEntity} with
+     * {@link JwtResponse} instance which contains a token, token type, token expiry date,
+     * a refresh token and refresh token expiry date.
+     *
+     * @param authenticationRequest - the {@link JwtRequest} authenticationRequest
+     * @return {@link Mono} with {@link ResponseEntity} with {@link JwtResponse}
+     */
+    @PostMapping(value = "/authenticate")
+    public Mono<ResponseEntity<JwtResponse>> createAuthenticationToken(@RequestBody JwtRequest authenticationRequest) {
+        return reactiveAuthenticationManager
+                .authenticate(new UsernamePasswordAuthenticationToken(
+                        authenticationRequest.getUsername(), authenticationRequest.getPassword()))
+                .onErrorMap(DisabledException.class, e -> new DisabledException(ErrorMessage.USER_DISABLED.toString(), e))
+                .onErrorMap(BadCredentialsException.class, e -> new BadCredentialsException(ErrorMessage.INVALID_CREDENTIALS.toString(), e))
+                // the queue of the authentication executor is full
+                .onErrorMap(RejectedExecutionException.class, e -> authenticationExecutor.overloaded())
+                .map(authentication -> ResponseEntity.ok(
+                        jwtTokenService.generateTokens((UserDetails) authentication.getPrincipal())));
+    }
+
+    /**
+     * This method uses {@link JwtRefreshService#refresh} to exchange the refresh token
+     * from the {@link JwtRefreshRequest} for a new JWT token. The user may be loaded
+     * from the database, so the refresh is moved from the event loop to the bounded elastic scheduler.
+     *
+     * @param refreshRequest - the {@link JwtRefreshRequest} refreshRequest
+     * @return {@link Mono} with {@link ResponseEntity} with {@link JwtResponse}
+     */
+    @PostMapping(value = "/authenticate/refresh")
+    public Mono<ResponseEntity<JwtResponse>> refreshAuthenticationToken(@RequestBody JwtRefreshRequest refreshRequest) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(jwtRefreshService.refresh(refreshRequest.getRefreshToken())))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * This method uses {@link TokenRevocationService#logout} to revoke the JWT token of the request
+     * and the refresh token from the {@link JwtRefreshRequest}, if there is one.
+     * The revocation is saved in the database, so it is moved from the event loop to the bounded elastic scheduler.
+     *
+     * @param authentication - the authentication of the request, which has the verified token as credentials
+     * @param refreshRequest - the {@link JwtRefreshRequest} refreshRequest or null
+     * @return {@link Mono} with {@link ResponseEntity} without body
+     */
+    @PostMapping(value = "/authenticate/logout")
+    public Mono<ResponseEntity<Void>> logout(Authentication authentication,
+                                             @RequestBody(required = false) JwtRefreshRequest refreshRequest) {
+        return Mono.fromRunnable(() -> tokenRevocationService.logout((VerifiedToken) authentication.getCredentials(),
+                refreshRequest != null ? refreshRequest.getRefreshToken() : null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    /**
+     * This method uses {@link TokenRevocationService#revoke} to revoke the token
+     * from the {@link JwtRevocationRequest}.
+     * The revocation is saved in the database, so it is moved from the event loop to the bounded elastic scheduler.
+     *
+     * @param revocationRequest - the {@link JwtRevocationRequest} revocationRequest
+     * @return {@link Mono} with {@link ResponseEntity} without body
+     */
+    @PostMapping(value = "/authenticate/revoke")
+    public Mono<ResponseEntity<Void>> revoke(@RequestBody JwtRevocationRequest revocationRequest) {
+        return Mono.fromRunnable(() -> tokenRevocationService.revoke(revocationRequest.getToken()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+}
@@ -0,0 +1,322 @@
+package com.scalefocus.springtraining.moviecatalog.controller.reactive;
+
+import com.scalefocus.springtraining.moviecatalog.config.BinaryFormatConfig;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkMovieOperation;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationResult;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePatchDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieProjectionDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.reactive.ReactiveMovieService;
+import com.scalefocus.springtraining.moviecatalog.util.ETagUtils;
+import com.scalefocus.springtraining.moviecatalog.util.SearchCursorUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * @author Kristiyan SLavov
+ * The reactive movie controller class.
+ * This class is the WebFlux counterpart of
+ * {@link com.scalefocus.springtraining.moviecatalog.controller.MovieController}
+ * and it is used when the application runs with the 'reactive' profile.
+ * It exposes the same paths with the same validation rules, but it never blocks
+ * the calling thread - it returns publishers from {@link ReactiveMovieService}.
+ */
+
+@RestController
+@Validated
+@Profile("reactive")
+@RequestMapping("/movies")
+public class ReactiveMovieController {
+
+    private final ReactiveMovieService reactiveMovieService;
+
+    public ReactiveMovieController(ReactiveMovieService reactiveMovieService) {
+        this.reactiveMovieService = reactiveMovieService;
+    }
+
+    /**
+     * This method takes an id as parameter and returns the movie that sits behind this id
+     * or signals MovieNotFoundException if no movie was found.
+     * The ETag of the response is the version of the movie in the accepted format, so if the client sends it back
+     * in the 'If-None-Match' header and the movie is not changed, the response is 304 (Not Modified)
+     * and the movie is not serialized.
+     *
+     * @param id - the input id - a number that must be greater than '1'
+     * @param accept - the formats accepted by the client
+     * @return - the movie that sits behind the specified id
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Movie>> getById(@PathVariable @Min(value = 1, message = "Id cannot be less than '1'") Long id,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = BinaryFormatConfig.negotiate(accept);
+        return reactiveMovieService.getById(id)
+                .map(movie -> ResponseEntity.ok().eTag(ETagUtils.toETag(movie.getVersion(), format)).body(movie));
+    }
+
+    /**
+     * This method returns a page of movies
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param after - the cursor of the page (the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param fields - the comma separated fields of the movies (all fields if it is missing)
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of movies and the cursor of the next page
+     */
+    @GetMapping
+    public Mono<ResponseEntity<MoviePageDto<?>>> getAll(@RequestParam(required = false) @Min(value = 0, message = "Cursor cannot be less than '0'") Long after,
+                                                        @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                        @RequestParam(required = false) @Pattern(regexp = MovieProjectionDto.FIELDS_PATTERN,
+                                                                message = "Fields must be a comma separated list of the movie fields") String fields,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reactiveMovieService.getAll(after, limit, fields, ifNoneMatch);
+    }
+
+    /**
+     * This method streams all movies as line delimited JSON,
+     * according to the demand of the client.
+     *
+     * @return - the streamed movies
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<MovieDto> stream() {
+        return reactiveMovieService.exportAll();
+    }
+
+    /**
+     * This method returns a page of movies by the specified genre
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param genre - the specified genre by which the movies will be filtered and returned
+     * @param after - the cursor of the page (the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param fields - the comma separated fields of the movies (all fields if it is missing)
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of movies that match the specified genre
+     */
+    @GetMapping("/genre/{genre}")
+    public Mono<ResponseEntity<MoviePageDto<?>>> getByGenre(@PathVariable("genre") String genre,
+                                                            @RequestParam(required = false) @Min(value = 0, message = "Cursor cannot be less than '0'") Long after,
+                                                            @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                            @RequestParam(required = false) @Pattern(regexp = MovieProjectionDto.FIELDS_PATTERN,
+                                                                    message = "Fields must be a comma separated list of the movie fields") String fields,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reactiveMovieService.getByGenre(genre, after, limit, fields, ifNoneMatch);
+    }
+
+    /**
+     * This method returns the top rated movies of the specified genre
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param genre - the specified genre by which the movies will be filtered and returned
+     * @param n - the maximum number of movies
+     * @param ifNoneMatch - the ETag of the movies which the client already has
+     * @return - the top n movies of the genre ordered by rate (the highest first)
+     */
+    @GetMapping("/genre/{genre}/top")
+    public Mono<ResponseEntity<List<MovieDto>>> getTopByGenre(@PathVariable("genre") String genre,
+                                                              @RequestParam(defaultValue = "10") @Min(value = 1, message = "N cannot be less than '1'") int n,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reactiveMovieService.getTopByGenre(genre, n, ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies by the specified rate
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param rate - the specified rate by which the movies will be filtered and returned
+     * @param after - the cursor of the page (the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param fields - the comma separated fields of the movies (all fields if it is missing)
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of movies that match the specified rate
+     */
+    @GetMapping("/rate/{rate}")
+    public Mono<ResponseEntity<MoviePageDto<?>>> getByRate(@PathVariable("rate") @DecimalMax("10.0")
+                                                           @DecimalMin(value = "0.0", message = "Rate must be less than or equal to 10.0") Double rate,
+                                                           @RequestParam(required = false) @Min(value = 0, message = "Cursor cannot be less than '0'") Long after,
+                                                           @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                           @RequestParam(required = false) @Pattern(regexp = MovieProjectionDto.FIELDS_PATTERN,
+                                                                   message = "Fields must be a comma separated list of the movie fields") String fields,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reactiveMovieService.getByRate(rate, after, limit, fields, ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies which match all of the supplied filters
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param genre - the genre of the movies
+     * @param minRate - the minimum rate of the movies
+     * @param maxRate - the maximum rate of the movies
+     * @param releasedFrom - the earliest release date of the movies
+     * @param releasedTo - the latest release date of the movies
+     * @param after - the cursor of the page (the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param fields - the comma separated fields of the movies (all fields if it is missing)
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of movies that match the specified filter
+     */
+    @GetMapping("/filter")
+    public Mono<ResponseEntity<MoviePageDto<?>>> filter(@RequestParam(required = false) String genre,
+                                                        @RequestParam(required = false) @DecimalMax("10.0")
+                                                        @DecimalMin(value = "0.0", message = "Rate must be less than or equal to 10.0") Double minRate,
+                                                        @RequestParam(required = false) @DecimalMax("10.0")
+                                                        @DecimalMin(value = "0.0", message = "Rate must be less than or equal to 10.0") Double maxRate,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedFrom,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedTo,
+                                                        @RequestParam(required = false) @Min(value = 0, message = "Cursor cannot be less than '0'") Long after,
+                                                        @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                        @RequestParam(required = false) @Pattern(regexp = MovieProjectionDto.FIELDS_PATTERN,
+                                                                message = "Fields must be a comma separated list of the movie fields") String fields,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reactiveMovieService.filter(new MovieFilterDto(genre, minRate, maxRate, releasedFrom, releasedTo),
+                after, limit, fields, ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies whose title or writer contain the searched words,
+     * ordered by relevance, or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param q - the searched words
+     * @param after - the cursor of the page (the score and the id of the last movie from the previous page)
+     * @param limit - the maximum number of movies in the page
+     * @param ifNoneMatch - the ETag of the page which the client already has
+     * @return - a page of the found movies (the most relevant first)
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<MoviePageDto<MovieDto>>> search(@RequestParam @NotBlank(message = "The searched words are required!")
+                                                               @Size(max = 100, message = "The searched words cannot be longer than 100 characters") String q,
+                                                               @RequestParam(required = false) @Pattern(regexp = SearchCursorUtils.PATTERN,
+                                                                       message = "Cursor must be a cursor of the search") String after,
+                                                               @RequestParam(required = false) @Min(value = 1, message = "Limit cannot be less than '1'") Integer limit,
+                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reactiveMovieService.search(q, after, limit, ifNoneMatch);
+    }
+
+    /**
+     * This method returns the titles which start with the specified prefix, allowing a few typos,
+     * or signals MovieNotFoundException if there are not found titles.
+     *
+     * @param prefix - the prefix typed by the user
+     * @param n - the maximum number of titles
+     * @param ifNoneMatch - the ETag of the titles which the client already has
+     * @return - the titles, the closest to the prefix first
+     */
+    @GetMapping("/suggest")
+    public Mono<ResponseEntity<List<String>>> suggest(@RequestParam @NotBlank(message = "The prefix is required!")
+                                                      @Size(max = 100, message = "The prefix cannot be longer than 100 characters") String prefix,
+                                                      @RequestParam(defaultValue = "10") @Min(value = 1, message = "N cannot be less than '1'") int n,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reactiveMovieService.suggest(prefix, n, ifNoneMatch);
+    }
+
+    /**
+     * This method inserts a new Movie into the database
+     * or signals MovieDuplicateKeyException if there is already a same movie.
+     *
+     * @param newMovie - the movie that must be inserted into the database
+     * @param accept - the formats accepted by the client
+     * @return - the already inserted movie
+     */
+    @PostMapping("/movie")
+    public Mono<ResponseEntity<MovieDto>> insert(@RequestBody @Valid MovieDto newMovie,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = BinaryFormatConfig.negotiate(accept);
+        return reactiveMovieService.insert(newMovie).map(response -> ETagUtils.withFormat(response, format));
+    }
+
+    /**
+     * This method executes a mixed list of insert, upsert and delete operations
+     * as one bulk write and returns the result of every operation.
+     *
+     * @param operations - the operations that must be executed
+     * @return - the results of the operations in the order of the request
+     */
+    @PostMapping("/bulk")
+    public Mono<ResponseEntity<List<BulkOperationResult>>> bulk(@RequestBody @Valid
+                                                                @Size(min = 1, max = 10000, message = "The operations must be between 1 and 10000")
+                                                                List<BulkMovieOperation> operations) {
+        return reactiveMovieService.bulk(operations);
+    }
+
+    /**
+     * This method updates an existing Movie by a specified id or
+     * insert a Movie if there is not found a movie to be updated.
+     * If the 'If-Match' header is supplied, the movie is updated only if its ETag matches the header.
+     *
+     * @param movie - the movie that will be updated / inserted
+     * @param id - the id of the movie
+     * @param ifMatch - the ETag of the movie which the client has changed
+     * @param accept - the formats accepted by the client
+     * @return - the movie that was inserted / updated
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<MovieDto>> update(@RequestBody @Valid MovieDto movie, @PathVariable @Min(1) Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = BinaryFormatConfig.negotiate(accept);
+        return reactiveMovieService.update(movie, id, ifMatch).map(response -> ETagUtils.withFormat(response, format));
+    }
+
+    /**
+     * This method updates only the supplied fields of an existing Movie by a specified id
+     * or signals MovieNotFoundException if there is not found movie.
+     *
+     * @param movie - the fields that will be updated
+     * @param id - the id of the movie
+     * @param accept - the formats accepted by the client
+     * @return - the updated movie
+     */
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<MovieDto>> patch(@RequestBody @Valid MoviePatchDto movie, @PathVariable @Min(1) Long id,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = BinaryFormatConfig.negotiate(accept);
+        return reactiveMovieService.patch(movie, id).map(response -> ETagUtils.withFormat(response, format));
+    }
+
+    /**
+     * This method deletes a movie by a specified id
+     * or signals MovieNotFoundException if there is not found movie.
+     * If the 'If-Match' header is supplied, the movie is deleted only if its ETag matches the header.
+     *
+     * @param id - the movie's id
+     * @param ifMatch - the ETag of the movie which the client deletes
+     * @return - suitable answer (HttpStatus OK 200) if the movie is deleted
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> delete(@PathVariable @Min(value = 1, message = "Id cannot be less than '1'") Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return reactiveMovieService.delete(id, ifMatch);
+    }
+}
@@ -0,0 +1,24 @@
+package com.scalefocus.springtraining.moviecatalog.exception;
+
+/**
+ * The authentication overloaded exception class.
+ * It is a custom exception that will be sent to the user
+ * if the credentials can not be verified right now, because
+ * the queue of the authentication requests is full.
+ * It carries the number of seconds after which the user can retry.
+ *
+ * @author Kristiyan SLavov
+ */
+public class AuthenticationOverloadedException extends Exception {
+
+    private final long retryAfterSeconds;
+
+    public AuthenticationOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
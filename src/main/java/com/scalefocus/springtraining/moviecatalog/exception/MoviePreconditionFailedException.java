@@ -0,0 +1,16 @@
+package com.scalefocus.springtraining.moviecatalog.exception;
+
+/**
+ * The movie precondition failed exception class.
+ * It is a custom exception that will be sent to the user
+ * if he tries to update or delete a movie with an 'If-Match' header
+ * and the movie is already changed (or deleted) by another request.
+ *
+ * @author Kristiyan SLavov
+ */
+public class MoviePreconditionFailedException extends Exception {
+
+    public MoviePreconditionFailedException(String message) {
+        super(message);
+    }
+}
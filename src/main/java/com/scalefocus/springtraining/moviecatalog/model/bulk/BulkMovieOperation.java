@@ -0,0 +1,50 @@
+package com.scalefocus.springtraining.moviecatalog.model.bulk;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * This class represents a single operation of a bulk request.
+ * The INSERT operation requires a movie, the UPSERT operation requires an id and a movie
+ * and the DELETE operation requires an id.
+ *
+ * @author Kristiyan SLavov
+ */
+public class BulkMovieOperation {
+
+    @NotNull(message = "The operation type is required!")
+    private BulkOperationType type;
+
+    @Min(value = 1, message = "Id cannot be less than '1'")
+    private Long id;
+
+    @Valid
+    private MovieDto movie;
+
+    public BulkOperationType getType() {
+        return type;
+    }
+
+    public void setType(BulkOperationType type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public MovieDto getMovie() {
+        return movie;
+    }
+
+    public void setMovie(MovieDto movie) {
+        this.movie = movie;
+    }
+}
@@ -0,0 +1,48 @@
+package com.scalefocus.springtraining.moviecatalog.model.bulk;
+
+/**
+ * This class represents the result of a single operation of a bulk request.
+ * The index is the position of the operation in the request.
+ *
+ * @author Kristiyan SLavov
+ */
+public class BulkOperationResult {
+
+    private final int index;
+
+    private final BulkOperationType type;
+
+    private final Long id;
+
+    private final BulkOperationStatus status;
+
+    private final String message;
+
+    public BulkOperationResult(int index, BulkOperationType type, Long id, BulkOperationStatus status, String message) {
+        this.index = index;
+        this.type = type;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public BulkOperationType getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BulkOperationStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,16 @@
+package com.scalefocus.springtraining.moviecatalog.model.bulk;
+
+/**
+ * This enum contains the outcomes of a single bulk operation.
+ *
+ * @author Kristiyan SLavov
+ */
+public enum BulkOperationStatus {
+    INSERTED,
+    UPDATED,
+    DELETED,
+    DUPLICATE,
+    NOT_FOUND,
+    INVALID,
+    FAILED
+}
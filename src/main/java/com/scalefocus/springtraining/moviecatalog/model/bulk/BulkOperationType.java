@@ -0,0 +1,13 @@
+package com.scalefocus.springtraining.moviecatalog.model.bulk;
+
+/**
+ * This enum contains the types of the operations
+ * which can be sent to the bulk endpoint.
+ *
+ * @author Kristiyan SLavov
+ */
+public enum BulkOperationType {
+    INSERT,
+    UPSERT,
+    DELETE
+}
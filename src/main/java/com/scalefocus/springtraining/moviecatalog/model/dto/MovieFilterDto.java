@@ -0,0 +1,72 @@
+package com.scalefocus.springtraining.moviecatalog.model.dto;
+
+import java.time.LocalDate;
+
+/**
+ * This class represents the filter of a list of movies.
+ * Every field is optional - the filter matches the movies of the genre (if it is not null),
+ * whose rate is in [minRate, maxRate] and whose release date is in [releasedFrom, releasedTo].
+ * A missing bound is an open bound, so the rate filter is 'minRate = maxRate = rate'.
+ *
+ * @author Kristiyan SLavov
+ */
+public class MovieFilterDto {
+
+    private final String genre;
+
+    private final Double minRate;
+
+    private final Double maxRate;
+
+    private final LocalDate releasedFrom;
+
+    private final LocalDate releasedTo;
+
+    public MovieFilterDto(String genre, Double minRate, Double maxRate, LocalDate releasedFrom, LocalDate releasedTo) {
+        this.genre = genre;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.releasedFrom = releasedFrom;
+        this.releasedTo = releasedTo;
+    }
+
+    /**
+     * This method returns the filter of the movies of the specified genre.
+     *
+     * @param genre - the genre
+     * @return the filter
+     */
+    public static MovieFilterDto ofGenre(String genre) {
+        return new MovieFilterDto(genre, null, null, null, null);
+    }
+
+    /**
+     * This method returns the filter of the movies with the specified rate.
+     *
+     * @param rate - the rate
+     * @return the filter
+     */
+    public static MovieFilterDto ofRate(Double rate) {
+        return new MovieFilterDto(null, rate, rate, null, null);
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public Double getMinRate() {
+        return minRate;
+    }
+
+    public Double getMaxRate() {
+        return maxRate;
+    }
+
+    public LocalDate getReleasedFrom() {
+        return releasedFrom;
+    }
+
+    public LocalDate getReleasedTo() {
+        return releasedTo;
+    }
+}
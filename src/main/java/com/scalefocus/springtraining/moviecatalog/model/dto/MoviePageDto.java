@@ -0,0 +1,34 @@
+package com.scalefocus.springtraining.moviecatalog.model.dto;
+
+import java.util.List;
+
+/**
+ * This class represents a single page of movies
+ * returned by the list endpoints. Besides the movies it contains
+ * the cursor that must be sent back (as 'after' parameter)
+ * to get the next page, or null if this is the last page.
+ * The movies are moviesDto or, if the client selected only some fields,
+ * {@link MovieProjectionDto}.
+ *
+ * @param <T> - the type of the movies
+ * @author Kristiyan SLavov
+ */
+public class MoviePageDto<T> {
+
+    private final List<T> movies;
+
+    private final String nextCursor;
+
+    public MoviePageDto(List<T> movies, String nextCursor) {
+        this.movies = movies;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getMovies() {
+        return movies;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,87 @@
+package com.scalefocus.springtraining.moviecatalog.model.dto;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.PastOrPresent;
+import javax.validation.constraints.Pattern;
+import java.time.LocalDate;
+
+/**
+ * This class represents a partial update of a
+ * {@link com.scalefocus.springtraining.moviecatalog.model.entity.Movie}.
+ * Only the fields which are not null are updated, so every field is optional,
+ * but the supplied fields are validated the same way as in {@link MovieDto}.
+ *
+ * @author Kristiyan SLavov
+ */
+public class MoviePatchDto {
+
+    private static final String NOT_BLANK = ".*\\S.*";
+
+    @Pattern(regexp = NOT_BLANK, message = "The title cannot be blank!")
+    private String title;
+
+    @Pattern(regexp = NOT_BLANK, message = "The writer cannot be blank!")
+    private String writer;
+
+    @Pattern(regexp = NOT_BLANK, message = "The genre cannot be blank!")
+    private String genre;
+
+    @Pattern(regexp = NOT_BLANK, message = "The runtime cannot be blank!")
+    private String runtime;
+
+    @PastOrPresent(message = "Must be a past or present date!")
+    private LocalDate releaseDate;
+
+    @DecimalMax("10.0")
+    @DecimalMin("0.0")
+    private Double rate;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getWriter() {
+        return writer;
+    }
+
+    public void setWriter(String writer) {
+        this.writer = writer;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public String getRuntime() {
+        return runtime;
+    }
+
+    public void setRuntime(String runtime) {
+        this.runtime = runtime;
+    }
+
+    public LocalDate getReleaseDate() {
+        return releaseDate;
+    }
+
+    public void setReleaseDate(LocalDate releaseDate) {
+        this.releaseDate = releaseDate;
+    }
+
+    public Double getRate() {
+        return rate;
+    }
+
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,97 @@
+package com.scalefocus.springtraining.moviecatalog.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * This class represents a movie with only the fields selected by the client
+ * (with the 'fields' parameter of the list endpoints).
+ * It is read directly from the database with a field projection, so the
+ * fields which are not selected are neither read from the database nor
+ * serialized (they are null and the null fields are skipped).
+ * The id is always read, because it is the cursor of the next page, but it is not serialized.
+ *
+ * @author Kristiyan SLavov
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieProjectionDto {
+
+    /**
+     * The pattern of the 'fields' parameter - a comma separated list of the fields of {@link MovieDto}.
+     */
+    public static final String FIELDS_PATTERN =
+            "^(title|writer|genre|runtime|releaseDate|rate)(,(title|writer|genre|runtime|releaseDate|rate))*$";
+
+    @JsonIgnore
+    private Long id;
+
+    private String title;
+
+    private String writer;
+
+    private String genre;
+
+    private String runtime;
+
+    private LocalDate releaseDate;
+
+    private Double rate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getWriter() {
+        return writer;
+    }
+
+    public void setWriter(String writer) {
+        this.writer = writer;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public String getRuntime() {
+        return runtime;
+    }
+
+    public void setRuntime(String runtime) {
+        this.runtime = runtime;
+    }
+
+    public LocalDate getReleaseDate() {
+        return releaseDate;
+    }
+
+    public void setReleaseDate(LocalDate releaseDate) {
+        this.releaseDate = releaseDate;
+    }
+
+    public Double getRate() {
+        return rate;
+    }
+
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+}
@@ -1,7 +1,9 @@
 package com.scalefocus.springtraining.moviecatalog.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.DecimalMax;
@@ -51,6 +53,25 @@ public class Movie {
     @DecimalMin("0.0")
     private Double rate;
 
+    // The version of the movie - it is incremented on every write
+    // and it is sent to the clients as the ETag of the movie.
+    // The movies saved before it was added have no version, which is the same as '0'.
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    // The normalized (trimmed and lower-cased) copies of the searchable fields.
+    // They are set by the MovieModelListener before every save
+    // and are used by the queries instead of case-insensitive regular expressions.
+    @JsonIgnore
+    private String normalizedTitle;
+
+    @JsonIgnore
+    private String normalizedWriter;
+
+    @JsonIgnore
+    private String normalizedGenre;
+
     public Long getId() {
         return id;
     }
@@ -107,6 +128,38 @@ public class Movie {
         this.rate = rate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getNormalizedTitle() {
+        return normalizedTitle;
+    }
+
+    public void setNormalizedTitle(String normalizedTitle) {
+        this.normalizedTitle = normalizedTitle;
+    }
+
+    public String getNormalizedWriter() {
+        return normalizedWriter;
+    }
+
+    public void setNormalizedWriter(String normalizedWriter) {
+        this.normalizedWriter = normalizedWriter;
+    }
+
+    public String getNormalizedGenre() {
+        return normalizedGenre;
+    }
+
+    public void setNormalizedGenre(String normalizedGenre) {
+        this.normalizedGenre = normalizedGenre;
+    }
+
     @Override
     public String toString() {
         return "Movie [id=" + id + ", title=" + title + ", writer=" + writer +
@@ -0,0 +1,46 @@
+package com.scalefocus.springtraining.moviecatalog.model.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * It is an entity class and it'll store the ids (the jti claim) of the revoked JWT tokens.
+ * A revoked token is kept only until the token itself expires - the TTL index
+ * on the expireAt field removes it after that.
+ *
+ * @author Kristiyan SLavov
+ */
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private String id;
+
+    private Date expireAt;
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String id, Date expireAt) {
+        this.id = id;
+        this.expireAt = expireAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Date getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(Date expireAt) {
+        this.expireAt = expireAt;
+    }
+}
@@ -0,0 +1,58 @@
+package com.scalefocus.springtraining.moviecatalog.model.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+/**
+ * It is an entity class and it'll store the accounts of the users
+ * that can authenticate to the application.
+ * The username is the id of the account and the password is stored BCrypt encoded.
+ *
+ * @author Kristiyan SLavov
+ */
+@Document(collection = "users")
+public class UserAccount {
+
+    @Id
+    private String username;
+
+    private String password;
+
+    private List<String> roles;
+
+    private boolean enabled = true;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,27 @@
+package com.scalefocus.springtraining.moviecatalog.model.jwt;
+
+/**
+ * JwtRefreshRequest is required for storing the refresh token
+ * we received from the client.
+ *
+ * @author Kristiyan SLavov
+ */
+public class JwtRefreshRequest {
+
+    private String refreshToken;
+
+    public JwtRefreshRequest() {
+    }
+
+    public JwtRefreshRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
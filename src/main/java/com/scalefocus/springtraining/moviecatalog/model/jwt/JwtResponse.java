@@ -4,7 +4,8 @@ import java.time.LocalDateTime;
 
 /**
  * JwtResponse is required for creating a response containing the JWT
- * to be returned to the user.
+ * to be returned to the user, together with the refresh token which
+ * is exchanged for a new JWT when the current one expires.
  *
  * @author Kristiyan SLavov
  */
@@ -16,10 +17,17 @@ public class JwtResponse {
 
     private final LocalDateTime expiresIn;
 
-    public JwtResponse(String tokenType, String token, LocalDateTime expiresIn) {
+    private final String refreshToken;
+
+    private final LocalDateTime refreshTokenExpiresIn;
+
+    public JwtResponse(String tokenType, String token, LocalDateTime expiresIn,
+                       String refreshToken, LocalDateTime refreshTokenExpiresIn) {
         this.tokenType = tokenType;
         this.token = token;
         this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
+        this.refreshTokenExpiresIn = refreshTokenExpiresIn;
     }
 
     public String getToken() {
@@ -33,4 +41,12 @@ public class JwtResponse {
     public LocalDateTime getExpiresIn() {
         return expiresIn;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public LocalDateTime getRefreshTokenExpiresIn() {
+        return refreshTokenExpiresIn;
+    }
 }
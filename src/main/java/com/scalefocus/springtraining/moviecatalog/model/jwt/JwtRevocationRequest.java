@@ -0,0 +1,27 @@
+package com.scalefocus.springtraining.moviecatalog.model.jwt;
+
+/**
+ * JwtRevocationRequest is required for storing the token (access or refresh token)
+ * to be revoked, which we received from the client.
+ *
+ * @author Kristiyan SLavov
+ */
+public class JwtRevocationRequest {
+
+    private String token;
+
+    public JwtRevocationRequest() {
+    }
+
+    public JwtRevocationRequest(String token) {
+        this.token = token;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
@@ -0,0 +1,13 @@
+package com.scalefocus.springtraining.moviecatalog.model.jwt;
+
+/**
+ * This TokenType enum class contains the types of the JWT tokens.
+ * The access tokens authenticate the requests and the refresh tokens
+ * are exchanged for new access tokens.
+ *
+ * @author Kristiyan SLavov
+ */
+public enum TokenType {
+    ACCESS,
+    REFRESH
+}
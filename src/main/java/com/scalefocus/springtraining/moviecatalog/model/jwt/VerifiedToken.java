@@ -0,0 +1,67 @@
+package com.scalefocus.springtraining.moviecatalog.model.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * VerifiedToken holds the claims of a JWT whose signature is already verified.
+ * The token is parsed once per request (or once per token, when it is cached)
+ * and every check after that works with this object.
+ * The authorities are built from the roles claim once, when the token is verified,
+ * so the authenticated requests do not load the user.
+ *
+ * @author Kristiyan SLavov
+ */
+public class VerifiedToken {
+
+    private final String id;
+
+    private final TokenType type;
+
+    private final String username;
+
+    private final Instant expiration;
+
+    private final List<GrantedAuthority> authorities;
+
+    public VerifiedToken(String id, TokenType type, String username, Instant expiration,
+                         List<GrantedAuthority> authorities) {
+        this.id = id;
+        this.type = type;
+        this.username = username;
+        this.expiration = expiration;
+        this.authorities = authorities;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public TokenType getType() {
+        return type;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Instant getExpiration() {
+        return expiration;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * This method checks if the token is expired at the specified moment.
+     *
+     * @param now - the moment to be checked
+     * @return true if the token is expired or false if it is not.
+     */
+    public boolean isExpired(Instant now) {
+        return !expiration.isAfter(now);
+    }
+}
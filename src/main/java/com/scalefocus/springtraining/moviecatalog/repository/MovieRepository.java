@@ -1,23 +1,29 @@
 package com.scalefocus.springtraining.moviecatalog.repository;
 
 import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
 /**
  * This interface is used for communication with MongoDB.
  * It uses the {@link MongoRepository} methods for this purpose.
+ * The list queries are keyset (cursor) based - they return only the movies
+ * with id greater than the given cursor, so every page is a single range scan
+ * and a {@link Slice} is used to avoid the extra count query of a Page.
+ * The case-insensitive queries use the normalized fields of the movie,
+ * so they are exact matches that can use an index.
+ * The duplicate movies are rejected by the unique index on the normalized title and writer.
  *
  * @author Kristiyan SLavov
  */
 @Repository
 public interface MovieRepository extends MongoRepository<Movie, Long> {
 
-    List<Movie> findByGenreIgnoreCase(String title);
+    Slice<Movie> findByIdGreaterThan(Long id, Pageable pageable);
 
-    List<Movie> findByRate(double rate);
+    Slice<Movie> findByNormalizedGenreAndIdGreaterThan(String normalizedGenre, Long id, Pageable pageable);
 
-    Movie findByTitleIgnoreCaseAndWriterIgnoreCase(String title, String writer);
+    Slice<Movie> findByRateAndIdGreaterThan(double rate, Long id, Pageable pageable);
 }
@@ -0,0 +1,15 @@
+package com.scalefocus.springtraining.moviecatalog.repository;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.UserAccount;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This interface is used for communication with the users collection in MongoDB.
+ * It uses the {@link MongoRepository} methods for this purpose.
+ *
+ * @author Kristiyan SLavov
+ */
+@Repository
+public interface UserAccountRepository extends MongoRepository<UserAccount, String> {
+}
@@ -0,0 +1,26 @@
+package com.scalefocus.springtraining.moviecatalog.repository.reactive;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * This interface is the reactive counterpart of
+ * {@link com.scalefocus.springtraining.moviecatalog.repository.MovieRepository}.
+ * It is used for non-blocking communication with MongoDB
+ * when the application runs with the 'reactive' profile.
+ * The list queries are keyset (cursor) based, the same way as the blocking ones.
+ *
+ * @author Kristiyan SLavov
+ */
+@Repository
+public interface ReactiveMovieRepository extends ReactiveMongoRepository<Movie, Long> {
+
+    Flux<Movie> findByIdGreaterThan(Long id, Pageable pageable);
+
+    Flux<Movie> findByNormalizedGenreAndIdGreaterThan(String normalizedGenre, Long id, Pageable pageable);
+
+    Flux<Movie> findByRateAndIdGreaterThan(double rate, Long id, Pageable pageable);
+}
@@ -1,19 +1,44 @@
 package com.scalefocus.springtraining.moviecatalog.service;
 
+import com.scalefocus.springtraining.moviecatalog.config.MovieCacheConfig;
 import com.scalefocus.springtraining.moviecatalog.exception.MovieDuplicateKeyException;
 import com.scalefocus.springtraining.moviecatalog.exception.MovieNotFoundException;
+import com.scalefocus.springtraining.moviecatalog.exception.MoviePreconditionFailedException;
 import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePatchDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieProjectionDto;
 import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
 import com.scalefocus.springtraining.moviecatalog.repository.MovieRepository;
 import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
-import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import com.scalefocus.springtraining.moviecatalog.service.leaderboard.GenreLeaderboard;
+import com.scalefocus.springtraining.moviecatalog.service.listener.MovieWriteListener;
+import com.scalefocus.springtraining.moviecatalog.service.search.MovieSearchAggregation;
+import com.scalefocus.springtraining.moviecatalog.service.snapshot.MovieSnapshot;
+import com.scalefocus.springtraining.moviecatalog.service.suggest.TitleSuggester;
+import com.scalefocus.springtraining.moviecatalog.service.support.MovieServiceSupport;
+import com.scalefocus.springtraining.moviecatalog.util.ETagUtils;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 /**
  * @author Kristiyan SLavov
  * <p>
@@ -24,6 +49,17 @@ import java.util.List;
  * send it to the database and after that receives a response from the database,
  * which is send back to the controller.
  * All buisness logic is happening here (in the service layer).
+ * Every public method is timed in the 'movies.service' metric (tagged with the method).
+ * The title suggestions are served from the in-memory {@link TitleSuggester}, which (like the cache,
+ * the leaderboard and the snapshot) is updated on every write by the {@link MovieWriteListener}.
+ * If the in-memory {@link MovieSnapshot} is enabled and loaded, the lists by genre, by rate and by filter
+ * are served from it instead of the database.
+ * The lists have a hash of their content as ETag (see {@link ETagUtils#toListETag}) and the movies have their
+ * version as ETag, so the unchanged lists are not sent again and the updates and deletes can be conditional.
+ * The lists served from the snapshot have an ETag derived from its version, which is matched before the scan.
+ * The database has no such version for an arbitrary query, so the lists read from it are hashed after they are read
+ * and a matching 'If-None-Match' saves only the serialization.
+ * The queries and the responses are built by the {@link MovieServiceSupport}, which is shared with the reactive service.
  */
 @Service
 public class MovieService {
@@ -32,150 +68,396 @@ public class MovieService {
 
     private MovieConverter movieConverter;
 
+    private final MongoOperations mongoOperations;
+
+    private final GenreLeaderboard genreLeaderboard;
+
+    private final TitleSuggester titleSuggester;
+
+    private final MovieSnapshot movieSnapshot;
+
+    private final MovieWriteListener movieWriteListener;
+
+    private final MovieServiceSupport support;
+
     @Autowired
-    public MovieService(MovieRepository movieRepository, MovieConverter movieConverter) {
+    public MovieService(MovieRepository movieRepository, MovieConverter movieConverter,
+                        MongoOperations mongoOperations, GenreLeaderboard genreLeaderboard,
+                        TitleSuggester titleSuggester, MovieSnapshot movieSnapshot,
+                        MovieWriteListener movieWriteListener, MovieServiceSupport support) {
         this.movieRepository = movieRepository;
         this.movieConverter = movieConverter;
+        this.mongoOperations = mongoOperations;
+        this.genreLeaderboard = genreLeaderboard;
+        this.titleSuggester = titleSuggester;
+        this.movieSnapshot = movieSnapshot;
+        this.movieWriteListener = movieWriteListener;
+        this.support = support;
     }
 
     /**
-     * @param id
-     * @throws MovieNotFoundException
+     * This method returns the movie with the specified id
+     * or @throws MovieNotFoundException if there is not such movie.
+     * The movies are cached, so the popular ones are served without a database call.
+     * The cached entry is evicted by the {@link MovieWriteListener} when the movie is updated or deleted.
+     * The entry is loaded synchronously (a single load per id at a time), so an eviction which comes
+     * while the movie is read waits for the read and removes its result - a movie read before
+     * a write is never kept in the cache after the write.
+     *
+     * @param id - the id of the movie
+     * @return - the movie with the specified id
+     * @throws MovieNotFoundException - if there is not such movie
      */
+    @Cacheable(cacheNames = MovieCacheConfig.MOVIES_CACHE, key = "#id", sync = true)
+    @Timed(value = "movies.service", histogram = true)
     public Movie getById(Long id) throws MovieNotFoundException {
-        return movieRepository.findById(id).orElseThrow(() -> new MovieNotFoundException(ErrorMessage.MOVIE_NOT_FOUND.toString()));
+        return movieRepository.findById(id).orElseThrow(support::notFound);
     }
 
     /**
-     * This method returns list of all movies(moviesDto) or @throws MovieNotFoundException
+     * This method returns a page of movies(moviesDto) or @throws MovieNotFoundException
      * if there are not found movies.
+     * The page contains the movies with id greater than the specified cursor,
+     * ordered by id, so it costs a single range scan on the id index.
      * It is responsible for converting the received list of movies to list of moviesDto
      * that will be sent back to the controller(converting from entity to dto) with the
      * help of the movieConverter.
+     * If only some fields are selected, the movies are read directly into {@link MovieProjectionDto}
+     * with a field projection, without the entity and the conversion.
      *
-     * @return - list of all moviesDto
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a page of moviesDto and the cursor of the next page
+     * or 304 (Not Modified) without a body if the ETag of the movies matches 'If-None-Match'
      *
      * @throws MovieNotFoundException - if there are not found movies
      */
-    public ResponseEntity<List<MovieDto>> getAll() throws MovieNotFoundException {
-        if (movieRepository.findAll().isEmpty()) {
-            throw new MovieNotFoundException(ErrorMessage.MOVIE_NOT_FOUND.toString());
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<MoviePageDto<?>> getAll(Long after, Integer limit, String fields, String ifNoneMatch)
+            throws MovieNotFoundException {
+        if (fields != null) {
+            return projectionPageResponse(support.allCriteria(after), limit, fields, ifNoneMatch);
         }
-        List<MovieDto> movieDtoList = movieConverter.toDtoList(movieRepository.findAll());
-
-        return new ResponseEntity<>(movieDtoList, HttpStatus.OK);
+        return support.pageResponse(support.toPage(movieRepository.findByIdGreaterThan(support.cursorOf(after),
+                support.pageOf(support.sizeOf(limit)))), ifNoneMatch);
     }
 
     /**
-     * This method returns list of all movies(moviesDto) by the specified genre
+     * This method returns a page of movies(moviesDto) by the specified genre
      * or @throws MovieNotFoundException if there are not found movies.
      * It is responsible for converting the received list of movies to list of moviesDto
      * that will be sent back to the controller(converting from entity to dto) with the
      * help of the movieConverter.
+     * If the {@link MovieSnapshot} is loaded, the page is served from it without a database call.
      *
      * @param genre - the specified genre by which the movies will be filtered and returned
-     * @return - list of all movies(moviesDto) that match the specified genre or
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a page of movies(moviesDto) that match the specified genre and the cursor of the next page
+     * or 304 (Not Modified) without a body if the ETag of the movies matches 'If-None-Match'
      *
      * @throws MovieNotFoundException - if there are not found movies
      */
-    public ResponseEntity<List<MovieDto>> getByGenre(String genre) throws MovieNotFoundException {
-        if (movieRepository.findByGenreIgnoreCase(genre).isEmpty()) {
-            throw new MovieNotFoundException(ErrorMessage.MOVIE_NOT_FOUND.toString());
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<MoviePageDto<?>> getByGenre(String genre, Long after, Integer limit, String fields,
+                                                      String ifNoneMatch) throws MovieNotFoundException {
+        if (movieSnapshot.isLoaded()) {
+            return support.snapshotPageResponse(MovieFilterDto.ofGenre(genre), after, limit, fields, ifNoneMatch);
         }
-        List<MovieDto> movieDtoList = movieConverter.toDtoList(movieRepository.findByGenreIgnoreCase(genre));
-
-        return new ResponseEntity<>(movieDtoList, HttpStatus.OK);
+        if (fields != null) {
+            return projectionPageResponse(support.genreCriteria(genre, after), limit, fields, ifNoneMatch);
+        }
+        return support.pageResponse(support.toPage(movieRepository.findByNormalizedGenreAndIdGreaterThan(
+                NormalizationUtils.normalize(genre), support.cursorOf(after), support.pageOf(support.sizeOf(limit)))),
+                ifNoneMatch);
     }
 
     /**
-     * This method returns list of all movies(moviesDto) by the specified rate
+     * This method returns a page of movies(moviesDto) by the specified rate
      * or @throws MovieNotFoundException if there are not found movies.
      * It is responsible for converting the received list of movies to list of moviesDto
      * that will be sent back to the controller(converting from entity to dto) with the
      * help of the movieConverter.
+     * If the {@link MovieSnapshot} is loaded, the page is served from it without a database call.
      *
      * @param rate - the specified rate by which the movies will be filtered and returned
-     * @return - list of all movies(moviesDto) that match the specified rate or
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a page of movies(moviesDto) that match the specified rate and the cursor of the next page
+     * or 304 (Not Modified) without a body if the ETag of the movies matches 'If-None-Match'
      *
      * @throws MovieNotFoundException - if there are not found movies
      */
-    public ResponseEntity<List<MovieDto>> getByRate(Double rate) throws MovieNotFoundException {
-        if (movieRepository.findByRate(rate).isEmpty()) {
-            throw new MovieNotFoundException(ErrorMessage.MOVIE_NOT_FOUND.toString());
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<MoviePageDto<?>> getByRate(Double rate, Long after, Integer limit, String fields,
+                                                     String ifNoneMatch) throws MovieNotFoundException {
+        if (movieSnapshot.isLoaded()) {
+            return support.snapshotPageResponse(MovieFilterDto.ofRate(rate), after, limit, fields, ifNoneMatch);
         }
-        List<MovieDto> movieDtoList = movieConverter.toDtoList(movieRepository.findByRate(rate));
+        if (fields != null) {
+            return projectionPageResponse(support.rateCriteria(rate, after), limit, fields, ifNoneMatch);
+        }
+        return support.pageResponse(support.toPage(movieRepository.findByRateAndIdGreaterThan(rate,
+                support.cursorOf(after), support.pageOf(support.sizeOf(limit)))), ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies(moviesDto) which match the specified filter
+     * (genre, rate range and release date range) or @throws MovieNotFoundException if there are not found movies.
+     * If the {@link MovieSnapshot} is loaded, the page is a scan of its columns, otherwise it is a database query
+     * ordered by id. Only the genre has an index, so without the snapshot a range of a wide genre
+     * (or without genre) may read many movies to fill a page.
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a page of movies(moviesDto) that match the specified filter and the cursor of the next page
+     * or 304 (Not Modified) without a body if the ETag of the movies matches 'If-None-Match'
+     *
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<MoviePageDto<?>> filter(MovieFilterDto filter, Long after, Integer limit, String fields,
+                                                  String ifNoneMatch) throws MovieNotFoundException {
+        if (movieSnapshot.isLoaded()) {
+            return support.snapshotPageResponse(filter, after, limit, fields, ifNoneMatch);
+        }
+        Criteria criteria = support.filterCriteria(filter, after);
+        if (fields != null) {
+            return projectionPageResponse(criteria, limit, fields, ifNoneMatch);
+        }
+        int size = support.sizeOf(limit);
+        List<Movie> movies = mongoOperations.find(support.pageQuery(criteria, size), Movie.class);
+
+        return support.pageResponse(support.toPage(movies, size), ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies(moviesDto) whose title or writer contain the searched words
+     * or @throws MovieNotFoundException if there are not found movies.
+     * The page is a single aggregation on the text index (see {@link MovieSearchAggregation}),
+     * ordered by the text score and then by id, so the cursor is the score and the id of the last movie.
+     * The movies are read directly into moviesDto, without the entity and the conversion.
+     *
+     * @param q - the searched words
+     * @param after - the cursor (the score and the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a page of the found moviesDto (the most relevant first) and the cursor of the next page
+     * or 304 (Not Modified) without a body if the ETag of the movies matches 'If-None-Match'
+     *
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<MoviePageDto<MovieDto>> search(String q, String after, Integer limit, String ifNoneMatch)
+            throws MovieNotFoundException {
+        int size = support.sizeOf(limit);
+        List<Document> documents = mongoOperations.aggregate(MovieSearchAggregation.of(q, after, size),
+                mongoOperations.getCollectionName(Movie.class), Document.class).getMappedResults();
+        if (documents.isEmpty()) {
+            throw support.notFound();
+        }
+
+        return support.pageResponse(MovieSearchAggregation.toPage(documents, size, mongoOperations.getConverter()),
+                ifNoneMatch);
+    }
+
+    /**
+     * This method returns the top rated movies(moviesDto) of the specified genre
+     * or @throws MovieNotFoundException if there are not found movies.
+     * The movies are served from the in-memory {@link GenreLeaderboard}, so there is no database call.
+     *
+     * @param genre - the specified genre by which the movies will be filtered and returned
+     * @param n - the maximum number of movies
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - the top n moviesDto of the genre ordered by rate (the highest first)
+     * or 304 (Not Modified) without a body if the ETag of the movies matches 'If-None-Match'
+     *
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<List<MovieDto>> getTopByGenre(String genre, int n, String ifNoneMatch)
+            throws MovieNotFoundException {
+        return support.listResponse(genreLeaderboard.getTop(genre, n), ifNoneMatch);
+    }
 
-        return new ResponseEntity<>(movieDtoList, HttpStatus.OK);
+    /**
+     * This method returns the titles which start with the specified prefix (allowing a few typos)
+     * or @throws MovieNotFoundException if there are not found titles.
+     * The titles are served from the in-memory {@link TitleSuggester}, so there is no database call.
+     *
+     * @param prefix - the prefix typed by the user
+     * @param n - the maximum number of titles
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - the titles, the closest to the prefix first,
+     * or 304 (Not Modified) without a body if the ETag of the movies matches 'If-None-Match'
+     *
+     * @throws MovieNotFoundException - if there are not found titles
+     */
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<List<String>> suggest(String prefix, int n, String ifNoneMatch) throws MovieNotFoundException {
+        return support.listResponse(titleSuggester.suggest(prefix, n), ifNoneMatch);
     }
 
     /**
      * This method inserts a new Movie into the database or
      * @throws MovieDuplicateKeyException if there is already a same movie.
+     * The duplicates are rejected by the unique index on the normalized title and writer,
+     * so the insert is a single database call and it is correct under concurrent inserts.
      * It is responsible for converting the received movieDto to movie
      * (converting from dto to entity) that will be sent to the repository and inserted into
      * the database. After that the database will sent back the already inserted movie (an entity)
      * which will be transform again into movieDto and sent to the controller.
+     * The ETag of the response is the version of the new movie.
      *
      * @param movieDto - the movie that must be inserted into the database
      * @return - the already inserted movie or
      * @throws MovieDuplicateKeyException - if there is already a same movie
      */
+    @Timed(value = "movies.service", histogram = true)
     public ResponseEntity<MovieDto> insert(MovieDto movieDto) throws MovieDuplicateKeyException {
         Movie entityMovie = movieConverter.toEntity(movieDto);
 
-        if (movieRepository.findByTitleIgnoreCaseAndWriterIgnoreCase(entityMovie.getTitle(), entityMovie.getWriter()) != null) {
-            throw new MovieDuplicateKeyException(ErrorMessage.DUPLICATE_RECORDS.toString());
+        Movie insertedMovie;
+        try {
+            insertedMovie = movieRepository.insert(entityMovie);
+        } catch (DuplicateKeyException ex) {
+            throw support.duplicate();
         }
+        movieWriteListener.onSaved(insertedMovie);
 
-        return new ResponseEntity<>(movieConverter.toDto(movieRepository.insert(entityMovie)), HttpStatus.CREATED);
+        return support.movieResponse(HttpStatus.CREATED, insertedMovie);
     }
 
     /**
      * This method updates an existing Movie by a specified id or
      * insert a Movie if there is not found a movie to be updated.
-     * It is responsible for converting the received movieDto to movie
-     * (converting from dto to entity) that will be sent to the repository and updated/inserted into
-     * the database. After that the database will sent back the already updated/inserted movie (an entity)
-     * which will be transform again into movieDto (a dto) and sent to the controller.
+     * It is a single find-and-modify (with upsert) call which sets all fields,
+     * increments the version and returns the new movie.
+     * If the 'If-Match' header is supplied, the movie is updated only if its version matches
+     * the header (it is checked by the same call, so a concurrent update is never lost) and it is never inserted.
+     * It is responsible for converting the received movieDto to an update
+     * that will be sent to the database. After that the database will sent back
+     * the already updated/inserted movie (an entity) which will be transform again
+     * into movieDto (a dto) and sent to the controller.
      * @param movieDto - the movie that will be updated / inserted
      * @param id - the id of the movie
-     * @return - the movie that was inserted / updated
+     * @param ifMatch - the value of the 'If-Match' header or null
+     * @return - the movie that was inserted / updated or
+     * @throws MovieDuplicateKeyException - if there is already another movie with the same title and writer
+     * @throws MoviePreconditionFailedException - if the version of the movie does not match the 'If-Match' header
      */
-    public ResponseEntity<MovieDto> update(MovieDto movieDto, Long id) {
-        Movie entityMovie = movieConverter.toEntity(movieDto);
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<MovieDto> update(MovieDto movieDto, Long id, String ifMatch)
+            throws MovieDuplicateKeyException, MoviePreconditionFailedException {
+        Update update = movieConverter.toUpdate(movieDto).inc("version", 1);
+        FindAndModifyOptions options = options().returnNew(true).upsert(ifMatch == null);
 
-        Movie updatedMovie = movieRepository.findById(id)
-                .map(movie -> {
-                    movie.setTitle(entityMovie.getTitle());
-                    movie.setWriter(entityMovie.getWriter());
-                    movie.setGenre(entityMovie.getGenre());
-                    movie.setRuntime(entityMovie.getRuntime());
-                    movie.setReleaseDate(entityMovie.getReleaseDate());
-                    movie.setRate(entityMovie.getRate());
-                    return movieRepository.save(movie);
-                })
-                .orElseGet(() -> {
-                    entityMovie.setId(id);
-                    return movieRepository.save(entityMovie);
-                });
-
-        return new ResponseEntity<>(movieConverter.toDto(updatedMovie), HttpStatus.OK);
+        Movie updatedMovie;
+        try {
+            updatedMovie = mongoOperations.findAndModify(support.conditionalQuery(id, ifMatch), update, options,
+                    Movie.class);
+        } catch (DuplicateKeyException ex) {
+            throw support.duplicate();
+        }
+        if (updatedMovie == null) {
+            throw support.preconditionFailed();
+        }
+        movieWriteListener.onSaved(updatedMovie);
+
+        return support.movieResponse(HttpStatus.OK, updatedMovie);
+    }
+
+    /**
+     * This method updates only the supplied fields of an existing Movie by a specified id or
+     * @throws MovieNotFoundException if there is not found movie to be updated.
+     * The supplied fields are turned into a single $set (find-and-modify) call which increments
+     * the version and returns the new movie, so a change of a single field is a single small write.
+     *
+     * @param moviePatchDto - the fields that will be updated
+     * @param id - the id of the movie
+     * @return - the updated movie or
+     * @throws MovieNotFoundException - if there is not found movie to be updated
+     * @throws MovieDuplicateKeyException - if there is already another movie with the same title and writer
+     */
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity<MovieDto> patch(MoviePatchDto moviePatchDto, Long id)
+            throws MovieNotFoundException, MovieDuplicateKeyException {
+        Update update = movieConverter.toUpdate(moviePatchDto);
+
+        Movie patchedMovie;
+        try {
+            patchedMovie = update.getUpdateObject().isEmpty()
+                    ? movieRepository.findById(id).orElse(null)
+                    : mongoOperations.findAndModify(query(where("id").is(id)), update.inc("version", 1),
+                    options().returnNew(true), Movie.class);
+        } catch (DuplicateKeyException ex) {
+            throw support.duplicate();
+        }
+        if (patchedMovie == null) {
+            throw support.notFound();
+        }
+        movieWriteListener.onSaved(patchedMovie);
+
+        return support.movieResponse(HttpStatus.OK, patchedMovie);
     }
 
     /**
      * This method deletes a movie by a specified id or
      * @throws MovieNotFoundException if there is not found movie to be deleted.
+     * If the 'If-Match' header is supplied, the movie is deleted (with a single find-and-remove call)
+     * only if its version matches the header.
      *
      * @param id - the movie's id
+     * @param ifMatch - the value of the 'If-Match' header or null
      * @return - suitable answer (ResponseEntity.ok - HttpStatus OK 200) if the movie is deleted or
      * @throws MovieNotFoundException - if there is not found movie to be deleted
+     * @throws MoviePreconditionFailedException - if the version of the movie does not match the 'If-Match' header
      */
-    public ResponseEntity delete(Long id) throws MovieNotFoundException {
-        if (movieRepository.findById(id).isPresent()) {
+    @Timed(value = "movies.service", histogram = true)
+    public ResponseEntity delete(Long id, String ifMatch) throws MovieNotFoundException, MoviePreconditionFailedException {
+        if (ifMatch != null) {
+            if (mongoOperations.findAndRemove(support.conditionalQuery(id, ifMatch), Movie.class) == null) {
+                throw support.preconditionFailed();
+            }
+        } else if (movieRepository.findById(id).isPresent()) {
             movieRepository.deleteById(id);
-            return ResponseEntity.ok("Movie is deleted successfully");
         } else {
-            throw new MovieNotFoundException(ErrorMessage.MOVIE_NOT_FOUND.toString());
+            throw support.notFound();
         }
+        movieWriteListener.onDeleted(id);
+        return ResponseEntity.ok("Movie is deleted successfully");
+    }
+
+    /**
+     * This method reads a page of movies, which match the specified criteria, with only the selected fields
+     * or @throws MovieNotFoundException if there are not found movies.
+     * The movies are read directly into {@link MovieProjectionDto} with a field projection,
+     * without the entity and the conversion.
+     *
+     * @param criteria - the criteria of the movies (including the cursor)
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a page of movies with only the selected fields and the cursor of the next page
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    private ResponseEntity<MoviePageDto<?>> projectionPageResponse(Criteria criteria, Integer limit, String fields,
+                                                                   String ifNoneMatch) throws MovieNotFoundException {
+        int size = support.sizeOf(limit);
+        List<MovieProjectionDto> movies = mongoOperations.query(Movie.class)
+                .as(MovieProjectionDto.class)
+                .matching(support.projectionQuery(criteria, size, fields))
+                .all();
+
+        return support.pageResponse(support.toProjectionPage(movies, size), ifNoneMatch);
     }
 }
@@ -0,0 +1,122 @@
+package com.scalefocus.springtraining.moviecatalog.service.backfill;
+
+import com.mongodb.MongoBulkWriteException;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * The movie normalization backfill class.
+ * This is a one-off job which sets the normalized title, writer and genre
+ * of the movies saved before these fields were introduced.
+ * It runs at startup only if the 'movies.backfill.normalized-fields' property is true.
+ * The movies without normalized genre are streamed from the database and updated
+ * with unordered bulk writes, so the job needs neither much memory nor a round trip per movie.
+ * If the unique index on the normalized title and writer is not created yet, the job runs before it
+ * (see {@link com.scalefocus.springtraining.moviecatalog.config.MovieIndexConfig}), so the backfilled movies
+ * are checked by the index build. Otherwise the movies which duplicate an already normalized movie
+ * are rejected by the index - they are logged and left without normalized fields.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+@ConditionalOnProperty(name = "movies.backfill.normalized-fields", havingValue = "true")
+public class MovieNormalizationBackfill implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MovieNormalizationBackfill.class);
+
+    private static final String ID_FIELD = "_id";
+
+    private final MongoOperations mongoOperations;
+
+    private final int batchSize;
+
+    public MovieNormalizationBackfill(MongoOperations mongoOperations,
+                                      @Value("${movies.backfill.batch-size}") int batchSize) {
+        this.mongoOperations = mongoOperations;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * This method runs the backfill at startup.
+     *
+     * @param args - the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        backfill();
+    }
+
+    /**
+     * This method sets the normalized fields of all movies which do not have them.
+     * It is a no-op if all movies have them.
+     */
+    public synchronized void backfill() {
+        Query query = query(where("normalizedGenre").exists(false)).cursorBatchSize(batchSize);
+        query.fields().include("title").include("writer").include("genre");
+
+        long updated = 0;
+        BulkOperations bulkOperations = newBulkOperations();
+        int pending = 0;
+        try (CloseableIterator<Document> movies = mongoOperations.stream(query, Document.class,
+                mongoOperations.getCollectionName(Movie.class))) {
+            while (movies.hasNext()) {
+                Document movie = movies.next();
+                bulkOperations.updateOne(query(where(ID_FIELD).is(movie.get(ID_FIELD))), new Update()
+                        .set("normalizedTitle", NormalizationUtils.normalize(movie.getString("title")))
+                        .set("normalizedWriter", NormalizationUtils.normalize(movie.getString("writer")))
+                        .set("normalizedGenre", NormalizationUtils.normalize(movie.getString("genre"))));
+                if (++pending == batchSize) {
+                    updated += execute(bulkOperations);
+                    bulkOperations = newBulkOperations();
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            updated += execute(bulkOperations);
+        }
+        LOGGER.info("The normalized fields of {} movies are backfilled", updated);
+    }
+
+    /**
+     * This method executes the specified bulk operations. The updates which are rejected
+     * (the duplicates of the already normalized movies) are logged and the rest of them are applied.
+     *
+     * @param bulkOperations - the bulk operations
+     * @return the number of the updated movies
+     */
+    private int execute(BulkOperations bulkOperations) {
+        try {
+            return bulkOperations.execute().getModifiedCount();
+        } catch (DataIntegrityViolationException ex) {
+            // the rejected bulk writes are translated to DataIntegrityViolationException (or DuplicateKeyException)
+            if (!(ex.getCause() instanceof MongoBulkWriteException)) {
+                throw ex;
+            }
+            MongoBulkWriteException cause = (MongoBulkWriteException) ex.getCause();
+            cause.getWriteErrors().forEach(error -> LOGGER.error("A movie can not be backfilled: {}", error.getMessage()));
+            return cause.getWriteResult().getModifiedCount();
+        }
+    }
+
+    private BulkOperations newBulkOperations() {
+        return mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+    }
+}
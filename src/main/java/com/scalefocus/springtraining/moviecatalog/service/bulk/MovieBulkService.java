@@ -0,0 +1,371 @@
+package com.scalefocus.springtraining.moviecatalog.service.bulk;
+
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkMovieOperation;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationResult;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationStatus;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationType;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import com.scalefocus.springtraining.moviecatalog.service.idgenerator.IdGenerator;
+import com.scalefocus.springtraining.moviecatalog.service.listener.MovieWriteListener;
+import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * The movie bulk service class.
+ * This class executes a mixed list of insert, upsert and delete operations
+ * with a fixed number of database calls, no matter how many operations there are:
+ * one query which finds both the existing ids and the already saved title/writer pairs,
+ * at most one database call which generates the ids of all inserted movies,
+ * one unordered bulk write with all operations and one query which reads the upserted movies back,
+ * so the in-memory views of the movies get their stored versions.
+ * The result of every operation is reported separately, so a single failed
+ * operation does not fail the whole request. The outcomes of the writes are taken from the result
+ * of the bulk write, not from the query before it, so the concurrent writes are reported as they happened.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+public class MovieBulkService {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private final MongoOperations mongoOperations;
+
+    private final MovieConverter movieConverter;
+
+    private final IdGenerator idGenerator;
+
+    private final MovieWriteListener movieWriteListener;
+
+    public MovieBulkService(MongoOperations mongoOperations, MovieConverter movieConverter,
+                            IdGenerator idGenerator, MovieWriteListener movieWriteListener) {
+        this.mongoOperations = mongoOperations;
+        this.movieConverter = movieConverter;
+        this.idGenerator = idGenerator;
+        this.movieWriteListener = movieWriteListener;
+    }
+
+    /**
+     * This method executes the specified operations as one unordered bulk write.
+     *
+     * @param operations - the operations in the order of the request
+     * @return - the results of the operations in the order of the request
+     */
+    public ResponseEntity<List<BulkOperationResult>> execute(List<BulkMovieOperation> operations) {
+        BulkOperationResult[] results = new BulkOperationResult[operations.size()];
+        Movie[] movies = toEntities(operations, results);
+
+        Set<Long> existingIds = new HashSet<>();
+        Set<String> existingKeys = new HashSet<>();
+        findExisting(operations, movies, results, existingIds, existingKeys);
+
+        // the duplicates are detected before the ids are reserved, so no id is wasted for them
+        List<Integer> inserts = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (results[i] != null || operations.get(i).getType() != BulkOperationType.INSERT) {
+                continue;
+            }
+            if (existingKeys.add(keyOf(movies[i]))) {
+                inserts.add(i);
+            } else {
+                results[i] = resultOf(i, operations.get(i), null, BulkOperationStatus.DUPLICATE,
+                        ErrorMessage.DUPLICATE_RECORDS.toString());
+            }
+        }
+        long[] ids = idGenerator.generateIds(inserts.size());
+        for (int i = 0; i < inserts.size(); i++) {
+            movies[inserts.get(i)].setId(ids[i]);
+            // the bulk write does not go through the repository, so the initial version is set here
+            movies[inserts.get(i)].setVersion(0L);
+        }
+
+        BulkOperations bulkOperations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+        // the position of every request in the bulk write -> the position of its operation
+        List<Integer> requests = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BulkMovieOperation operation = operations.get(i);
+            switch (operation.getType()) {
+                case INSERT:
+                    bulkOperations.insert(movies[i]);
+                    break;
+                case UPSERT:
+                    movies[i].setId(operation.getId());
+                    bulkOperations.upsert(query(where(ID_FIELD).is(operation.getId())), updateOf(movies[i]));
+                    break;
+                case DELETE:
+                    if (!existingIds.contains(operation.getId())) {
+                        results[i] = resultOf(i, operation, operation.getId(), BulkOperationStatus.NOT_FOUND,
+                                ErrorMessage.MOVIE_NOT_FOUND.toString());
+                        continue;
+                    }
+                    bulkOperations.remove(query(where(ID_FIELD).is(operation.getId())));
+                    break;
+                default:
+                    break;
+            }
+            requests.add(i);
+        }
+
+        if (!requests.isEmpty()) {
+            Map<Integer, BulkWriteError> failures = new HashMap<>();
+            BulkWriteResult writeResult = executeBulk(bulkOperations, requests, failures);
+            complete(operations, movies, requests, writeResult, failures, results);
+        }
+
+        return new ResponseEntity<>(Arrays.asList(results), HttpStatus.OK);
+    }
+
+    /**
+     * This method validates the operations and converts their movies to entities
+     * with {@link MovieConverter#toEntityList}. The invalid operations get their result here.
+     *
+     * @param operations - the operations in the order of the request
+     * @param results - the results of the operations
+     * @return - the entities in the order of the operations (null for the operations without movie)
+     */
+    private Movie[] toEntities(List<BulkMovieOperation> operations, BulkOperationResult[] results) {
+        List<Integer> indexes = new ArrayList<>();
+        List<MovieDto> dtoList = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BulkMovieOperation operation = operations.get(i);
+            boolean requiresId = operation.getType() != BulkOperationType.INSERT;
+            boolean requiresMovie = operation.getType() != BulkOperationType.DELETE;
+            if ((requiresId && operation.getId() == null) || (requiresMovie && operation.getMovie() == null)) {
+                results[i] = resultOf(i, operation, operation.getId(), BulkOperationStatus.INVALID,
+                        ErrorMessage.INVALID_BULK_OPERATION.toString());
+            } else if (requiresMovie) {
+                indexes.add(i);
+                dtoList.add(operation.getMovie());
+            }
+        }
+
+        Movie[] movies = new Movie[operations.size()];
+        List<Movie> entityList = movieConverter.toEntityList(dtoList);
+        for (int i = 0; i < indexes.size(); i++) {
+            Movie movie = entityList.get(i);
+            // the bulk write does not go through the repository, so the normalized fields are set here
+            NormalizationUtils.normalizeFields(movie);
+            movies[indexes.get(i)] = movie;
+        }
+        return movies;
+    }
+
+    /**
+     * This method finds, with a single query, which of the upserted and deleted ids exist
+     * and which of the inserted title/writer pairs are already saved.
+     *
+     * @param operations - the operations in the order of the request
+     * @param movies - the entities in the order of the operations
+     * @param results - the results of the operations
+     * @param existingIds - the set which receives the existing ids
+     * @param existingKeys - the set which receives the saved title/writer pairs
+     */
+    private void findExisting(List<BulkMovieOperation> operations, Movie[] movies, BulkOperationResult[] results,
+                              Set<Long> existingIds, Set<String> existingKeys) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> titles = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            if (operations.get(i).getType() == BulkOperationType.INSERT) {
+                titles.add(movies[i].getNormalizedTitle());
+            } else {
+                ids.add(operations.get(i).getId());
+            }
+        }
+
+        List<Criteria> criteria = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            criteria.add(where(ID_FIELD).in(ids));
+        }
+        if (!titles.isEmpty()) {
+            criteria.add(where("normalizedTitle").in(titles));
+        }
+        if (criteria.isEmpty()) {
+            return;
+        }
+
+        Query query = new Query(new Criteria().orOperator(criteria.toArray(new Criteria[0])));
+        query.fields().include(ID_FIELD).include("normalizedTitle").include("normalizedWriter");
+        for (Movie movie : mongoOperations.find(query, Movie.class)) {
+            if (ids.contains(movie.getId())) {
+                existingIds.add(movie.getId());
+            }
+            existingKeys.add(keyOf(movie));
+        }
+    }
+
+    /**
+     * This method executes the bulk write and collects the failed operations.
+     * The errors of the bulk write are translated to a {@link DataIntegrityViolationException}
+     * (a {@link org.springframework.dao.DuplicateKeyException} if one of them is a duplicate key),
+     * whose cause holds the error of every failed request and the result of the other requests.
+     *
+     * @param bulkOperations - the bulk write
+     * @param requests - the position of every request in the bulk write -> the position of its operation
+     * @param failures - the map which receives the position of every failed operation -> the error
+     * @return - the result of the requests which did not fail
+     */
+    private BulkWriteResult executeBulk(BulkOperations bulkOperations, List<Integer> requests,
+                                        Map<Integer, BulkWriteError> failures) {
+        try {
+            return bulkOperations.execute();
+        } catch (DataIntegrityViolationException ex) {
+            if (!(ex.getCause() instanceof MongoBulkWriteException)) {
+                throw ex;
+            }
+            MongoBulkWriteException bulkWriteException = (MongoBulkWriteException) ex.getCause();
+            bulkWriteException.getWriteErrors()
+                    .forEach(error -> failures.put(requests.get(error.getIndex()), error));
+            return bulkWriteException.getWriteResult();
+        }
+    }
+
+    /**
+     * This method sets the results of the executed operations
+     * and keeps the in-memory views of the movies in sync with them (see {@link MovieWriteListener}).
+     * An upsert is reported as inserted only if the bulk write has inserted it and the upserted movies
+     * are read back, so the views get their incremented versions.
+     * The bulk write reports only the number of the deleted movies, so if another request has deleted
+     * some of them in the meantime, it is not known which, and all deletes are reported as not found.
+     *
+     * @param operations - the operations in the order of the request
+     * @param movies - the entities in the order of the operations
+     * @param requests - the position of every request in the bulk write -> the position of its operation
+     * @param writeResult - the result of the requests which did not fail
+     * @param failures - the position of every failed operation -> the error
+     * @param results - the results of the operations
+     */
+    private void complete(List<BulkMovieOperation> operations, Movie[] movies, List<Integer> requests,
+                          BulkWriteResult writeResult, Map<Integer, BulkWriteError> failures,
+                          BulkOperationResult[] results) {
+        Set<Integer> insertedByUpsert = new HashSet<>();
+        writeResult.getUpserts().forEach(upsert -> insertedByUpsert.add(requests.get(upsert.getIndex())));
+
+        Set<Long> upsertedIds = new HashSet<>();
+        int deletes = 0;
+        for (int index : requests) {
+            if (failures.containsKey(index)) {
+                continue;
+            }
+            if (operations.get(index).getType() == BulkOperationType.UPSERT) {
+                upsertedIds.add(operations.get(index).getId());
+            } else if (operations.get(index).getType() == BulkOperationType.DELETE) {
+                deletes++;
+            }
+        }
+        Map<Long, Movie> upsertedMovies = findByIds(upsertedIds);
+        boolean allDeleted = writeResult.getDeletedCount() == deletes;
+        String deleteMessage = writeResult.getDeletedCount() == 0
+                ? ErrorMessage.MOVIE_NOT_FOUND.toString() : ErrorMessage.CONCURRENT_BULK_DELETE.toString();
+
+        for (int index : requests) {
+            BulkMovieOperation operation = operations.get(index);
+            BulkWriteError failure = failures.get(index);
+            Long id = movies[index] != null ? movies[index].getId() : operation.getId();
+            // the concurrent inserts of the same movie are rejected by the unique index
+            if (failure != null && failure.getCode() == DUPLICATE_KEY_ERROR_CODE) {
+                results[index] = resultOf(index, operation, id, BulkOperationStatus.DUPLICATE,
+                        ErrorMessage.DUPLICATE_RECORDS.toString());
+                continue;
+            }
+            if (failure != null) {
+                results[index] = resultOf(index, operation, id, BulkOperationStatus.FAILED, failure.getMessage());
+                continue;
+            }
+
+            switch (operation.getType()) {
+                case INSERT:
+                    movieWriteListener.onSaved(movies[index]);
+                    results[index] = resultOf(index, operation, id, BulkOperationStatus.INSERTED, null);
+                    break;
+                case UPSERT:
+                    Movie upsertedMovie = upsertedMovies.get(id);
+                    // the movie is not found only if another request has deleted it after the bulk write
+                    if (upsertedMovie != null) {
+                        movieWriteListener.onSaved(upsertedMovie);
+                    }
+                    results[index] = resultOf(index, operation, id, insertedByUpsert.contains(index)
+                            ? BulkOperationStatus.INSERTED : BulkOperationStatus.UPDATED, null);
+                    break;
+                default:
+                    movieWriteListener.onDeleted(id);
+                    results[index] = allDeleted
+                            ? resultOf(index, operation, id, BulkOperationStatus.DELETED, null)
+                            : resultOf(index, operation, id, BulkOperationStatus.NOT_FOUND, deleteMessage);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * This method reads the movies with the specified ids with a single query.
+     *
+     * @param ids - the ids of the movies
+     * @return - the id -> the movie of the found movies
+     */
+    private Map<Long, Movie> findByIds(Set<Long> ids) {
+        Map<Long, Movie> moviesById = new HashMap<>();
+        if (!ids.isEmpty()) {
+            mongoOperations.find(query(where(ID_FIELD).in(ids)), Movie.class)
+                    .forEach(movie -> moviesById.put(movie.getId(), movie));
+        }
+        return moviesById;
+    }
+
+    /**
+     * This method returns an update which sets all fields of the specified movie and increments its version.
+     * The movie is converted by the mongo converter, so the fields are stored
+     * exactly as they are stored by the repository.
+     */
+    private Update updateOf(Movie movie) {
+        Document document = new Document();
+        mongoOperations.getConverter().write(movie, document);
+        document.remove(ID_FIELD);
+
+        Update update = new Update();
+        document.forEach(update::set);
+        return update.inc("version", 1);
+    }
+
+    private BulkOperationResult resultOf(int index, BulkMovieOperation operation, Long id,
+                                         BulkOperationStatus status, String message) {
+        return new BulkOperationResult(index, operation.getType(), id, status, message);
+    }
+
+    private String keyOf(Movie movie) {
+        return movie.getNormalizedTitle() + '\u0000' + movie.getNormalizedWriter();
+    }
+}
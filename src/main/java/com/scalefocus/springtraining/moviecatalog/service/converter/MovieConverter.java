@@ -1,7 +1,10 @@
 package com.scalefocus.springtraining.moviecatalog.service.converter;
 
 import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePatchDto;
 import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -11,7 +14,8 @@ import java.util.stream.Collectors;
  * This class is used for converting {@link Movie} object
  * to {@link MovieDto} object and vice versa.
  * Also it has additional future to convert list of {@link Movie} object
- * to list of {@link MovieDto} object and vice versa.
+ * to list of {@link MovieDto} object and vice versa
+ * and to convert {@link MovieDto} and {@link MoviePatchDto} objects to {@link Update}.
  *
  * @author Kristiyan SLavov
  */
@@ -50,6 +54,51 @@ public class MovieConverter {
         return entity;
     }
 
+    /**
+     * This method converts a {@link MovieDto} object to {@link Update} object
+     * which sets all fields (and their normalized copies).
+     * @param dto - {@link MovieDto} object to be converted
+     * @return {@link Update} object
+     */
+    public Update toUpdate(MovieDto dto) {
+        return new Update()
+                .set("title", dto.getTitle()).set("normalizedTitle", NormalizationUtils.normalize(dto.getTitle()))
+                .set("writer", dto.getWriter()).set("normalizedWriter", NormalizationUtils.normalize(dto.getWriter()))
+                .set("genre", dto.getGenre()).set("normalizedGenre", NormalizationUtils.normalize(dto.getGenre()))
+                .set("runtime", dto.getRuntime())
+                .set("releaseDate", dto.getReleaseDate())
+                .set("rate", dto.getRate());
+    }
+
+    /**
+     * This method converts a {@link MoviePatchDto} object to {@link Update} object
+     * which sets only the supplied fields (and their normalized copies).
+     * @param dto - {@link MoviePatchDto} object to be converted
+     * @return {@link Update} object, it is empty if there are no supplied fields
+     */
+    public Update toUpdate(MoviePatchDto dto) {
+        Update update = new Update();
+        if (dto.getTitle() != null) {
+            update.set("title", dto.getTitle()).set("normalizedTitle", NormalizationUtils.normalize(dto.getTitle()));
+        }
+        if (dto.getWriter() != null) {
+            update.set("writer", dto.getWriter()).set("normalizedWriter", NormalizationUtils.normalize(dto.getWriter()));
+        }
+        if (dto.getGenre() != null) {
+            update.set("genre", dto.getGenre()).set("normalizedGenre", NormalizationUtils.normalize(dto.getGenre()));
+        }
+        if (dto.getRuntime() != null) {
+            update.set("runtime", dto.getRuntime());
+        }
+        if (dto.getReleaseDate() != null) {
+            update.set("releaseDate", dto.getReleaseDate());
+        }
+        if (dto.getRate() != null) {
+            update.set("rate", dto.getRate());
+        }
+        return update;
+    }
+
     /**
      * This method converts a list of {@link Movie} to list of {@link MovieDto}
      * @param entityList - the list to be converted
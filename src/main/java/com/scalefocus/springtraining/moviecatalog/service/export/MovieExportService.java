@@ -0,0 +1,145 @@
+package com.scalefocus.springtraining.moviecatalog.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The movie export service class.
+ * This class is responsible for exporting the whole movie catalog
+ * as NDJSON (one {@link MovieDto} per line). The movies are read through
+ * a MongoDB cursor and written to the response one by one, so neither the
+ * list of movies nor the list of moviesDto is ever materialized in memory.
+ * Writing the whole catalog takes much longer than any other request, so the export
+ * has its own async timeout ('movies.export.timeout') instead of the global
+ * 'spring.mvc.async.request-timeout'.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+public class MovieExportService {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final String GZIP_ENCODING = "gzip";
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private static final char LINE_SEPARATOR = '\n';
+
+    private static final Object EXPORT_TIMEOUT_KEY = MovieExportService.class.getName() + ".TIMEOUT";
+
+    private final MongoOperations mongoOperations;
+
+    private final MovieConverter movieConverter;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter movieWriter;
+
+    private final int batchSize;
+
+    private final CallableProcessingInterceptor exportTimeout;
+
+    public MovieExportService(MongoOperations mongoOperations, MovieConverter movieConverter, ObjectMapper objectMapper,
+                              @Value("${movies.export.batch-size}") int batchSize,
+                              @Value("${movies.export.timeout}") Duration timeout) {
+        this.mongoOperations = mongoOperations;
+        this.movieConverter = movieConverter;
+        this.objectMapper = objectMapper;
+        this.movieWriter = objectMapper.writerFor(MovieDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.batchSize = batchSize;
+        this.exportTimeout = new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // it runs after the default timeout is set and before the async processing is started
+                ((AsyncWebRequest) request).setTimeout(timeout.toMillis());
+            }
+        };
+    }
+
+    /**
+     * This method returns a {@link ResponseEntity} with a {@link StreamingResponseBody}
+     * which writes all movies as NDJSON. The body is written asynchronously,
+     * so the request thread is released as soon as the headers are prepared.
+     * The async processing of this request only gets the timeout of the export.
+     *
+     * @param gzip - true if the body must be gzip compressed
+     * @param request - the current request
+     * @return - a {@link ResponseEntity} with the streaming body
+     */
+    public ResponseEntity<StreamingResponseBody> exportAll(boolean gzip, NativeWebRequest request) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_TIMEOUT_KEY, exportTimeout);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_NDJSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        }
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                // syncFlush makes every flush push the already compressed movies to the client
+                try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE, true)) {
+                    writeAll(gzipOutputStream);
+                }
+            } else {
+                writeAll(outputStream);
+            }
+        };
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * This method streams all movies ordered by id from the database, converts every movie
+     * to a movieDto and writes it as a single line. The output is flushed after every
+     * batch, so the first movies reach the client without waiting for the whole collection.
+     *
+     * @param outputStream - the stream to which the movies will be written
+     * @throws IOException - if an I/O error occurs while writing
+     */
+    private void writeAll(OutputStream outputStream) throws IOException {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id")).cursorBatchSize(batchSize);
+
+        try (CloseableIterator<Movie> movies = mongoOperations.stream(query, Movie.class);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // the lines are separated explicitly and the stream is closed by the caller
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            int written = 0;
+            while (movies.hasNext()) {
+                movieWriter.writeValue(generator, movieConverter.toDto(movies.next()));
+                generator.writeRaw(LINE_SEPARATOR);
+                if (++written % batchSize == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+    }
+}
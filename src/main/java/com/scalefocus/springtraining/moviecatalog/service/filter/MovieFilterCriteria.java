@@ -0,0 +1,53 @@
+package com.scalefocus.springtraining.moviecatalog.service.filter;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * This class builds the criteria of a page of the movies which match a {@link MovieFilterDto}.
+ * It is used by the blocking and by the reactive movie services, so both run the same query.
+ *
+ * @author Kristiyan SLavov
+ */
+public final class MovieFilterCriteria {
+
+    private MovieFilterCriteria() {
+        throw new AssertionError();
+    }
+
+    /**
+     * This method returns the criteria of the movies which match the specified filter, after the specified cursor.
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor (the id of the last movie from the previous page)
+     * @return the criteria of the movies
+     */
+    public static Criteria of(MovieFilterDto filter, long after) {
+        Criteria criteria = where("id").gt(after);
+        if (filter.getGenre() != null) {
+            criteria.and("normalizedGenre").is(NormalizationUtils.normalize(filter.getGenre()));
+        }
+        if (filter.getMinRate() != null || filter.getMaxRate() != null) {
+            Criteria rate = criteria.and("rate");
+            if (filter.getMinRate() != null) {
+                rate.gte(filter.getMinRate());
+            }
+            if (filter.getMaxRate() != null) {
+                rate.lte(filter.getMaxRate());
+            }
+        }
+        if (filter.getReleasedFrom() != null || filter.getReleasedTo() != null) {
+            Criteria releaseDate = criteria.and("releaseDate");
+            if (filter.getReleasedFrom() != null) {
+                releaseDate.gte(filter.getReleasedFrom());
+            }
+            if (filter.getReleasedTo() != null) {
+                releaseDate.lte(filter.getReleasedTo());
+            }
+        }
+        return criteria;
+    }
+}
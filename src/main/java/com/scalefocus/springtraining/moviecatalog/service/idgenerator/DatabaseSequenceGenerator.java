@@ -39,4 +39,19 @@ public class DatabaseSequenceGenerator {
                 DatabaseSequence.class);
         return !Objects.isNull(counter) ? counter.getSeq() : 1;
     }
+
+    /**
+     * This method reserves a block of consecutive ids with a single database call.
+     * It is used when many records are inserted at once.
+     *
+     * @param seqName - the name of the sequence
+     * @param count - the number of the reserved ids
+     * @return - the first id of the reserved block
+     */
+    public long generateSequence(String seqName, int count) {
+        DatabaseSequence counter = mongoOperations.findAndModify(query(where("_id").is(seqName)),
+                new Update().inc(SEQUENCE_KEY, count), options().returnNew(true).upsert(true),
+                DatabaseSequence.class);
+        return (!Objects.isNull(counter) ? counter.getSeq() : count) - count + 1;
+    }
 }
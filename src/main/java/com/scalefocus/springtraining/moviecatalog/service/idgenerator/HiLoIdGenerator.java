@@ -0,0 +1,92 @@
+package com.scalefocus.springtraining.moviecatalog.service.idgenerator;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The hi/lo id generator class.
+ * It reserves a block of 'movies.id-generator.block-size' ids with a single increment
+ * of the movies sequence and hands them out from memory without locking.
+ * The database is called again only when the block is exhausted.
+ * The blocks are taken from the same sequence as {@link SequenceIdGenerator},
+ * so both strategies can be used on the same database (even at the same time by different nodes).
+ * The unused ids of the last block are lost when the application stops.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+@ConditionalOnProperty(name = "movies.id-generator.strategy", havingValue = "hilo", matchIfMissing = true)
+public class HiLoIdGenerator implements IdGenerator {
+
+    private final DatabaseSequenceGenerator databaseSequenceGenerator;
+
+    private final int blockSize;
+
+    private volatile Block block = new Block(1, 0);
+
+    public HiLoIdGenerator(DatabaseSequenceGenerator databaseSequenceGenerator,
+                           @Value("${movies.id-generator.block-size}") int blockSize) {
+        this.databaseSequenceGenerator = databaseSequenceGenerator;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public long generateId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id <= current.last) {
+                return id;
+            }
+            // only one thread reserves the next block, the others retry with it
+            synchronized (this) {
+                if (block == current) {
+                    block = reserve(blockSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method reserves the ids which do not fit in the current block with a single database call.
+     *
+     * @param count - the number of the ids
+     * @return - the generated ids
+     */
+    @Override
+    public long[] generateIds(int count) {
+        if (count <= blockSize) {
+            return IdGenerator.super.generateIds(count);
+        }
+        Block reserved = reserve(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = reserved.next.getAndIncrement();
+        }
+        return ids;
+    }
+
+    private Block reserve(int size) {
+        long first = databaseSequenceGenerator.generateSequence(Movie.SEQUENCE_NAME, size);
+        return new Block(first, first + size - 1);
+    }
+
+    /**
+     * A reserved block of ids - from next to last inclusive.
+     */
+    private static final class Block {
+
+        private final AtomicLong next;
+
+        private final long last;
+
+        private Block(long next, long last) {
+            this.next = new AtomicLong(next);
+            this.last = last;
+        }
+    }
+}
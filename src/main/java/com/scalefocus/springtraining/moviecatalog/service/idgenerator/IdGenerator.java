@@ -0,0 +1,39 @@
+package com.scalefocus.springtraining.moviecatalog.service.idgenerator;
+
+/**
+ * The id generator strategy.
+ * The strategy is selected with the 'movies.id-generator.strategy' property:
+ * <ul>
+ * <li>sequence - {@link SequenceIdGenerator}, one database call per id</li>
+ * <li>hilo - {@link HiLoIdGenerator}, one database call per block of ids (the default)</li>
+ * <li>snowflake - {@link SnowflakeIdGenerator}, time and node based ids without database calls</li>
+ * </ul>
+ * All strategies generate positive {@code Long} ids which never collide
+ * with the ids of the already saved movies.
+ *
+ * @author Kristiyan SLavov
+ */
+public interface IdGenerator {
+
+    /**
+     * This method generates an id for a new record.
+     *
+     * @return - the generated id
+     */
+    long generateId();
+
+    /**
+     * This method generates ids for the specified number of new records.
+     * The strategies which can reserve many ids at once override it.
+     *
+     * @param count - the number of the ids
+     * @return - the generated ids
+     */
+    default long[] generateIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = generateId();
+        }
+        return ids;
+    }
+}
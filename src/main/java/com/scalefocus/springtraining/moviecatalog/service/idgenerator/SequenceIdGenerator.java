@@ -0,0 +1,46 @@
+package com.scalefocus.springtraining.moviecatalog.service.idgenerator;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * The sequence id generator class.
+ * Every id is generated by incrementing the movies sequence in the database,
+ * so the ids are consecutive, but every new movie costs an additional database call.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+@ConditionalOnProperty(name = "movies.id-generator.strategy", havingValue = "sequence")
+public class SequenceIdGenerator implements IdGenerator {
+
+    private final DatabaseSequenceGenerator databaseSequenceGenerator;
+
+    public SequenceIdGenerator(DatabaseSequenceGenerator databaseSequenceGenerator) {
+        this.databaseSequenceGenerator = databaseSequenceGenerator;
+    }
+
+    @Override
+    public long generateId() {
+        return databaseSequenceGenerator.generateSequence(Movie.SEQUENCE_NAME);
+    }
+
+    /**
+     * This method reserves all ids with a single increment of the sequence.
+     *
+     * @param count - the number of the ids
+     * @return - the generated ids
+     */
+    @Override
+    public long[] generateIds(int count) {
+        long[] ids = new long[count];
+        if (count > 0) {
+            long first = databaseSequenceGenerator.generateSequence(Movie.SEQUENCE_NAME, count);
+            for (int i = 0; i < count; i++) {
+                ids[i] = first + i;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,68 @@
+package com.scalefocus.springtraining.moviecatalog.service.idgenerator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The snowflake id generator class.
+ * It generates ids without any database call. Every id consists of
+ * 41 bits milliseconds since 2020-01-01, 5 bits node id ('movies.id-generator.node-id')
+ * and 7 bits sequence within the millisecond, so every node generates up to
+ * 128 ids per millisecond and the ids of one node always grow.
+ * The ids have at most 53 bits, so they are exact in JavaScript and in every other JSON client
+ * which reads the numbers as doubles (the 41 bits of milliseconds last until 2089).
+ * The generated ids are far above the ids generated by the database sequence,
+ * so they never collide with the ids of the already saved movies.
+ * Every node of the application must have a different node id.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+@ConditionalOnProperty(name = "movies.id-generator.strategy", havingValue = "snowflake")
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    private static final long EPOCH = 1577836800000L;
+
+    // the 41 bits of the timestamp and these bits must fit in the 53 bits of the mantissa of a double
+    private static final int NODE_BITS = 5;
+
+    private static final int SEQUENCE_BITS = 7;
+
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+
+    /**
+     * The last used timestamp and sequence: timestamp << SEQUENCE_BITS | sequence.
+     * When the sequence of a millisecond overflows, it carries into the timestamp,
+     * so the ids are unique even if the clock goes backwards.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(@Value("${movies.id-generator.node-id}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("The node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public long generateId() {
+        long timestamp = System.currentTimeMillis() - EPOCH;
+        long previous;
+        long next;
+        do {
+            previous = state.get();
+            next = timestamp > previous >>> SEQUENCE_BITS ? timestamp << SEQUENCE_BITS : previous + 1;
+        } while (!state.compareAndSet(previous, next));
+
+        return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | nodeId << SEQUENCE_BITS
+                | next & SEQUENCE_MASK;
+    }
+}
@@ -0,0 +1,106 @@
+package com.scalefocus.springtraining.moviecatalog.service.jwt;
+
+import com.scalefocus.springtraining.moviecatalog.exception.AuthenticationOverloadedException;
+import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The authentication executor class.
+ * The BCrypt check of the password is CPU heavy, so the credentials are verified
+ * on this small dedicated pool instead of the request threads. The pool has a bounded
+ * queue - when it is full the authentication is rejected immediately, so a burst of logins
+ * slows down only the logins and never the requests to the movies.
+ * The pool is registered in the metrics as 'authentication' - the queue depth is the
+ * 'executor.queued' gauge and the verify latency is the 'executor' timer.
+ *
+ * @author Kristiyan SLavov
+ */
+@Component
+public class AuthenticationExecutor implements DisposableBean {
+
+    private static final String EXECUTOR_NAME = "authentication";
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+
+    private final ExecutorService executor;
+
+    private final Scheduler scheduler;
+
+    private final long retryAfterSeconds;
+
+    public AuthenticationExecutor(MeterRegistry meterRegistry,
+                                  @Value("${authentication.executor.pool-size}") int poolSize,
+                                  @Value("${authentication.executor.queue-capacity}") int queueCapacity,
+                                  @Value("${authentication.retry-after-seconds}") long retryAfterSeconds) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .tag("name", EXECUTOR_NAME)
+                .description("The tasks rejected because the queue is full")
+                .register(meterRegistry);
+        this.threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(EXECUTOR_NAME + "-"),
+                (task, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("The authentication queue is full");
+                });
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPoolExecutor, EXECUTOR_NAME, Tags.empty());
+        this.scheduler = Schedulers.fromExecutorService(executor, EXECUTOR_NAME);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * This method runs the specified authentication on the pool.
+     *
+     * @param authentication - the authentication to be run
+     * @param <T> - the type of the result
+     * @return a {@link CompletableFuture} completed with the result of the authentication
+     * @throws AuthenticationOverloadedException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> authentication) throws AuthenticationOverloadedException {
+        try {
+            return CompletableFuture.supplyAsync(authentication, executor);
+        } catch (RejectedExecutionException ex) {
+            throw overloaded();
+        }
+    }
+
+    /**
+     * This method returns the pool as a reactor {@link Scheduler}, used by the reactive authentication.
+     * The tasks rejected by the scheduler fail with {@link RejectedExecutionException}.
+     *
+     * @return the scheduler
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * This method returns the exception for a rejected authentication.
+     *
+     * @return new {@link AuthenticationOverloadedException} instance
+     */
+    public AuthenticationOverloadedException overloaded() {
+        return new AuthenticationOverloadedException(ErrorMessage.AUTHENTICATION_OVERLOADED.toString(), retryAfterSeconds);
+    }
+
+    @Override
+    public void destroy() {
+        threadPoolExecutor.shutdown();
+    }
+}
@@ -0,0 +1,63 @@
+package com.scalefocus.springtraining.moviecatalog.service.jwt;
+
+import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtResponse;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.VerifiedToken;
+import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import io.jsonwebtoken.JwtException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+/**
+ * The JwtRefreshService class exchanges a refresh token for a new access token.
+ * It costs one HMAC check of the refresh token and one lookup of the user, which is
+ * usually answered by the cache of {@link JwtUserDetailsService} - there is no password check.
+ * The revoked refresh tokens and the refresh tokens of a deleted or disabled user are rejected,
+ * so the roles in the new access token are always the current roles of the user.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+public class JwtRefreshService {
+
+    private final JwtTokenService jwtTokenService;
+
+    private final JwtUserDetailsService jwtUserDetailsService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public JwtRefreshService(JwtTokenService jwtTokenService, JwtUserDetailsService jwtUserDetailsService,
+                             TokenRevocationService tokenRevocationService) {
+        this.jwtTokenService = jwtTokenService;
+        this.jwtUserDetailsService = jwtUserDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /**
+     * This method verifies the specified refresh token and generates a new access token for its user.
+     *
+     * @param refreshToken - the refresh token
+     * @return the {@link JwtResponse} with the new access token and the same refresh token
+     * @throws BadCredentialsException if the refresh token is not valid, it is revoked or its user does not exist
+     * @throws DisabledException if the user is disabled
+     */
+    public JwtResponse refresh(String refreshToken) {
+        final VerifiedToken verifiedRefreshToken;
+        final UserDetails userDetails;
+        try {
+            verifiedRefreshToken = jwtTokenService.verifyRefreshToken(refreshToken);
+            if (tokenRevocationService.isRevoked(verifiedRefreshToken)) {
+                throw new BadCredentialsException(ErrorMessage.REVOKED_TOKEN.toString());
+            }
+            userDetails = jwtUserDetailsService.loadUserByUsername(verifiedRefreshToken.getUsername());
+        } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
+            throw new BadCredentialsException(ErrorMessage.BAD_TOKEN.toString(), e);
+        }
+        if (!userDetails.isEnabled()) {
+            throw new DisabledException(ErrorMessage.USER_DISABLED.toString());
+        }
+        return jwtTokenService.refreshAccessToken(userDetails, refreshToken, verifiedRefreshToken);
+    }
+}
@@ -1,139 +1,317 @@
 package com.scalefocus.springtraining.moviecatalog.service.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.JwtResponse;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.TokenType;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.VerifiedToken;
 import com.scalefocus.springtraining.moviecatalog.util.DateUtils;
 import com.scalefocus.springtraining.moviecatalog.util.GeneralConstant;
+import com.scalefocus.springtraining.moviecatalog.util.CacheMetricsUtils;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
-import java.time.LocalDateTime;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The JwtTokenService class is responsible for performing JWT operations
  * like creation and validation. It makes use of the {@link io.jsonwebtoken.Jwts}
  * for achieving this.
+ * A token is parsed and its signature is verified only once - the result is a {@link VerifiedToken}.
+ * The verified tokens are kept in a bounded cache until they expire, so the repeated requests
+ * with the same token skip the HMAC verification completely. The cache is keyed by
+ * the SHA-256 hash of the token, so the tokens themselves are not kept in memory.
+ * The roles of the user are stored in the token, so a verified token is enough
+ * to authenticate a request and the user is loaded only when the token is generated.
+ * Next to the short-lived access token the user gets a long-lived refresh token, which is
+ * exchanged for a new access token without a password check. The lifetimes of both tokens
+ * are shortened by a random jitter, so the tokens issued at the same time do not expire together.
+ * Every token has an id (the jti claim), which is used to revoke it.
  *
  * @author Kristiyan SLavov
  */
 @Component
 public class JwtTokenService {
 
+    private static final String ROLES_CLAIM = "roles";
+
+    private static final String TOKEN_TYPE_CLAIM = "token_type";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    });
+
     private final String secret;
 
-    public JwtTokenService(@Value("${jwt.secret}") String secret) {
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    private final Duration accessTokenValidity;
+
+    private final Duration refreshTokenValidity;
+
+    private final Duration validityJitter;
+
+    public JwtTokenService(@Value("${jwt.secret}") String secret,
+                           @Value("${jwt.cache.maximum-size}") long cacheMaximumSize,
+                           @Value("${jwt.access-token.validity}") Duration accessTokenValidity,
+                           @Value("${jwt.refresh-token.validity}") Duration refreshTokenValidity,
+                           @Value("${jwt.validity-jitter}") Duration validityJitter,
+                           MeterRegistry meterRegistry) {
         this.secret = secret;
+        this.accessTokenValidity = accessTokenValidity;
+        this.refreshTokenValidity = refreshTokenValidity;
+        this.validityJitter = validityJitter;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new UntilTokenExpiration())
+                .recordStats()
+                .build();
+        // the size, hits, misses and evictions of the cache are published in the metrics
+        CacheMetricsUtils.monitor(meterRegistry, this.verifiedTokens, "jwt.verified-tokens");
     }
 
     /**
-     * This method retrieves the username from the JWT token
+     * This method returns the verified claims of the JWT access token.
+     * The token is parsed and verified only if it is not in the cache of the verified tokens.
      *
      * @param token - the JWT token
-     * @return the username
+     * @return the verified token
+     * @throws JwtException if the token is malformed, its signature is not valid, it is expired
+     * or it is a refresh token
      */
-    public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+    public VerifiedToken verify(String token) {
+        ByteBuffer key = hash(token);
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(key);
+        if (verifiedToken != null && !verifiedToken.isExpired(Instant.now())) {
+            return verifiedToken;
+        }
+        verifiedToken = parse(token, TokenType.ACCESS);
+        verifiedTokens.put(key, verifiedToken);
+        return verifiedToken;
     }
 
     /**
-     * This method retrieves the expiration date from the JWT token
+     * This method returns the verified claims of the JWT token of any type.
+     * It is not cached.
      *
      * @param token - the JWT token
-     * @return the expiration date
+     * @return the verified token
+     * @throws JwtException if the token is malformed, its signature is not valid or it is expired
      */
-    public LocalDateTime getExpirationDateFromToken(String token) {
-        return DateUtils.asLocalDateTime(getClaimFromToken(token, Claims::getExpiration));
+    public VerifiedToken verifyAnyToken(String token) {
+        return parse(token, null);
     }
 
     /**
-     * This method gets the claims from the JWT token.
+     * This method returns the verified claims of the JWT refresh token.
+     * The refresh tokens are used rarely, so they are not cached.
      *
-     * @param token          - the JWT token
-     * @param claimsResolver - used to resolve the claims
-     * @param <T>            - the type of the resolved part (the username type - String,
-     *                       or the expirationdate type - localDateTime, etc.)
-     * @return the resolved part from the claims
+     * @param token - the JWT refresh token
+     * @return the verified token
+     * @throws JwtException if the token is malformed, its signature is not valid, it is expired
+     * or it is not a refresh token
      */
-    public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+    public VerifiedToken verifyRefreshToken(String token) {
+        return parse(token, TokenType.REFRESH);
     }
 
-    //check if the token has expired
+    /**
+     * This method retrieves the username from the JWT token
+     *
+     * @param token - the JWT token
+     * @return the username
+     */
+    public String getUsernameFromToken(String token) {
+        return verify(token).getUsername();
+    }
 
     /**
-     * This method checks if the token is expired.
+     * This method generates an access token and a refresh token to the specified user.
      *
-     * @param token - the JWT token to be checked
-     * @return true if the token is expired or false if it is not.
+     * @param userDetails - the specified user
+     * @return the {@link JwtResponse} with both tokens
      */
-    private Boolean isTokenExpired(String token) {
-        final LocalDateTime expiration = getExpirationDateFromToken(token);
-        return expiration.isBefore(GeneralConstant.DATE_NOW);
+    public JwtResponse generateTokens(UserDetails userDetails) {
+        Instant refreshTokenExpiration = expirationOf(refreshTokenValidity);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, TokenType.REFRESH.name());
+        String refreshToken = doGenerateToken(claims, userDetails.getUsername(),
+                UUID.randomUUID().toString(), refreshTokenExpiration);
+        return refreshAccessToken(userDetails, refreshToken, refreshTokenExpiration);
     }
 
     /**
-     * This method validates the given JWT token.
+     * This method generates a new access token to the specified user,
+     * who already has the specified verified refresh token.
      *
-     * @param token       - the JWT token to be validated
-     * @param userDetails - the user details
-     * @return true if the JWT token is valid or false if it is not.
+     * @param userDetails          - the specified user
+     * @param refreshToken         - the refresh token of the user
+     * @param verifiedRefreshToken - the verified claims of the refresh token
+     * @return the {@link JwtResponse} with the new access token and the same refresh token
      */
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public JwtResponse refreshAccessToken(UserDetails userDetails, String refreshToken,
+                                          VerifiedToken verifiedRefreshToken) {
+        return refreshAccessToken(userDetails, refreshToken, verifiedRefreshToken.getExpiration());
     }
 
     /**
      * This method uses {@link JwtTokenService#doGenerateToken} to generate
-     * a JWT token to the specified user.
+     * a JWT access token to the specified user. The roles of the user are stored in the token.
      *
      * @param userDetails - the specified user
      * @return the generated JWT token
      */
     public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails, expirationOf(accessTokenValidity));
+    }
+
+    private String generateToken(UserDetails userDetails, Instant expiration) {
         Map<String, Object> claims = new HashMap<>();
-        return doGenerateToken(claims, userDetails.getUsername());
+        claims.put(TOKEN_TYPE_CLAIM, TokenType.ACCESS.name());
+        claims.put(ROLES_CLAIM, AuthorityUtils.authorityListToSet(userDetails.getAuthorities()));
+        return doGenerateToken(claims, userDetails.getUsername(), UUID.randomUUID().toString(), expiration);
+    }
+
+    private JwtResponse refreshAccessToken(UserDetails userDetails, String refreshToken, Instant refreshTokenExpiration) {
+        Instant expiration = expirationOf(accessTokenValidity);
+        return new JwtResponse(GeneralConstant.BEARER_TOKEN_TYPE,
+                generateToken(userDetails, expiration), DateUtils.asLocalDateTime(Date.from(expiration)),
+                refreshToken, DateUtils.asLocalDateTime(Date.from(refreshTokenExpiration)));
+    }
+
+    /**
+     * This method returns the expiration of a token with the specified validity.
+     * The validity is shortened by a random part of the jitter.
+     *
+     * @param validity - the validity of the token
+     * @return the expiration of the token
+     */
+    private Instant expirationOf(Duration validity) {
+        long jitterMillis = validityJitter.toMillis() > 0
+                ? ThreadLocalRandom.current().nextLong(validityJitter.toMillis() + 1) : 0;
+        // the expiration is truncated to seconds, because the JWT keeps the seconds only
+        return Instant.ofEpochSecond(Instant.now().plus(validity).minusMillis(jitterMillis).getEpochSecond());
+    }
+
+    /**
+     * This method parses the given JWT token and verifies its signature
+     * by using the secret key ("javainuse"). It uses the Jwts.parser method,
+     * which also rejects the expired tokens.
+     *
+     * @param token - the JWT token to be parsed.
+     * @param expectedType - the expected type of the token or null if the token can be of any type
+     * @return the verified token
+     */
+    private VerifiedToken parse(String token, TokenType expectedType) {
+        Claims claims = Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new MalformedJwtException("The token does not have a subject or an expiration");
+        }
+        // the tokens issued before the refresh tokens were introduced do not have a type - they are access tokens
+        String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        TokenType tokenType = TokenType.REFRESH.name().equals(type) ? TokenType.REFRESH : TokenType.ACCESS;
+        if (expectedType != null && tokenType != expectedType) {
+            throw new UnsupportedJwtException("The token is not " + expectedType.name().toLowerCase() + " token");
+        }
+        return new VerifiedToken(claims.getId(), tokenType, claims.getSubject(), claims.getExpiration().toInstant(),
+                authoritiesOf(claims));
     }
 
     /**
-     * This method retrieves any information from the token
-     * by using the secret key ("javainuse"). It uses the Jwts.parser method
-     * to parse the given JWT token.
+     * This method builds the authorities from the roles claim of the token.
+     * A token without roles has no authorities.
      *
-     * @param token - thw JWT token to be parsed.
-     * @return the claims
+     * @param claims - the verified claims of the token
+     * @return the authorities of the user
      */
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+    private List<GrantedAuthority> authoritiesOf(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<?> roleList = (List<?>) roles;
+        String[] authorities = new String[roleList.size()];
+        for (int i = 0; i < authorities.length; i++) {
+            authorities[i] = String.valueOf(roleList.get(i));
+        }
+        return Collections.unmodifiableList(AuthorityUtils.createAuthorityList(authorities));
     }
 
     /**
      * This method is used to generate a JWT tokens
      *
-     * @param claims  - the claims of the token to be defined, like Issued, Expiration, Subject, etc.
-     * @param subject - the user for which will be created a new JWT token
+     * @param claims     - the claims of the token to be defined, like Issued, Expiration, Subject, etc.
+     * @param subject    - the user for which will be created a new JWT token
+     * @param id         - the id of the token
+     * @param expiration - the expiration of the token
      * @return new JWT token
      */
-    private String doGenerateToken(Map<String, Object> claims, String subject) {
+    private String doGenerateToken(Map<String, Object> claims, String subject, String id, Instant expiration) {
         //while creating the token -
         //1. Define  claims of the token, like Issuer, Expiration, Subject, and the ID
         //2. Sign the JWT using the HS512 algorithm and secret key.
         //3. According to JWS Compact Serialization(https://tools.ietf.org/html/draft-ietf-jose-json-web-signature-41#section-3.1)
         //   compaction of the JWT to a URL-safe string
-
         return Jwts
                 .builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(DateUtils.asDate(GeneralConstant.DATE_NOW))
-                .setExpiration(DateUtils.asDate(GeneralConstant.DATE_NOW.plusSeconds(3600)))
+                .setId(id)
+                .setIssuedAt(new Date())
+                .setExpiration(Date.from(expiration))
                 .signWith(SignatureAlgorithm.HS512, secret)
                 .compact();
     }
 
+    private ByteBuffer hash(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Every cached token expires together with the token itself.
+     */
+    private static final class UntilTokenExpiration implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.getExpiration()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -1,62 +1,76 @@
 package com.scalefocus.springtraining.moviecatalog.service.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.scalefocus.springtraining.moviecatalog.model.entity.UserAccount;
+import com.scalefocus.springtraining.moviecatalog.repository.UserAccountRepository;
 import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import com.scalefocus.springtraining.moviecatalog.util.CacheMetricsUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.Collections;
+import java.time.Duration;
 
 /**
  * JwtUserDetailsService implements the Spring Security UserDetailsService interface.
  * It overrides the loadUserByUsername for fetching user details from database using the username.
  * The Spring Security Authentication Manager calls this method for getting the user details from
- * the database when authenticating the user details provided by the user. Here we are getting the USER
- * DETAILS FROM HARDCODED USER LIST. Also the password for a user is stored in encrypted format using BCrypt.
+ * the database when authenticating the user details provided by the user. The users are stored
+ * in the users collection and the password for a user is stored in encrypted format using BCrypt.
+ * It is used only at authentication - the authenticated requests carry the roles in the JWT.
+ * The loaded accounts are kept in a small cache for 'users.cache.time-to-live',
+ * so repeated logins of the same user do not query the database. A new {@link UserDetails}
+ * is built for every call, because the authentication erases its password.
  *
  * @author Kristiyan SLavov
  */
 @Service
 public class JwtUserDetailsService implements UserDetailsService {
 
-    private final UserDetails javaInUseUser;
+    private final UserAccountRepository userAccountRepository;
 
-    private final UserDetails testUser;
+    private final Cache<String, UserAccount> users;
 
-    public JwtUserDetailsService() {
-        //BCrypted pass: 123456789
-        javaInUseUser = new User("javainuse",
-                "$2a$12$xVqzk8Fq6rZRfuXX106o8.hvDJMoPQYPeGzbt7ahOahvM6lOE0xlG",
-                Arrays.asList(() -> "ROLE_ADMIN", () -> "ROLE_USER"));
-
-        //BCrypted pass: 12345678
-        testUser = new User("testuser",
-                "$2a$12$39OFhWEhoEjiieD8CT9tXe7XFwsk9R6taifWrRek6O18OvXMHjVeC",
-                Collections.singletonList(() -> "ROLE_USER"));
+    public JwtUserDetailsService(UserAccountRepository userAccountRepository,
+                                 @Value("${users.cache.maximum-size}") long cacheMaximumSize,
+                                 @Value("${users.cache.time-to-live}") Duration cacheTimeToLive,
+                                 MeterRegistry meterRegistry) {
+        this.userAccountRepository = userAccountRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTimeToLive)
+                .recordStats()
+                .build();
+        CacheMetricsUtils.monitor(meterRegistry, this.users, "users");
     }
 
     /**
      * This method is used to load a user by the specified username.
-     * Actually this method works only with two hardcoded users {@link JwtUserDetailsService#javaInUseUser},
-     * {@link JwtUserDetailsService#testUser} and if the specified name
-     * is equal to one of these users usernames it will return one of these {@link UserDetails} objects.
+     * The user is taken from the cache or, if it is not there, from the users collection.
      *
      * @param username - the specified username
      * @return a new {@link UserDetails} instance
      *
-     * @throws UsernameNotFoundException if the username is not equal to one of the given objects.
+     * @throws UsernameNotFoundException if there is not user with the specified username.
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        if (javaInUseUser.getUsername().equals(username)) {
-            return javaInUseUser;
-        } else if (testUser.getUsername().equals(username)) {
-            return testUser;
-        } else {
-            throw new UsernameNotFoundException(ErrorMessage.USER_NOT_FOUND.toString());
+        UserAccount account = users.getIfPresent(username);
+        if (account == null) {
+            account = userAccountRepository.findById(username)
+                    .orElseThrow(() -> new UsernameNotFoundException(ErrorMessage.USER_NOT_FOUND.toString()));
+            users.put(username, account);
         }
+        return User.withUsername(account.getUsername())
+                .password(account.getPassword())
+                .authorities(AuthorityUtils.createAuthorityList(account.getRoles().toArray(new String[0])))
+                .disabled(!account.isEnabled())
+                .build();
     }
 }
@@ -0,0 +1,203 @@
+package com.scalefocus.springtraining.moviecatalog.service.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.scalefocus.springtraining.moviecatalog.model.entity.RevokedToken;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.VerifiedToken;
+import com.scalefocus.springtraining.moviecatalog.util.BloomFilter;
+import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import com.scalefocus.springtraining.moviecatalog.util.CacheMetricsUtils;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * The token revocation service class.
+ * The ids of the revoked tokens are stored in the revoked_tokens collection until the tokens expire.
+ * Every node keeps a Bloom filter of the revoked ids in memory and rebuilds it from the collection
+ * every 'jwt.revocation.refresh-interval', so it sees the tokens revoked by the other nodes.
+ * A token whose id is not in the Bloom filter is not revoked - this is the answer for almost every
+ * request and it costs a few hash calculations. Only when the Bloom filter may contain the id
+ * the collection is queried, and the answer is cached until the next rebuild, which drops the cached answers.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String ID_FIELD = "_id";
+
+    private static final String EXPIRE_AT_FIELD = "expireAt";
+
+    private final MongoOperations mongoOperations;
+
+    private final JwtTokenService jwtTokenService;
+
+    private final long expectedRevocations;
+
+    private final double falsePositiveProbability;
+
+    private final boolean refreshEnabled;
+
+    private final Cache<String, Boolean> lookups;
+
+    // the tokens revoked by this node -> the moment they were saved, kept until the next rebuild includes them
+    private final Map<String, Instant> recentRevocations = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter revokedIds;
+
+    public TokenRevocationService(MongoOperations mongoOperations, JwtTokenService jwtTokenService,
+                                  @Value("${jwt.revocation.expected-revocations}") long expectedRevocations,
+                                  @Value("${jwt.revocation.false-positive-probability}") double falsePositiveProbability,
+                                  @Value("${jwt.revocation.refresh-interval}") Duration refreshInterval,
+                                  @Value("${jwt.revocation.refresh-enabled}") boolean refreshEnabled,
+                                  MeterRegistry meterRegistry) {
+        this.mongoOperations = mongoOperations;
+        this.jwtTokenService = jwtTokenService;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.refreshEnabled = refreshEnabled;
+        this.lookups = Caffeine.newBuilder()
+                .maximumSize(expectedRevocations)
+                .expireAfterWrite(refreshInterval)
+                .recordStats()
+                .build();
+        CacheMetricsUtils.monitor(meterRegistry, this.lookups, "jwt.revocation-lookups");
+        this.revokedIds = new BloomFilter(expectedRevocations, falsePositiveProbability);
+    }
+
+    /**
+     * This method checks if the specified verified token is revoked.
+     * The tokens without id (issued before the revocation was introduced) can not be revoked.
+     *
+     * @param verifiedToken - the verified token to be checked
+     * @return true if the token is revoked or false if it is not.
+     */
+    public boolean isRevoked(VerifiedToken verifiedToken) {
+        if (!mightBeRevoked(verifiedToken)) {
+            return false;
+        }
+        return lookups.get(verifiedToken.getId(),
+                id -> mongoOperations.exists(query(where(ID_FIELD).is(id)), RevokedToken.class));
+    }
+
+    /**
+     * This method checks, without a database query, if the specified verified token may be revoked.
+     *
+     * @param verifiedToken - the verified token to be checked
+     * @return false if the token is not revoked or true if it may be revoked.
+     */
+    public boolean mightBeRevoked(VerifiedToken verifiedToken) {
+        return verifiedToken.getId() != null && revokedIds.mightContain(verifiedToken.getId());
+    }
+
+    /**
+     * This method revokes the specified verified token until it expires.
+     * Revoking a token which is already revoked is a no-op.
+     *
+     * @param verifiedToken - the verified token to be revoked
+     */
+    public void revoke(VerifiedToken verifiedToken) {
+        String id = verifiedToken.getId();
+        if (id == null) {
+            return;
+        }
+        mongoOperations.save(new RevokedToken(id, Date.from(verifiedToken.getExpiration())));
+        recentRevocations.put(id, Instant.now());
+        revokedIds.put(id);
+        // it replaces a cached false, so the token is revoked on this node at once
+        lookups.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * This method revokes the specified token (access or refresh token) until it expires.
+     *
+     * @param token - the token to be revoked
+     * @throws BadCredentialsException if the token is not valid
+     */
+    public void revoke(String token) {
+        revoke(verified(() -> jwtTokenService.verifyAnyToken(token)));
+    }
+
+    /**
+     * This method logs out the user of the specified access token - it revokes the access token
+     * and, if it is specified, the refresh token of the same user.
+     *
+     * @param accessToken  - the verified access token of the user
+     * @param refreshToken - the refresh token of the user or null
+     * @throws BadCredentialsException if the refresh token is not valid or it belongs to another user
+     */
+    public void logout(VerifiedToken accessToken, String refreshToken) {
+        VerifiedToken verifiedRefreshToken = refreshToken != null
+                ? verified(() -> jwtTokenService.verifyRefreshToken(refreshToken)) : null;
+        if (verifiedRefreshToken != null && !verifiedRefreshToken.getUsername().equals(accessToken.getUsername())) {
+            throw new BadCredentialsException(ErrorMessage.BAD_TOKEN.toString());
+        }
+        revoke(accessToken);
+        if (verifiedRefreshToken != null) {
+            revoke(verifiedRefreshToken);
+        }
+    }
+
+    /**
+     * This method rebuilds the Bloom filter from the revoked tokens collection.
+     * It runs at startup and after that every 'jwt.revocation.refresh-interval'.
+     * If the collection can not be read, the current filter is kept.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval}")
+    public void refresh() {
+        if (!refreshEnabled) {
+            return;
+        }
+        Instant startedAt = Instant.now();
+        try {
+            Query query = query(where(EXPIRE_AT_FIELD).gt(Date.from(startedAt)));
+            long count = mongoOperations.count(query, RevokedToken.class);
+            // the filter has room for the new revocations until the next rebuild
+            BloomFilter filter = new BloomFilter(Math.max(expectedRevocations, count * 2), falsePositiveProbability);
+            query.fields().include(ID_FIELD);
+            try (CloseableIterator<RevokedToken> revokedTokens = mongoOperations.stream(query, RevokedToken.class)) {
+                revokedTokens.forEachRemaining(revokedToken -> filter.put(revokedToken.getId()));
+            }
+            // the tokens revoked by this node while the filter was built may not be in it, so they are added
+            // before it is published and once more after it, for the tokens revoked into the old filter meanwhile
+            recentRevocations.keySet().forEach(filter::put);
+            revokedIds = filter;
+            recentRevocations.keySet().forEach(filter::put);
+            recentRevocations.values().removeIf(revokedAt -> revokedAt.isBefore(startedAt));
+            // the cached answers may be false for the tokens revoked by the other nodes since they were cached
+            lookups.invalidateAll();
+        } catch (DataAccessException ex) {
+            LOGGER.warn("The revoked tokens can not be loaded, the current filter is kept", ex);
+        }
+    }
+
+    private VerifiedToken verified(Supplier<VerifiedToken> verification) {
+        try {
+            return verification.get();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException(ErrorMessage.BAD_TOKEN.toString(), e);
+        }
+    }
+}
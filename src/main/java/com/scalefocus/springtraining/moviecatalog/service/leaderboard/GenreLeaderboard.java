@@ -0,0 +1,373 @@
+package com.scalefocus.springtraining.moviecatalog.service.leaderboard;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * The genre leaderboard class.
+ * This class keeps in memory the top rated movies of every genre,
+ * so the "top N by rate" of a genre is served without a database call.
+ * Every genre board is bounded - it holds at most 'movies.leaderboard.capacity' movies.
+ * The boards are loaded from the database once (at startup or on the first request
+ * for the genre) and after that they are updated incrementally on every local write.
+ * When a movie is removed from a full board, the next movie of the genre is not known,
+ * so the board is reloaded with a single indexed query on the next read.
+ * The boards are loaded outside of the map, so a slow query never blocks the other genres,
+ * and the local writes made while a board is loaded are applied to the loaded board too
+ * (like the {@link com.scalefocus.springtraining.moviecatalog.service.snapshot.MovieSnapshot} does),
+ * so they are never lost. The concurrent reads of a genre which is being loaded wait for the same load.
+ * Only the genres of the saved movies have boards - the distinct genres are read once and refreshed
+ * every 'movies.leaderboard.genres-refresh-interval', and the top of any other genre is empty
+ * without a database call, so the requests for made up genres neither grow the boards nor reach the database.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+public class GenreLeaderboard {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenreLeaderboard.class);
+
+    private static final Comparator<Entry> BY_RATE_DESC = Comparator
+            .comparingDouble((Entry entry) -> entry.rate).reversed()
+            .thenComparingLong(entry -> entry.id);
+
+    private final MongoOperations mongoOperations;
+
+    private final MovieConverter movieConverter;
+
+    private final int capacity;
+
+    private final boolean warmUp;
+
+    private final ConcurrentMap<String, Board> boards = new ConcurrentHashMap<>();
+
+    // the load of every genre which is being loaded, so the concurrent reads of the genre share it
+    private final ConcurrentMap<String, CompletableFuture<Board>> loads = new ConcurrentHashMap<>();
+
+    // the normalized genres of the saved movies
+    private final Set<String> genres = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean genresLoaded;
+
+    // the boards which are being loaded with the local writes made during their load; guarded by this
+    private final List<PendingLoad> pendingLoads = new ArrayList<>();
+
+    public GenreLeaderboard(MongoOperations mongoOperations, MovieConverter movieConverter,
+                            @Value("${movies.leaderboard.capacity}") int capacity,
+                            @Value("${movies.leaderboard.warm-up}") boolean warmUp) {
+        this.mongoOperations = mongoOperations;
+        this.movieConverter = movieConverter;
+        this.capacity = capacity;
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * This method loads the boards of all genres once the application is started,
+     * if the 'movies.leaderboard.warm-up' property is true.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        if (!warmUp) {
+            return;
+        }
+        loadGenres();
+        genres.forEach(this::reload);
+        LOGGER.info("The leaderboards of {} genres are loaded", genres.size());
+    }
+
+    /**
+     * This method adds the genres saved by the other nodes every 'movies.leaderboard.genres-refresh-interval'.
+     * The genres which are not loaded yet are left to the first request (or to the warm up).
+     * If the genres can not be read, the current ones are kept.
+     */
+    @Scheduled(fixedDelayString = "${movies.leaderboard.genres-refresh-interval}")
+    public void refreshGenres() {
+        if (!genresLoaded) {
+            return;
+        }
+        try {
+            genres.addAll(findGenres());
+        } catch (DataAccessException ex) {
+            LOGGER.warn("The genres can not be loaded, the current genres are kept", ex);
+        }
+    }
+
+    /**
+     * This method returns the top rated movies of the specified genre.
+     *
+     * @param genre - the genre
+     * @param n - the number of movies, it is limited to the capacity of the board
+     * @return - the top n movies of the genre ordered by rate (the highest first)
+     */
+    public List<MovieDto> getTop(String genre, int n) {
+        String normalizedGenre = NormalizationUtils.normalize(genre);
+        if (!genresLoaded) {
+            loadGenres();
+        }
+        if (!genres.contains(normalizedGenre)) {
+            return Collections.emptyList();
+        }
+        Board board = boards.get(normalizedGenre);
+        if (board == null || board.isStale()) {
+            board = reload(normalizedGenre);
+        }
+        return board.top(Math.min(n, capacity));
+    }
+
+    /**
+     * This method updates the boards after the specified movie is inserted or updated.
+     * The genre of the movie may be changed, so the movie is removed from the boards of the other genres.
+     *
+     * @param movie - the saved movie
+     */
+    public void onSaved(Movie movie) {
+        String normalizedGenre = NormalizationUtils.normalize(movie.getGenre());
+        if (normalizedGenre != null) {
+            genres.add(normalizedGenre);
+        }
+        Entry entry = new Entry(movie.getId(), movie.getRate(), movieConverter.toDto(movie));
+        // a genre which is not loaded yet will be loaded (with this movie) on its first request
+        apply((genre, board) -> {
+            if (genre.equals(normalizedGenre)) {
+                board.put(entry);
+            } else {
+                board.remove(movie.getId());
+            }
+        });
+    }
+
+    /**
+     * This method removes the movie with the specified id from the boards.
+     *
+     * @param id - the id of the deleted movie
+     */
+    public void onDeleted(Long id) {
+        apply((genre, board) -> board.remove(id));
+    }
+
+    /**
+     * This method applies the specified write to the loaded boards and to the boards which are being loaded.
+     *
+     * @param write - the write, it is called with the genre and the board
+     */
+    private void apply(BiConsumer<String, Board> write) {
+        synchronized (this) {
+            boards.forEach(write);
+            pendingLoads.forEach(pendingLoad -> pendingLoad.writes.add(write));
+        }
+    }
+
+    /**
+     * This method loads the distinct genres of the movies, if they are not loaded yet.
+     */
+    private synchronized void loadGenres() {
+        if (genresLoaded) {
+            return;
+        }
+        genres.addAll(findGenres());
+        genresLoaded = true;
+    }
+
+    /**
+     * This method reads the distinct genres from the {normalizedGenre, rate, _id} index.
+     *
+     * @return - the normalized genres
+     */
+    private List<String> findGenres() {
+        return mongoOperations.findDistinct(new Query(), "normalizedGenre", Movie.class, String.class);
+    }
+
+    /**
+     * This method loads the board of the specified genre and replaces the current one.
+     * If the genre is already being loaded, it waits for that load instead of starting another one.
+     *
+     * @param normalizedGenre - the normalized genre
+     * @return - the new board of the genre
+     */
+    private Board reload(String normalizedGenre) {
+        CompletableFuture<Board> load = new CompletableFuture<>();
+        CompletableFuture<Board> running = loads.putIfAbsent(normalizedGenre, load);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+            }
+        }
+        try {
+            Board board = replace(normalizedGenre);
+            load.complete(board);
+            return board;
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loads.remove(normalizedGenre, load);
+        }
+    }
+
+    /**
+     * This method loads the board of the specified genre and replaces the current one.
+     * The local writes made during the load are applied to the new board before it is published.
+     *
+     * @param normalizedGenre - the normalized genre
+     * @return - the new board of the genre
+     */
+    private Board replace(String normalizedGenre) {
+        PendingLoad pendingLoad = new PendingLoad();
+        synchronized (this) {
+            pendingLoads.add(pendingLoad);
+        }
+        try {
+            Board board = load(normalizedGenre);
+            synchronized (this) {
+                pendingLoad.writes.forEach(write -> write.accept(normalizedGenre, board));
+                boards.put(normalizedGenre, board);
+            }
+            return board;
+        } finally {
+            synchronized (this) {
+                pendingLoads.remove(pendingLoad);
+            }
+        }
+    }
+
+    /**
+     * This method loads the top rated movies of the specified genre from the database.
+     * It is a single query on the {normalizedGenre, rate, _id} index.
+     *
+     * @param normalizedGenre - the normalized genre
+     * @return - new board of the genre
+     */
+    private Board load(String normalizedGenre) {
+        Query query = query(where("normalizedGenre").is(normalizedGenre))
+                .with(Sort.by(Sort.Direction.DESC, "rate").and(Sort.by(Sort.Direction.ASC, "id")))
+                .limit(capacity);
+        List<Movie> movies = mongoOperations.find(query, Movie.class);
+
+        Board board = new Board(capacity, movies.size() < capacity);
+        movies.forEach(movie -> board.put(new Entry(movie.getId(), movie.getRate(), movieConverter.toDto(movie))));
+        return board;
+    }
+
+    /**
+     * The local writes made while a board is loaded.
+     */
+    private static final class PendingLoad {
+
+        private final List<BiConsumer<String, Board>> writes = new ArrayList<>();
+    }
+
+    /**
+     * A single movie in a board.
+     */
+    private static final class Entry {
+
+        private final long id;
+
+        private final double rate;
+
+        private final MovieDto movie;
+
+        private Entry(long id, double rate, MovieDto movie) {
+            this.id = id;
+            this.rate = rate;
+            this.movie = movie;
+        }
+    }
+
+    /**
+     * The bounded board of a single genre.
+     * It is complete while it holds all movies of the genre - then removing
+     * a movie never requires a reload.
+     */
+    private static final class Board {
+
+        private final int capacity;
+
+        private final TreeSet<Entry> entries = new TreeSet<>(BY_RATE_DESC);
+
+        private final Map<Long, Entry> entriesById = new HashMap<>();
+
+        private boolean complete;
+
+        private boolean stale;
+
+        private Board(int capacity, boolean complete) {
+            this.capacity = capacity;
+            this.complete = complete;
+        }
+
+        private synchronized void put(Entry entry) {
+            Entry previous = entriesById.remove(entry.id);
+            if (previous != null) {
+                entries.remove(previous);
+                // the movie was moved down below all known movies, but the board does not know
+                // the movies after its last one, so some of them may be rated higher now
+                if (!complete && !entries.isEmpty() && BY_RATE_DESC.compare(entry, entries.last()) > 0) {
+                    stale = true;
+                    return;
+                }
+            }
+            entries.add(entry);
+            entriesById.put(entry.id, entry);
+            if (entries.size() > capacity) {
+                Entry last = entries.pollLast();
+                entriesById.remove(last.id);
+                complete = false;
+            }
+        }
+
+        private synchronized void remove(Long id) {
+            Entry entry = entriesById.remove(id);
+            if (entry != null) {
+                entries.remove(entry);
+                stale = !complete;
+            }
+        }
+
+        private synchronized boolean isStale() {
+            return stale;
+        }
+
+        private synchronized List<MovieDto> top(int n) {
+            List<MovieDto> top = new ArrayList<>(Math.min(n, entries.size()));
+            Iterator<Entry> iterator = entries.iterator();
+            while (top.size() < n && iterator.hasNext()) {
+                top.add(iterator.next().movie);
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.scalefocus.springtraining.moviecatalog.service.listener;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The mongo command metrics listener class.
+ * This class is registered in the MongoDB drivers (the blocking and the reactive one)
+ * and records every command in the metrics:
+ * the latency in the 'mongodb.commands' timer and the number of the returned
+ * (or written) documents in the 'mongodb.commands.documents' summary.
+ * Both are tagged with the command, the collection and the status of the command.
+ *
+ * @author Kristiyan SLavov
+ */
+@Component
+public class MongoCommandMetricsListener implements CommandListener {
+
+    private static final String UNKNOWN_COLLECTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    // the id of every running command -> its collection, which is known only when the command starts
+    private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+
+    public MongoCommandMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        collections.put(event.getRequestId(), collectionOf(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collections.remove(event.getRequestId());
+        record(event.getCommandName(), collection, "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+        DistributionSummary.builder("mongodb.commands.documents")
+                .description("The number of documents returned or written by a MongoDB command")
+                .tag("command", event.getCommandName())
+                .tag("collection", collection != null ? collection : UNKNOWN_COLLECTION)
+                .register(meterRegistry)
+                .record(documentCountOf(event.getResponse()));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getCommandName(), collections.remove(event.getRequestId()), "failure",
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(String command, String collection, String status, long elapsedNanos) {
+        Timer.builder("mongodb.commands")
+                .description("The latency of the MongoDB commands")
+                .tag("command", command)
+                .tag("collection", collection != null ? collection : UNKNOWN_COLLECTION)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This method returns the collection of the command - it is the value of the command name
+     * (for example {find: "movies"}) or, for getMore, the value of the collection field.
+     */
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = command.get(commandName);
+        if (value != null && value.isString()) {
+            return value.asString().getValue();
+        }
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : UNKNOWN_COLLECTION;
+    }
+
+    /**
+     * This method returns the number of documents in the response - the size of the returned batch
+     * for the cursor commands (find, aggregate, getMore) or the 'n' field for the write commands and count.
+     */
+    private static long documentCountOf(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch")
+                    ? cursor.asDocument().get("firstBatch") : cursor.asDocument().get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        BsonValue count = response.get("n");
+        return count != null && count.isNumber() ? count.asNumber().longValue() : 0;
+    }
+}
@@ -1,7 +1,8 @@
 package com.scalefocus.springtraining.moviecatalog.service.listener;
 
 import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
-import com.scalefocus.springtraining.moviecatalog.service.idgenerator.DatabaseSequenceGenerator;
+import com.scalefocus.springtraining.moviecatalog.service.idgenerator.IdGenerator;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
 import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
 import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
 import org.springframework.stereotype.Service;
@@ -12,30 +13,35 @@ import org.springframework.stereotype.Service;
  * This class is responsible for setting the id field every time
  * a new instance of our entity class is created.
  * For this purpose, it overrides onBeforeConvert method
- * and by using the databaseSequenceGenerator which generates the id
+ * and by using the configured {@link IdGenerator} which generates the id
  * it sets the id of the new record.
+ * It also keeps the normalized copies of the title, the writer and the genre
+ * in sync with the original values on every save.
  *
  * @author Kristiyan SLavov
  */
 @Service
 public class MovieModelListener extends AbstractMongoEventListener<Movie> {
 
-    private DatabaseSequenceGenerator databaseSequenceGenerator;
+    private IdGenerator idGenerator;
 
-    public MovieModelListener(DatabaseSequenceGenerator databaseSequenceGenerator) {
-        this.databaseSequenceGenerator = databaseSequenceGenerator;
+    public MovieModelListener(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
     }
 
     /**
-     * This method uses {@link DatabaseSequenceGenerator#generateSequence}
-     * to generate an id for the new record (the new Movie).
+     * This method uses {@link IdGenerator#generateId}
+     * to generate an id for the new record (the new Movie)
+     * and sets the normalized fields of the record.
      * @param event - the BeforeConvertEvent{@link Movie} event that contains
      *              the record for which will be generated an id.
      */
     @Override
     public void onBeforeConvert(BeforeConvertEvent<Movie> event) {
-        if (event.getSource().getId() == null) {
-            event.getSource().setId(databaseSequenceGenerator.generateSequence(Movie.SEQUENCE_NAME));
+        Movie movie = event.getSource();
+        if (movie.getId() == null) {
+            movie.setId(idGenerator.generateId());
         }
+        NormalizationUtils.normalizeFields(movie);
     }
 }
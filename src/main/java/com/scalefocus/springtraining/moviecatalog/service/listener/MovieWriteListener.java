@@ -0,0 +1,71 @@
+package com.scalefocus.springtraining.moviecatalog.service.listener;
+
+import com.scalefocus.springtraining.moviecatalog.config.MovieCacheConfig;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.leaderboard.GenreLeaderboard;
+import com.scalefocus.springtraining.moviecatalog.service.snapshot.MovieSnapshot;
+import com.scalefocus.springtraining.moviecatalog.service.suggest.TitleSuggester;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * The movie write listener class.
+ * This class keeps the in-memory views of the movies - the cache, the {@link GenreLeaderboard},
+ * the {@link TitleSuggester} and the {@link MovieSnapshot} - in sync with the writes of this instance.
+ * It is called by every service which writes movies (the blocking, the bulk and the reactive one)
+ * after the database has acknowledged the write.
+ * Its methods only change memory, so they can be called on the event loop of the reactive mode.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+public class MovieWriteListener {
+
+    private final CacheManager cacheManager;
+
+    private final GenreLeaderboard genreLeaderboard;
+
+    private final TitleSuggester titleSuggester;
+
+    private final MovieSnapshot movieSnapshot;
+
+    public MovieWriteListener(CacheManager cacheManager, GenreLeaderboard genreLeaderboard,
+                              TitleSuggester titleSuggester, MovieSnapshot movieSnapshot) {
+        this.cacheManager = cacheManager;
+        this.genreLeaderboard = genreLeaderboard;
+        this.titleSuggester = titleSuggester;
+        this.movieSnapshot = movieSnapshot;
+    }
+
+    /**
+     * This method updates the views after the specified movie is inserted or updated.
+     *
+     * @param movie - the saved movie
+     */
+    public void onSaved(Movie movie) {
+        evict(movie.getId());
+        genreLeaderboard.onSaved(movie);
+        titleSuggester.onSaved(movie);
+        movieSnapshot.onSaved(movie);
+    }
+
+    /**
+     * This method removes the movie with the specified id from the views.
+     *
+     * @param id - the id of the deleted movie
+     */
+    public void onDeleted(Long id) {
+        evict(id);
+        genreLeaderboard.onDeleted(id);
+        titleSuggester.onDeleted(id);
+        movieSnapshot.onDeleted(id);
+    }
+
+    private void evict(Long id) {
+        Cache cache = cacheManager.getCache(MovieCacheConfig.MOVIES_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+}
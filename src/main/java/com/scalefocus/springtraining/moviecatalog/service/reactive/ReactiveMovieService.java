@@ -0,0 +1,485 @@
+package com.scalefocus.springtraining.moviecatalog.service.reactive;
+
+import com.scalefocus.springtraining.moviecatalog.config.MovieCacheConfig;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkMovieOperation;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationResult;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePatchDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieProjectionDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.repository.reactive.ReactiveMovieRepository;
+import com.scalefocus.springtraining.moviecatalog.service.MovieService;
+import com.scalefocus.springtraining.moviecatalog.service.bulk.MovieBulkService;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import com.scalefocus.springtraining.moviecatalog.service.filter.MovieFilterCriteria;
+import com.scalefocus.springtraining.moviecatalog.service.idgenerator.IdGenerator;
+import com.scalefocus.springtraining.moviecatalog.service.leaderboard.GenreLeaderboard;
+import com.scalefocus.springtraining.moviecatalog.service.listener.MovieWriteListener;
+import com.scalefocus.springtraining.moviecatalog.service.search.MovieSearchAggregation;
+import com.scalefocus.springtraining.moviecatalog.service.snapshot.MovieSnapshot;
+import com.scalefocus.springtraining.moviecatalog.service.suggest.TitleSuggester;
+import com.scalefocus.springtraining.moviecatalog.service.support.MovieServiceSupport;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * @author Kristiyan SLavov
+ * <p>
+ * The reactive movie service class.
+ * This class is the non-blocking counterpart of
+ * {@link com.scalefocus.springtraining.moviecatalog.service.MovieService}
+ * and it is used when the application runs with the 'reactive' profile.
+ * It has the same business logic, but instead of blocking the calling thread
+ * it returns {@link Mono} and {@link Flux} publishers which complete
+ * when the database responds. The queries and the responses are built by the {@link MovieServiceSupport},
+ * which is shared with the blocking service, so this class only executes them.
+ * It shares the in-memory parts with the blocking service - the ids come from the configured {@link IdGenerator},
+ * the writes update the cache, the leaderboard, the title suggestions and the snapshot
+ * through the {@link MovieWriteListener}, and the lists are served from the {@link MovieSnapshot} when it is loaded.
+ * The calls which may block (a database call of the id generator, the first load of a leaderboard
+ * or of the title index, the load of a movie which is not cached and the bulk write) run on the bounded
+ * elastic scheduler, never on the event loop.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveMovieService {
+
+    private final ReactiveMovieRepository reactiveMovieRepository;
+
+    private final ReactiveMongoOperations reactiveMongoOperations;
+
+    private final IdGenerator idGenerator;
+
+    private final MovieConverter movieConverter;
+
+    private final GenreLeaderboard genreLeaderboard;
+
+    private final TitleSuggester titleSuggester;
+
+    private final MovieSnapshot movieSnapshot;
+
+    private final MovieWriteListener movieWriteListener;
+
+    private final MovieBulkService movieBulkService;
+
+    private final MovieService movieService;
+
+    private final Cache moviesCache;
+
+    private final MovieServiceSupport support;
+
+    private final int exportBatchSize;
+
+    public ReactiveMovieService(ReactiveMovieRepository reactiveMovieRepository,
+                                ReactiveMongoOperations reactiveMongoOperations,
+                                IdGenerator idGenerator,
+                                MovieConverter movieConverter,
+                                GenreLeaderboard genreLeaderboard,
+                                TitleSuggester titleSuggester,
+                                MovieSnapshot movieSnapshot,
+                                MovieWriteListener movieWriteListener,
+                                MovieBulkService movieBulkService,
+                                MovieService movieService,
+                                CacheManager cacheManager,
+                                MovieServiceSupport support,
+                                @Value("${movies.export.batch-size}") int exportBatchSize) {
+        this.reactiveMovieRepository = reactiveMovieRepository;
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.idGenerator = idGenerator;
+        this.movieConverter = movieConverter;
+        this.genreLeaderboard = genreLeaderboard;
+        this.titleSuggester = titleSuggester;
+        this.movieSnapshot = movieSnapshot;
+        this.movieWriteListener = movieWriteListener;
+        this.movieBulkService = movieBulkService;
+        this.movieService = movieService;
+        this.moviesCache = cacheManager.getCache(MovieCacheConfig.MOVIES_CACHE);
+        this.support = support;
+        this.exportBatchSize = exportBatchSize;
+    }
+
+    /**
+     * This method returns the movie with the specified id
+     * or signals MovieNotFoundException if there is not such movie.
+     * The movies are served from the same cache as in the blocking mode. A cached movie is returned
+     * on the calling thread. A movie which is not cached is loaded by {@link MovieService#getById}
+     * on the bounded elastic scheduler, so it is a single load per id and an eviction which comes
+     * while the movie is read removes its result.
+     *
+     * @param id - the id of the movie
+     * @return - a {@link Mono} with the movie
+     */
+    public Mono<Movie> getById(Long id) {
+        Cache.ValueWrapper cachedMovie = moviesCache.get(id);
+        if (cachedMovie != null) {
+            return Mono.just((Movie) cachedMovie.get());
+        }
+        return Mono.fromCallable(() -> movieService.getById(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * This method returns a page of movies(moviesDto)
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the page of moviesDto and the cursor of the next page
+     * or with 304 (Not Modified) if the ETag of the movies matches 'If-None-Match'
+     */
+    public Mono<ResponseEntity<MoviePageDto<?>>> getAll(Long after, Integer limit, String fields, String ifNoneMatch) {
+        int size = support.sizeOf(limit);
+        if (fields != null) {
+            return toProjectionPageResponse(support.allCriteria(after), size, fields, ifNoneMatch);
+        }
+        return toPageResponse(reactiveMovieRepository.findByIdGreaterThan(support.cursorOf(after),
+                support.pageOf(size + 1)), size, ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies(moviesDto) by the specified genre
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param genre - the specified genre by which the movies will be filtered and returned
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the page of moviesDto and the cursor of the next page
+     * or with 304 (Not Modified) if the ETag of the movies matches 'If-None-Match'
+     */
+    public Mono<ResponseEntity<MoviePageDto<?>>> getByGenre(String genre, Long after, Integer limit, String fields,
+                                                            String ifNoneMatch) {
+        if (movieSnapshot.isLoaded()) {
+            return toSnapshotPageResponse(MovieFilterDto.ofGenre(genre), after, limit, fields, ifNoneMatch);
+        }
+        int size = support.sizeOf(limit);
+        if (fields != null) {
+            return toProjectionPageResponse(support.genreCriteria(genre, after), size, fields, ifNoneMatch);
+        }
+        return toPageResponse(reactiveMovieRepository.findByNormalizedGenreAndIdGreaterThan(
+                NormalizationUtils.normalize(genre), support.cursorOf(after), support.pageOf(size + 1)), size,
+                ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies(moviesDto) by the specified rate
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param rate - the specified rate by which the movies will be filtered and returned
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the page of moviesDto and the cursor of the next page
+     * or with 304 (Not Modified) if the ETag of the movies matches 'If-None-Match'
+     */
+    public Mono<ResponseEntity<MoviePageDto<?>>> getByRate(Double rate, Long after, Integer limit, String fields,
+                                                           String ifNoneMatch) {
+        if (movieSnapshot.isLoaded()) {
+            return toSnapshotPageResponse(MovieFilterDto.ofRate(rate), after, limit, fields, ifNoneMatch);
+        }
+        int size = support.sizeOf(limit);
+        if (fields != null) {
+            return toProjectionPageResponse(support.rateCriteria(rate, after), size, fields, ifNoneMatch);
+        }
+        return toPageResponse(reactiveMovieRepository.findByRateAndIdGreaterThan(rate, support.cursorOf(after),
+                support.pageOf(size + 1)), size, ifNoneMatch);
+    }
+
+    /**
+     * This method returns the top rated movies(moviesDto) of the specified genre
+     * or signals MovieNotFoundException if there are not found movies.
+     * The movies are served from the in-memory {@link GenreLeaderboard}. Its first read of a genre
+     * loads the board from the database, so it runs on the bounded elastic scheduler.
+     *
+     * @param genre - the specified genre by which the movies will be filtered and returned
+     * @param n - the maximum number of movies
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the top n moviesDto of the genre ordered by rate (the highest first)
+     * or with 304 (Not Modified) if the ETag of the movies matches 'If-None-Match'
+     */
+    public Mono<ResponseEntity<List<MovieDto>>> getTopByGenre(String genre, int n, String ifNoneMatch) {
+        return Mono.fromCallable(() -> genreLeaderboard.getTop(genre, n))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(movies -> Mono.fromCallable(() -> support.listResponse(movies, ifNoneMatch)));
+    }
+
+    /**
+     * This method returns a page of movies(moviesDto) which match the specified filter
+     * (genre, rate range and release date range) or signals MovieNotFoundException if there are not found movies.
+     * If the {@link MovieSnapshot} is loaded, the page is a scan of its columns, otherwise it is a database query
+     * ordered by id (see {@link MovieFilterCriteria}).
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the page of moviesDto and the cursor of the next page
+     * or with 304 (Not Modified) if the ETag of the movies matches 'If-None-Match'
+     */
+    public Mono<ResponseEntity<MoviePageDto<?>>> filter(MovieFilterDto filter, Long after, Integer limit, String fields,
+                                                        String ifNoneMatch) {
+        if (movieSnapshot.isLoaded()) {
+            return toSnapshotPageResponse(filter, after, limit, fields, ifNoneMatch);
+        }
+        int size = support.sizeOf(limit);
+        Criteria criteria = support.filterCriteria(filter, after);
+        if (fields != null) {
+            return toProjectionPageResponse(criteria, size, fields, ifNoneMatch);
+        }
+        return toPageResponse(reactiveMongoOperations.find(support.pageQuery(criteria, size), Movie.class), size,
+                ifNoneMatch);
+    }
+
+    /**
+     * This method returns a page of movies(moviesDto) whose title or writer contain the searched words
+     * or signals MovieNotFoundException if there are not found movies.
+     * The page is a single aggregation on the text index (see {@link MovieSearchAggregation}).
+     *
+     * @param q - the searched words
+     * @param after - the cursor (the score and the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the page of the found moviesDto (the most relevant first) and the cursor
+     * of the next page or with 304 (Not Modified) if the ETag of the movies matches 'If-None-Match'
+     */
+    public Mono<ResponseEntity<MoviePageDto<MovieDto>>> search(String q, String after, Integer limit, String ifNoneMatch) {
+        int size = support.sizeOf(limit);
+        return reactiveMongoOperations.aggregate(MovieSearchAggregation.of(q, after, size),
+                reactiveMongoOperations.getCollectionName(Movie.class), Document.class)
+                .collectList()
+                .flatMap(documents -> {
+                    if (documents.isEmpty()) {
+                        return Mono.error(support.notFound());
+                    }
+                    return Mono.just(support.pageResponse(
+                            MovieSearchAggregation.toPage(documents, size, reactiveMongoOperations.getConverter()),
+                            ifNoneMatch));
+                });
+    }
+
+    /**
+     * This method returns the titles which start with the specified prefix (allowing a few typos)
+     * or signals MovieNotFoundException if there are not found titles.
+     * The titles are served from the in-memory {@link TitleSuggester}. Its first read loads the index
+     * from the database, so it runs on the bounded elastic scheduler.
+     *
+     * @param prefix - the prefix typed by the user
+     * @param n - the maximum number of titles
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the titles, the closest to the prefix first,
+     * or with 304 (Not Modified) if the ETag of the titles matches 'If-None-Match'
+     */
+    public Mono<ResponseEntity<List<String>>> suggest(String prefix, int n, String ifNoneMatch) {
+        return Mono.fromCallable(() -> titleSuggester.suggest(prefix, n))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(titles -> Mono.fromCallable(() -> support.listResponse(titles, ifNoneMatch)));
+    }
+
+    /**
+     * This method streams all movies(moviesDto) ordered by id.
+     * The movies are requested from the database according to the demand of the subscriber,
+     * so a slow client never causes the whole catalog to be buffered in memory.
+     *
+     * @return - a {@link Flux} with all moviesDto
+     */
+    public Flux<MovieDto> exportAll() {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id")).cursorBatchSize(exportBatchSize);
+        return reactiveMongoOperations.find(query, Movie.class)
+                .map(movieConverter::toDto);
+    }
+
+    /**
+     * This method inserts a new Movie into the database
+     * or signals MovieDuplicateKeyException if there is already a same movie.
+     * The duplicates are rejected by the unique index on the normalized title and writer.
+     * The id of the movie is generated here, before the insert, by the configured {@link IdGenerator}
+     * on the bounded elastic scheduler (the generator may call the database), so the
+     * {@link com.scalefocus.springtraining.moviecatalog.service.listener.MovieModelListener}
+     * never has to generate it on the event loop.
+     * The ETag of the response is the version of the new movie.
+     *
+     * @param movieDto - the movie that must be inserted into the database
+     * @return - a {@link Mono} with the already inserted movie
+     */
+    public Mono<ResponseEntity<MovieDto>> insert(MovieDto movieDto) {
+        Movie entityMovie = movieConverter.toEntity(movieDto);
+
+        return Mono.fromCallable(idGenerator::generateId)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(id -> {
+                    entityMovie.setId(id);
+                    return reactiveMovieRepository.insert(entityMovie);
+                })
+                .onErrorMap(DuplicateKeyException.class, ex -> support.duplicate())
+                .doOnNext(movieWriteListener::onSaved)
+                .map(movie -> support.movieResponse(HttpStatus.CREATED, movie));
+    }
+
+    /**
+     * This method updates an existing Movie by a specified id or
+     * insert a Movie if there is not found a movie to be updated.
+     * It is a single find-and-modify (with upsert) call which sets all fields,
+     * increments the version and returns the new movie.
+     * If the 'If-Match' header is supplied, the movie is updated only if its version matches
+     * the header (or MoviePreconditionFailedException is signaled) and it is never inserted.
+     *
+     * @param movieDto - the movie that will be updated / inserted
+     * @param id - the id of the movie
+     * @param ifMatch - the value of the 'If-Match' header or null
+     * @return - a {@link Mono} with the movie that was inserted / updated
+     */
+    public Mono<ResponseEntity<MovieDto>> update(MovieDto movieDto, Long id, String ifMatch) {
+        Update update = movieConverter.toUpdate(movieDto).inc("version", 1);
+        FindAndModifyOptions options = options().returnNew(true).upsert(ifMatch == null);
+
+        return reactiveMongoOperations.findAndModify(support.conditionalQuery(id, ifMatch), update, options, Movie.class)
+                .onErrorMap(DuplicateKeyException.class, ex -> support.duplicate())
+                .switchIfEmpty(Mono.error(support::preconditionFailed))
+                .doOnNext(movieWriteListener::onSaved)
+                .map(movie -> support.movieResponse(HttpStatus.OK, movie));
+    }
+
+    /**
+     * This method updates only the supplied fields of an existing Movie by a specified id
+     * or signals MovieNotFoundException if there is not found movie to be updated.
+     * The supplied fields are turned into a single $set (find-and-modify) call which increments the version
+     * and returns the new movie.
+     *
+     * @param moviePatchDto - the fields that will be updated
+     * @param id - the id of the movie
+     * @return - a {@link Mono} with the updated movie
+     */
+    public Mono<ResponseEntity<MovieDto>> patch(MoviePatchDto moviePatchDto, Long id) {
+        Update update = movieConverter.toUpdate(moviePatchDto);
+        Mono<Movie> patchedMovie = update.getUpdateObject().isEmpty()
+                ? reactiveMovieRepository.findById(id)
+                : reactiveMongoOperations.findAndModify(query(where("id").is(id)), update.inc("version", 1),
+                options().returnNew(true), Movie.class);
+
+        return patchedMovie
+                .onErrorMap(DuplicateKeyException.class, ex -> support.duplicate())
+                .switchIfEmpty(Mono.error(support::notFound))
+                .doOnNext(movieWriteListener::onSaved)
+                .map(movie -> support.movieResponse(HttpStatus.OK, movie));
+    }
+
+    /**
+     * This method deletes a movie by a specified id
+     * or signals MovieNotFoundException if there is not found movie to be deleted.
+     * If the 'If-Match' header is supplied, the movie is deleted (with a single find-and-remove call)
+     * only if its version matches the header, otherwise MoviePreconditionFailedException is signaled.
+     *
+     * @param id - the movie's id
+     * @param ifMatch - the value of the 'If-Match' header or null
+     * @return - a {@link Mono} with suitable answer (HttpStatus OK 200) if the movie is deleted
+     */
+    public Mono<ResponseEntity<String>> delete(Long id, String ifMatch) {
+        Mono<?> deleted = ifMatch != null
+                ? reactiveMongoOperations.findAndRemove(support.conditionalQuery(id, ifMatch), Movie.class)
+                .switchIfEmpty(Mono.error(support::preconditionFailed))
+                : reactiveMovieRepository.findById(id)
+                .switchIfEmpty(Mono.error(support::notFound))
+                .flatMap(movie -> reactiveMovieRepository.deleteById(id).thenReturn(movie));
+
+        return deleted
+                .doOnNext(movie -> movieWriteListener.onDeleted(id))
+                .thenReturn(ResponseEntity.ok("Movie is deleted successfully"));
+    }
+
+    /**
+     * This method executes the specified operations as one unordered bulk write
+     * (see {@link MovieBulkService}). The bulk write is blocking, so it runs on the bounded elastic scheduler.
+     *
+     * @param operations - the operations in the order of the request
+     * @return - a {@link Mono} with the results of the operations in the order of the request
+     */
+    public Mono<ResponseEntity<List<BulkOperationResult>>> bulk(List<BulkMovieOperation> operations) {
+        return Mono.fromCallable(() -> movieBulkService.execute(operations))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * This method collects the received movies to a page of moviesDto
+     * or signals MovieNotFoundException if there are not found movies.
+     *
+     * @param movies - the movies, at most one more than the page size
+     * @param size - the size of the page
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the page of moviesDto and the cursor of the next page
+     */
+    private Mono<ResponseEntity<MoviePageDto<?>>> toPageResponse(Flux<Movie> movies, int size, String ifNoneMatch) {
+        return movies.collectList()
+                .flatMap(list -> Mono.fromCallable(() -> support.pageResponse(support.toPage(list, size), ifNoneMatch)));
+    }
+
+    /**
+     * This method reads a page of movies, which match the specified criteria, with only the selected fields
+     * or signals MovieNotFoundException if there are not found movies.
+     * The movies are read directly into {@link MovieProjectionDto} with a field projection,
+     * without the entity and the conversion.
+     *
+     * @param criteria - the criteria of the movies (including the cursor)
+     * @param size - the size of the page
+     * @param fields - the comma separated fields of the movies
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the page of movies and the cursor of the next page
+     */
+    private Mono<ResponseEntity<MoviePageDto<?>>> toProjectionPageResponse(Criteria criteria, int size, String fields,
+                                                                           String ifNoneMatch) {
+        return reactiveMongoOperations.query(Movie.class)
+                .as(MovieProjectionDto.class)
+                .matching(support.projectionQuery(criteria, size, fields))
+                .all()
+                .collectList()
+                .flatMap(list -> Mono.fromCallable(
+                        () -> support.pageResponse(support.toProjectionPage(list, size), ifNoneMatch)));
+    }
+
+    /**
+     * This method returns a page of the movies of the {@link MovieSnapshot}, which match the specified filter,
+     * or signals MovieNotFoundException if there are not found movies.
+     * The page is a scan of memory, so it runs on the calling thread.
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a {@link Mono} with the page of movies and the cursor of the next page
+     */
+    private Mono<ResponseEntity<MoviePageDto<?>>> toSnapshotPageResponse(MovieFilterDto filter, Long after,
+                                                                         Integer limit, String fields,
+                                                                         String ifNoneMatch) {
+        return Mono.fromCallable(() -> support.snapshotPageResponse(filter, after, limit, fields, ifNoneMatch));
+    }
+}
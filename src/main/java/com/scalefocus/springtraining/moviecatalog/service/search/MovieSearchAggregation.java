@@ -0,0 +1,95 @@
+package com.scalefocus.springtraining.moviecatalog.service.search;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.util.SearchCursorUtils;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * This class builds the aggregation of a search page and converts its result.
+ * The search is a single aggregation on the text index of the title and the writer
+ * (see {@link com.scalefocus.springtraining.moviecatalog.config.MovieIndexConfig}):
+ * <ul>
+ * <li>$match $text - only the movies which contain the searched words are read, through the text index</li>
+ * <li>$addFields - the text score (the relevance) of every movie</li>
+ * <li>$match - the keyset of the page: the movies after the cursor in the order below</li>
+ * <li>$sort and $limit - the highest score first, then the lowest id, one movie more than the page size</li>
+ * <li>$project - only the fields of {@link MovieDto}, the score and the id</li>
+ * </ul>
+ * It is used by the blocking and by the reactive movie services, so both run the same query.
+ *
+ * @author Kristiyan SLavov
+ */
+public final class MovieSearchAggregation {
+
+    private static final String SCORE_FIELD = "score";
+
+    private static final String ID_FIELD = "_id";
+
+    private MovieSearchAggregation() {
+        throw new AssertionError();
+    }
+
+    /**
+     * This method returns the aggregation of a search page. It must run on the movies collection
+     * by its name, because the score is not a field of the movie.
+     *
+     * @param q - the searched words
+     * @param after - the cursor of the page (see {@link SearchCursorUtils}) or null for the first page
+     * @param size - the size of the page
+     * @return the aggregation of the page
+     */
+    public static Aggregation of(String q, String after, int size) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(q)));
+        operations.add(context -> new Document("$addFields",
+                new Document(SCORE_FIELD, new Document("$meta", "textScore"))));
+        if (after != null) {
+            double score = SearchCursorUtils.scoreOf(after);
+            operations.add(Aggregation.match(new Criteria().orOperator(
+                    where(SCORE_FIELD).lt(score),
+                    where(SCORE_FIELD).is(score).and(ID_FIELD).gt(SearchCursorUtils.idOf(after)))));
+        }
+        operations.add(Aggregation.sort(Sort.by(Sort.Order.desc(SCORE_FIELD), Sort.Order.asc(ID_FIELD))));
+        operations.add(Aggregation.limit(size + 1L));
+        operations.add(Aggregation.project("title", "writer", "genre", "runtime", "releaseDate", "rate", SCORE_FIELD));
+        return Aggregation.newAggregation(operations);
+    }
+
+    /**
+     * This method converts the (not empty) result of the aggregation to a page of moviesDto.
+     * The movie after the page tells that there is a next page and the cursor
+     * of the next page is the score and the id of the last movie of the page.
+     *
+     * @param documents - the result of the aggregation
+     * @param size - the size of the page
+     * @param converter - the converter of the documents
+     * @return a page of moviesDto and the cursor of the next page
+     */
+    public static MoviePageDto<MovieDto> toPage(List<Document> documents, int size, MongoConverter converter) {
+        boolean hasNext = documents.size() > size;
+        List<Document> content = hasNext ? documents.subList(0, size) : documents;
+        String nextCursor = null;
+        if (hasNext) {
+            Document last = content.get(content.size() - 1);
+            nextCursor = SearchCursorUtils.toCursor(last.get(SCORE_FIELD, Number.class).doubleValue(),
+                    last.get(ID_FIELD, Number.class).longValue());
+        }
+        List<MovieDto> movies = content.stream()
+                .map(document -> converter.read(MovieDto.class, document))
+                .collect(Collectors.toList());
+        return new MoviePageDto<>(movies, nextCursor);
+    }
+}
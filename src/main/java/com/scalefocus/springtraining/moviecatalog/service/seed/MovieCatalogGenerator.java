@@ -0,0 +1,165 @@
+package com.scalefocus.springtraining.moviecatalog.service.seed;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The movie catalog generator class.
+ * It generates synthetic movies with the distributions of a real catalog:
+ * <ul>
+ * <li>the genres follow a Zipf distribution - a few genres have most of the movies</li>
+ * <li>the rates are skewed - most movies are rated between 5 and 8 and there is a long tail of bad movies</li>
+ * <li>the release dates are skewed towards the recent years (between 1920 and today)</li>
+ * <li>the runtimes are normally distributed around 105 minutes (between 60 and 240 minutes)</li>
+ * <li>the titles and the writers are composed from small vocabularies, so some title/writer pairs collide,
+ * and a part of the movies repeats a recent title/writer pair with a different letter case and whitespace</li>
+ * </ul>
+ * An instance is not thread-safe - every seeding thread uses its own generator.
+ *
+ * @author Kristiyan SLavov
+ */
+public class MovieCatalogGenerator {
+
+    private static final String[] GENRES = {"Drama", "Comedy", "Action", "Thriller", "Horror", "Romance",
+            "Documentary", "Crime", "Adventure", "Sci-Fi", "Animation", "Fantasy", "Family", "Mystery",
+            "Biography", "History", "War", "Music", "Western", "Sport"};
+
+    private static final double GENRE_ZIPF_EXPONENT = 1.0;
+
+    private static final String[] ADJECTIVES = {"Silent", "Dark", "Last", "Lost", "Hidden", "Broken", "Golden",
+            "Crimson", "Eternal", "Final", "Frozen", "Wild", "Secret", "Empty", "Burning", "Forgotten", "Little",
+            "Great", "Lonely", "Distant", "Restless", "Savage", "Quiet", "Endless", "Fallen"};
+
+    private static final String[] NOUNS = {"River", "City", "Night", "Kingdom", "Road", "Storm", "Garden",
+            "Empire", "Heart", "Shadow", "Island", "Mountain", "Summer", "Winter", "Promise", "Secret", "Dream",
+            "Journey", "Stranger", "Witness", "Legacy", "Horizon", "Harbor", "Frontier", "Mirror"};
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+            "Thomas", "Sarah", "Charles", "Karen", "Ivan", "Maria", "Georgi", "Elena", "Dimitar", "Anna"};
+
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Taylor",
+            "Moore", "Jackson", "Martin", "Lee", "Thompson", "White", "Harris", "Ivanov", "Petrov", "Georgiev"};
+
+    private static final int FIRST_YEAR = 1920;
+
+    private static final double MEAN_AGE_IN_YEARS = 18;
+
+    private static final int RECENT_MOVIES = 1024;
+
+    private final Random random;
+
+    private final double duplicateRatio;
+
+    private final double[] genreDistribution;
+
+    private final Movie[] recentMovies = new Movie[RECENT_MOVIES];
+
+    private long generated;
+
+    /**
+     * @param seed - the seed of the random generator, the same seed generates the same movies
+     * @param duplicateRatio - the part of the movies which repeat a recent title/writer pair
+     */
+    public MovieCatalogGenerator(long seed, double duplicateRatio) {
+        this.random = new Random(seed);
+        this.duplicateRatio = duplicateRatio;
+        this.genreDistribution = zipfDistribution(GENRES.length, GENRE_ZIPF_EXPONENT);
+    }
+
+    /**
+     * This method generates a new movie with normalized fields and without id.
+     *
+     * @return - the generated movie
+     */
+    public Movie next() {
+        Movie movie = new Movie();
+        Movie recent = recentMovies[random.nextInt(RECENT_MOVIES)];
+        if (recent != null && random.nextDouble() < duplicateRatio) {
+            movie.setTitle(" " + recent.getTitle().toUpperCase());
+            movie.setWriter(recent.getWriter().toLowerCase() + " ");
+        } else {
+            movie.setTitle(title());
+            movie.setWriter(pick(FIRST_NAMES) + " " + (char) ('A' + random.nextInt(26)) + ". " + pick(LAST_NAMES));
+        }
+        movie.setGenre(GENRES[genreIndex()]);
+        movie.setRate(rate());
+        movie.setReleaseDate(releaseDate());
+        movie.setRuntime(runtime() + " min");
+        NormalizationUtils.normalizeFields(movie);
+        recentMovies[(int) (generated++ % RECENT_MOVIES)] = movie;
+        return movie;
+    }
+
+    private String title() {
+        StringBuilder title = new StringBuilder();
+        if (random.nextBoolean()) {
+            title.append("The ");
+        }
+        title.append(pick(ADJECTIVES)).append(' ').append(pick(NOUNS));
+        if (random.nextBoolean()) {
+            title.append(" of the ").append(pick(NOUNS));
+        }
+        // a part of the movies are sequels
+        int sequel = random.nextInt(10);
+        if (sequel >= 8) {
+            title.append(' ').append(sequel - 6);
+        }
+        return title.toString();
+    }
+
+    private int genreIndex() {
+        int index = Arrays.binarySearch(genreDistribution, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, GENRES.length - 1);
+    }
+
+    /**
+     * The rates are 10 minus a log-normal value - most of them are between 5 and 8,
+     * with a long tail towards the low rates.
+     */
+    private double rate() {
+        double rate = 10 - Math.exp(Math.log(3.5) + 0.35 * random.nextGaussian());
+        return Math.round(Math.max(0, Math.min(10, rate)) * 10) / 10.0;
+    }
+
+    /**
+     * The age of the movies is exponentially distributed, so there are more recent movies.
+     */
+    private LocalDate releaseDate() {
+        LocalDate today = LocalDate.now();
+        int maxAge = today.getYear() - FIRST_YEAR;
+        int age = (int) Math.min(maxAge, -MEAN_AGE_IN_YEARS * Math.log(1 - random.nextDouble()));
+        LocalDate date = LocalDate.of(today.getYear() - age, 1, 1).plusDays(random.nextInt(365));
+        return date.isAfter(today) ? today : date;
+    }
+
+    private long runtime() {
+        return Math.round(Math.max(60, Math.min(240, 105 + 20 * random.nextGaussian())));
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * This method returns the cumulative probabilities of a Zipf distribution
+     * with the specified number of elements and exponent.
+     */
+    private static double[] zipfDistribution(int elements, double exponent) {
+        double[] cumulative = new double[elements];
+        double sum = 0;
+        for (int i = 0; i < elements; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < elements; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,210 @@
+package com.scalefocus.springtraining.moviecatalog.service.seed;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.idgenerator.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * The movie catalog seeder class.
+ * It fills the movies collection with 'movies.seed.count' synthetic movies from {@link MovieCatalogGenerator},
+ * so the queries can be measured on a database of a realistic size. It runs only with the 'seed' profile
+ * and the application exits when the seeding is done.
+ * The movies are inserted by 'movies.seed.threads' parallel threads with unordered bulk writes
+ * of 'movies.seed.batch-size' movies. The ids of every batch are reserved with a single call of
+ * {@link IdGenerator#generateIds}. The duplicated title/writer pairs are rejected by the unique index
+ * (if the indexes are created) without stopping the bulk write and are only counted.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+@Profile("seed")
+public class MovieCatalogSeeder implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MovieCatalogSeeder.class);
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private final MongoOperations mongoOperations;
+
+    private final IdGenerator idGenerator;
+
+    private final ApplicationContext applicationContext;
+
+    private final long count;
+
+    private final int batchSize;
+
+    private final int threads;
+
+    private final double duplicateRatio;
+
+    private final long randomSeed;
+
+    private final boolean exitWhenDone;
+
+    private final AtomicLong remaining = new AtomicLong();
+
+    private final AtomicLong inserted = new AtomicLong();
+
+    private final AtomicLong duplicates = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    public MovieCatalogSeeder(MongoOperations mongoOperations, IdGenerator idGenerator,
+                              ApplicationContext applicationContext,
+                              @Value("${movies.seed.count}") long count,
+                              @Value("${movies.seed.batch-size}") int batchSize,
+                              @Value("${movies.seed.threads}") int threads,
+                              @Value("${movies.seed.duplicate-ratio}") double duplicateRatio,
+                              @Value("${movies.seed.random-seed}") long randomSeed,
+                              @Value("${movies.seed.exit-when-done}") boolean exitWhenDone) {
+        this.mongoOperations = mongoOperations;
+        this.idGenerator = idGenerator;
+        this.applicationContext = applicationContext;
+        this.count = count;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.duplicateRatio = duplicateRatio;
+        this.randomSeed = randomSeed;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    /**
+     * This method inserts the movies and, if 'movies.seed.exit-when-done' is true, exits the application.
+     *
+     * @param args - the application arguments
+     * @throws InterruptedException if the seeding is interrupted
+     * @throws ExecutionException if a seeding thread fails
+     */
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException, ExecutionException {
+        LOGGER.info("Seeding {} movies with {} threads in batches of {}", count, threads, batchSize);
+        long start = System.nanoTime();
+        remaining.set(count);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                // every thread has its own generator, so the threads share nothing but the counters
+                MovieCatalogGenerator generator = new MovieCatalogGenerator(randomSeed + i, duplicateRatio);
+                workers.add(executor.submit(() -> seed(generator)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+        LOGGER.info("Seeded {} movies ({} duplicates rejected) in {} s, {} movies/s",
+                inserted.get(), duplicates.get(), seconds, inserted.get() / seconds);
+
+        if (exitWhenDone) {
+            // the scheduler threads would keep the application running, so it exits with the status of the context
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    /**
+     * This method inserts batches of movies until all movies are inserted.
+     *
+     * @param generator - the generator of the thread
+     */
+    private void seed(MovieCatalogGenerator generator) {
+        long batch;
+        while ((batch = take()) > 0) {
+            long[] ids = idGenerator.generateIds((int) batch);
+            BulkOperations bulkOperations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+            for (long id : ids) {
+                Movie movie = generator.next();
+                movie.setId(id);
+                bulkOperations.insert(movie);
+            }
+            insert(bulkOperations);
+        }
+    }
+
+    /**
+     * This method takes the size of the next batch from the remaining movies.
+     *
+     * @return - the size of the batch or 0 if all movies are taken
+     */
+    private long take() {
+        while (true) {
+            long current = remaining.get();
+            long batch = Math.min(batchSize, current);
+            if (batch == 0 || remaining.compareAndSet(current, current - batch)) {
+                return batch;
+            }
+        }
+    }
+
+    /**
+     * This method executes the bulk write of a batch and counts the inserted and the rejected movies.
+     *
+     * @param bulkOperations - the bulk write of the batch
+     */
+    private void insert(BulkOperations bulkOperations) {
+        try {
+            inserted.addAndGet(bulkOperations.execute().getInsertedCount());
+        } catch (BulkOperationException ex) {
+            countDuplicates(ex, ex.getErrors().stream()
+                    .map(com.mongodb.BulkWriteError::getCode).collect(Collectors.toList()),
+                    ex.getResult().getInsertedCount());
+        } catch (DuplicateKeyException ex) {
+            // the bulk writes which failed only with duplicates are translated to DuplicateKeyException
+            if (!(ex.getCause() instanceof MongoBulkWriteException)) {
+                throw ex;
+            }
+            MongoBulkWriteException cause = (MongoBulkWriteException) ex.getCause();
+            countDuplicates(ex, cause.getWriteErrors().stream()
+                    .map(BulkWriteError::getCode).collect(Collectors.toList()),
+                    cause.getWriteResult().getInsertedCount());
+        }
+        if (batches.incrementAndGet() % 100 == 0) {
+            LOGGER.info("Seeded {} of {} movies", count - remaining.get(), count);
+        }
+    }
+
+    /**
+     * This method counts the movies rejected by the unique index - the other errors fail the seeding.
+     *
+     * @param ex - the exception of the bulk write
+     * @param errorCodes - the codes of the failed inserts
+     * @param insertedCount - the movies inserted by the bulk write
+     */
+    private void countDuplicates(RuntimeException ex, List<Integer> errorCodes, int insertedCount) {
+        long rejected = errorCodes.stream().filter(code -> code == DUPLICATE_KEY_ERROR_CODE).count();
+        if (rejected < errorCodes.size()) {
+            throw ex;
+        }
+        duplicates.addAndGet(rejected);
+        inserted.addAndGet(insertedCount);
+    }
+}
@@ -0,0 +1,486 @@
+package com.scalefocus.springtraining.moviecatalog.service.snapshot;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieProjectionDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * The movie columns class.
+ * It keeps the whole catalog in memory in columnar form - one array per field, a movie is a row of the arrays.
+ * The rows are sorted by id, so the page after a cursor starts with a binary search, like the range scan of the id index.
+ * <ul>
+ * <li>ids - long[]</li>
+ * <li>rates - double[] (NaN if the movie has no rate)</li>
+ * <li>genres - int[] of codes, the code of a normalized genre is its index in the genre dictionary</li>
+ * <li>release dates - int[] of epoch days</li>
+ * <li>titles, writers, genres and runtimes - String[], the writers, the genres and the runtimes are pooled,
+ * so every distinct value is held once (the titles are almost all distinct, so they are not pooled)</li>
+ * </ul>
+ * A filter is answered by scanning the primitive arrays, which are contiguous in memory,
+ * and only the rows of the page are turned into objects. If a page is not found in the first 'parallelThreshold'
+ * rows, the rest of the rows are split among the threads of the common fork-join pool (if it has more than one).
+ * A deleted movie is only marked as removed and the removed rows are dropped when the arrays are full.
+ * The reads share a lock and the writes hold it exclusively, so a scan never sees a half-written row.
+ *
+ * @author Kristiyan SLavov
+ */
+public class MovieColumns {
+
+    private static final int REMOVED = -1;
+
+    private static final int NO_RELEASE_DATE = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // a shorter part of a parallel scan costs more to fork than to scan
+    private static final int MIN_PARALLEL_ROWS = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int parallelThreshold;
+
+    private final Map<String, Integer> genreCodes = new HashMap<>();
+
+    private final Map<String, String> pool = new HashMap<>();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    private double[] rates = new double[INITIAL_CAPACITY];
+
+    private int[] genreColumn = new int[INITIAL_CAPACITY];
+
+    private int[] releaseDays = new int[INITIAL_CAPACITY];
+
+    private String[] titles = new String[INITIAL_CAPACITY];
+
+    private String[] writers = new String[INITIAL_CAPACITY];
+
+    private String[] genres = new String[INITIAL_CAPACITY];
+
+    private String[] runtimes = new String[INITIAL_CAPACITY];
+
+    // the used rows, including the removed ones
+    private int rows;
+
+    private int removed;
+
+    public MovieColumns(int parallelThreshold) {
+        this.parallelThreshold = Math.max(parallelThreshold, MIN_PARALLEL_ROWS);
+    }
+
+    /**
+     * This method adds the specified movie or changes its row.
+     *
+     * @param movie - the movie
+     */
+    public void put(Movie movie) {
+        lock.writeLock().lock();
+        try {
+            int row = Arrays.binarySearch(ids, 0, rows, movie.getId());
+            if (row < 0) {
+                row = open(movie.getId());
+            } else if (genreColumn[row] == REMOVED) {
+                removed--;
+            }
+            rates[row] = movie.getRate() != null ? movie.getRate() : Double.NaN;
+            genreColumn[row] = codeOf(NormalizationUtils.normalize(movie.getGenre()));
+            releaseDays[row] = movie.getReleaseDate() != null
+                    ? (int) movie.getReleaseDate().toEpochDay() : NO_RELEASE_DATE;
+            titles[row] = movie.getTitle();
+            writers[row] = pooled(movie.getWriter());
+            genres[row] = pooled(movie.getGenre());
+            runtimes[row] = pooled(movie.getRuntime());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method removes the movie with the specified id.
+     *
+     * @param id - the id of the movie
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = Arrays.binarySearch(ids, 0, rows, id);
+            if (row >= 0 && genreColumn[row] != REMOVED) {
+                genreColumn[row] = REMOVED;
+                titles[row] = null;
+                removed++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method returns the number of the movies.
+     *
+     * @return the number of the movies
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows - removed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method returns a page of the movies which match the specified filter, ordered by id.
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor (the id of the last movie from the previous page)
+     * @param size - the size of the page
+     * @return a page of moviesDto and the cursor of the next page
+     */
+    public MoviePageDto<MovieDto> page(MovieFilterDto filter, long after, int size) {
+        return page(filter, after, size, this::toDto);
+    }
+
+    /**
+     * This method returns a page of the movies which match the specified filter, ordered by id,
+     * with only the specified fields.
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor (the id of the last movie from the previous page)
+     * @param size - the size of the page
+     * @param fields - the fields of the movies
+     * @return a page of movies with only the specified fields and the cursor of the next page
+     */
+    public MoviePageDto<MovieProjectionDto> page(MovieFilterDto filter, long after, int size, Set<String> fields) {
+        return page(filter, after, size, row -> toProjectionDto(row, fields));
+    }
+
+    private <T> MoviePageDto<T> page(MovieFilterDto filter, long after, int size, IntFunction<T> toMovie) {
+        lock.readLock().lock();
+        try {
+            int[] matches = scan(filter, after, size + 1);
+            boolean hasNext = matches.length > size;
+            int count = hasNext ? size : matches.length;
+            List<T> movies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                movies.add(toMovie.apply(matches[i]));
+            }
+            String nextCursor = hasNext ? String.valueOf(ids[matches[count - 1]]) : null;
+            return new MoviePageDto<>(movies, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method returns the first rows after the cursor which match the specified filter.
+     * It must be called with the read lock.
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor
+     * @param max - the maximum number of rows
+     * @return the matching rows in ascending order
+     */
+    private int[] scan(MovieFilterDto filter, long after, int max) {
+        int genreCode = REMOVED;
+        if (filter.getGenre() != null) {
+            Integer code = genreCodes.get(NormalizationUtils.normalize(filter.getGenre()));
+            if (code == null) {
+                return new int[0];
+            }
+            genreCode = code;
+        }
+        Predicate predicate = new Predicate(genreCode,
+                filter.getMinRate() != null ? filter.getMinRate() : Double.NEGATIVE_INFINITY,
+                filter.getMaxRate() != null ? filter.getMaxRate() : Double.POSITIVE_INFINITY,
+                filter.getMinRate() != null || filter.getMaxRate() != null,
+                filter.getReleasedFrom() != null ? (int) filter.getReleasedFrom().toEpochDay() : NO_RELEASE_DATE,
+                filter.getReleasedTo() != null ? (int) filter.getReleasedTo().toEpochDay() : Integer.MAX_VALUE,
+                filter.getReleasedFrom() != null || filter.getReleasedTo() != null);
+
+        int from = Arrays.binarySearch(ids, 0, rows, after);
+        from = from >= 0 ? from + 1 : -(from + 1);
+        if (rows - from <= parallelThreshold || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return scan(predicate, from, rows, max);
+        }
+        // a page of a common filter is found in the first rows, so only the rest of a longer scan is forked
+        int to = from + parallelThreshold;
+        int[] first = scan(predicate, from, to, max);
+        if (first.length == max) {
+            return first;
+        }
+        return concat(first, new Scan(predicate, to, rows, max).invoke(), max);
+    }
+
+    /**
+     * This method scans the specified range of rows sequentially.
+     *
+     * @param predicate - the predicate of the rows
+     * @param from - the first row (inclusive)
+     * @param to - the last row (exclusive)
+     * @param max - the maximum number of rows
+     * @return the matching rows in ascending order
+     */
+    private int[] scan(Predicate predicate, int from, int to, int max) {
+        int[] matches = new int[Math.min(max, to - from)];
+        int count = 0;
+        for (int row = from; row < to && count < matches.length; row++) {
+            if (predicate.test(row)) {
+                matches[count++] = row;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * This method returns the first rows of two ascending ranges of rows.
+     *
+     * @param first - the rows of the first range
+     * @param second - the rows of the second range
+     * @param max - the maximum number of rows
+     * @return at most max rows in ascending order
+     */
+    private static int[] concat(int[] first, int[] second, int max) {
+        if (first.length >= max || second.length == 0) {
+            return first;
+        }
+        int[] rows = Arrays.copyOf(first, Math.min(max, first.length + second.length));
+        System.arraycopy(second, 0, rows, first.length, rows.length - first.length);
+        return rows;
+    }
+
+    /**
+     * This method returns the row of a new movie with the specified id.
+     * The movies are mostly inserted with growing ids, so the new row is usually the last one.
+     *
+     * @param id - the id of the new movie
+     * @return the row of the movie
+     */
+    private int open(long id) {
+        if (rows == ids.length) {
+            if (removed > rows / 4) {
+                compact();
+            } else {
+                grow();
+            }
+        }
+        int row = -(Arrays.binarySearch(ids, 0, rows, id) + 1);
+        if (row < rows) {
+            shift(row);
+        }
+        ids[row] = id;
+        rows++;
+        return row;
+    }
+
+    /**
+     * This method moves the rows from the specified one to the end one row down.
+     *
+     * @param row - the first moved row
+     */
+    private void shift(int row) {
+        int length = rows - row;
+        System.arraycopy(ids, row, ids, row + 1, length);
+        System.arraycopy(rates, row, rates, row + 1, length);
+        System.arraycopy(genreColumn, row, genreColumn, row + 1, length);
+        System.arraycopy(releaseDays, row, releaseDays, row + 1, length);
+        System.arraycopy(titles, row, titles, row + 1, length);
+        System.arraycopy(writers, row, writers, row + 1, length);
+        System.arraycopy(genres, row, genres, row + 1, length);
+        System.arraycopy(runtimes, row, runtimes, row + 1, length);
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        rates = Arrays.copyOf(rates, capacity);
+        genreColumn = Arrays.copyOf(genreColumn, capacity);
+        releaseDays = Arrays.copyOf(releaseDays, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        writers = Arrays.copyOf(writers, capacity);
+        genres = Arrays.copyOf(genres, capacity);
+        runtimes = Arrays.copyOf(runtimes, capacity);
+    }
+
+    /**
+     * This method drops the removed rows.
+     */
+    private void compact() {
+        int live = 0;
+        for (int row = 0; row < rows; row++) {
+            if (genreColumn[row] == REMOVED) {
+                continue;
+            }
+            ids[live] = ids[row];
+            rates[live] = rates[row];
+            genreColumn[live] = genreColumn[row];
+            releaseDays[live] = releaseDays[row];
+            titles[live] = titles[row];
+            writers[live] = writers[row];
+            genres[live] = genres[row];
+            runtimes[live] = runtimes[row];
+            live++;
+        }
+        Arrays.fill(titles, live, rows, null);
+        Arrays.fill(writers, live, rows, null);
+        Arrays.fill(genres, live, rows, null);
+        Arrays.fill(runtimes, live, rows, null);
+        rows = live;
+        removed = 0;
+    }
+
+    private int codeOf(String normalizedGenre) {
+        return genreCodes.computeIfAbsent(normalizedGenre, genre -> genreCodes.size());
+    }
+
+    private String pooled(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    private MovieDto toDto(int row) {
+        MovieDto dto = new MovieDto();
+        dto.setTitle(titles[row]);
+        dto.setWriter(writers[row]);
+        dto.setGenre(genres[row]);
+        dto.setRuntime(runtimes[row]);
+        dto.setReleaseDate(releaseDateOf(row));
+        if (!Double.isNaN(rates[row])) {
+            dto.setRate(rates[row]);
+        }
+        return dto;
+    }
+
+    private MovieProjectionDto toProjectionDto(int row, Set<String> fields) {
+        MovieProjectionDto dto = new MovieProjectionDto();
+        dto.setId(ids[row]);
+        if (fields.contains("title")) {
+            dto.setTitle(titles[row]);
+        }
+        if (fields.contains("writer")) {
+            dto.setWriter(writers[row]);
+        }
+        if (fields.contains("genre")) {
+            dto.setGenre(genres[row]);
+        }
+        if (fields.contains("runtime")) {
+            dto.setRuntime(runtimes[row]);
+        }
+        if (fields.contains("releaseDate")) {
+            dto.setReleaseDate(releaseDateOf(row));
+        }
+        if (fields.contains("rate") && !Double.isNaN(rates[row])) {
+            dto.setRate(rates[row]);
+        }
+        return dto;
+    }
+
+    private LocalDate releaseDateOf(int row) {
+        return releaseDays[row] != NO_RELEASE_DATE ? LocalDate.ofEpochDay(releaseDays[row]) : null;
+    }
+
+    /**
+     * The predicate of a filter on the primitive columns.
+     * The genre code is {@link #REMOVED} if the filter has no genre and the removed rows never match.
+     */
+    private final class Predicate {
+
+        private final int genreCode;
+
+        private final double minRate;
+
+        private final double maxRate;
+
+        // a movie without rate matches only the filters without rate bounds
+        private final boolean rateBounded;
+
+        private final int fromDay;
+
+        private final int toDay;
+
+        // a movie without release date matches only the filters without release date bounds,
+        // like the range query of the database, even if only the upper bound is set
+        private final boolean dateBounded;
+
+        private Predicate(int genreCode, double minRate, double maxRate, boolean rateBounded,
+                          int fromDay, int toDay, boolean dateBounded) {
+            this.genreCode = genreCode;
+            this.minRate = minRate;
+            this.maxRate = maxRate;
+            this.rateBounded = rateBounded;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.dateBounded = dateBounded;
+        }
+
+        private boolean test(int row) {
+            int code = genreColumn[row];
+            if (code == REMOVED || (genreCode != REMOVED && code != genreCode)) {
+                return false;
+            }
+            double rate = rates[row];
+            if (rateBounded && !(rate >= minRate && rate <= maxRate)) {
+                return false;
+            }
+            int day = releaseDays[row];
+            if (dateBounded && day == NO_RELEASE_DATE) {
+                return false;
+            }
+            return day >= fromDay && day <= toDay;
+        }
+    }
+
+    /**
+     * The parallel scan of a range of rows. The range is split in halves until it is shorter than
+     * 'parallelThreshold' rows and every part returns its first 'max' matches, so the first 'max' matches
+     * of the range are the matches of the left half followed by the matches of the right half.
+     * The tasks read the arrays while the thread which invoked the scan holds the read lock.
+     */
+    private final class Scan extends RecursiveTask<int[]> {
+
+        private final Predicate predicate;
+
+        private final int from;
+
+        private final int to;
+
+        private final int max;
+
+        private Scan(Predicate predicate, int from, int to, int max) {
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+            this.max = max;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= parallelThreshold) {
+                return scan(predicate, from, to, max);
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = new Scan(predicate, from, middle, max);
+            left.fork();
+            int[] right = new Scan(predicate, middle, to, max).compute();
+            return concat(left.join(), right, max);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.scalefocus.springtraining.moviecatalog.service.snapshot;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * The movie snapshot class.
+ * If 'movies.snapshot.enabled' is true, this class keeps the whole catalog in memory as {@link MovieColumns},
+ * so the lists by genre, by rate and by rate and release date ranges are served without a database call.
+ * The snapshot is loaded by streaming the movies collection at startup and it is rebuilt the same way
+ * every 'movies.snapshot.refresh-interval', so it sees the writes of the other nodes.
+ * Between the rebuilds it is updated on every local write, and the local writes made while a rebuild
+ * streams the collection are applied to the new snapshot too, so they are never lost.
+ * Until the first load is done the lists are read from the database.
+ * The snapshot has a version, which is changed by every change of its content, so the ETag of a list
+ * can be computed (and matched) before the list is scanned.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+public class MovieSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MovieSnapshot.class);
+
+    private final MongoOperations mongoOperations;
+
+    private final boolean enabled;
+
+    private final int parallelThreshold;
+
+    private volatile MovieColumns columns;
+
+    // it is random after every rebuild, so the versions of different nodes (or restarts) do not repeat,
+    // and it is incremented after every local write; written under this
+    private volatile long version;
+
+    // the local writes made during a rebuild, null if there is no rebuild; guarded by this
+    private List<Consumer<MovieColumns>> pendingWrites;
+
+    public MovieSnapshot(MongoOperations mongoOperations,
+                         @Value("${movies.snapshot.enabled}") boolean enabled,
+                         @Value("${movies.snapshot.parallel-threshold}") int parallelThreshold) {
+        this.mongoOperations = mongoOperations;
+        this.enabled = enabled;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * This method checks if the lists can be served from the snapshot.
+     *
+     * @return true if the snapshot is enabled and loaded
+     */
+    public boolean isLoaded() {
+        return columns != null;
+    }
+
+    /**
+     * This method returns the version of the snapshot. It is changed only after the content is changed,
+     * so a page scanned after the version is read is never older than the version.
+     *
+     * @return the version of the snapshot
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * This method returns a page of the movies which match the specified filter, ordered by id.
+     * It must be called only if the snapshot is loaded.
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor (the id of the last movie from the previous page)
+     * @param size - the size of the page
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @return a page of moviesDto (or of movies with only the selected fields) and the cursor of the next page
+     */
+    public MoviePageDto<?> page(MovieFilterDto filter, long after, int size, String fields) {
+        if (fields != null) {
+            return columns.page(filter, after, size, new HashSet<>(Arrays.asList(fields.split(","))));
+        }
+        return columns.page(filter, after, size);
+    }
+
+    /**
+     * This method updates the snapshot after the specified movie is inserted or updated.
+     *
+     * @param movie - the saved movie
+     */
+    public void onSaved(Movie movie) {
+        apply(columns -> columns.put(movie));
+    }
+
+    /**
+     * This method removes the movie with the specified id from the snapshot.
+     *
+     * @param id - the id of the deleted movie
+     */
+    public void onDeleted(Long id) {
+        apply(columns -> columns.remove(id));
+    }
+
+    /**
+     * This method rebuilds the snapshot from the movies collection.
+     * It runs at startup and after that every 'movies.snapshot.refresh-interval'.
+     * The movies are streamed in the order of their ids, so every movie is appended to the columns.
+     * If the collection can not be read, the current snapshot is kept.
+     */
+    @Scheduled(fixedDelayString = "${movies.snapshot.refresh-interval}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            pendingWrites = new ArrayList<>();
+        }
+        try {
+            MovieColumns rebuilt = new MovieColumns(parallelThreshold);
+            Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id"));
+            query.fields().include("title").include("writer").include("genre").include("runtime")
+                    .include("releaseDate").include("rate");
+            try (CloseableIterator<Movie> movies = mongoOperations.stream(query, Movie.class)) {
+                movies.forEachRemaining(rebuilt::put);
+            }
+            synchronized (this) {
+                pendingWrites.forEach(write -> write.accept(rebuilt));
+                columns = rebuilt;
+                version = ThreadLocalRandom.current().nextLong();
+            }
+            LOGGER.info("The snapshot of {} movies is loaded", rebuilt.size());
+        } catch (DataAccessException ex) {
+            LOGGER.warn("The movies can not be loaded, the current snapshot is kept", ex);
+        } finally {
+            synchronized (this) {
+                pendingWrites = null;
+            }
+        }
+    }
+
+    private void apply(Consumer<MovieColumns> write) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (columns != null) {
+                write.accept(columns);
+                version++;
+            }
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        }
+    }
+}
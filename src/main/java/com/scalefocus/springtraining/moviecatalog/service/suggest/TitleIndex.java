@@ -0,0 +1,221 @@
+package com.scalefocus.springtraining.moviecatalog.service.suggest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The title index class.
+ * It keeps the normalized titles of the movies in a sorted map and answers
+ * "which titles start with this prefix, with at most k typos".
+ * The sorted map is used as an implicit trie - the titles with the same prefix are a contiguous range
+ * of the map, so a trie node is just a prefix and its children are found with {@link ConcurrentSkipListMap#higherKey}
+ * and {@link ConcurrentSkipListMap#ceilingKey}. This way there are no node objects - the index holds only
+ * the titles, one map entry per distinct title.
+ * A lookup walks the nodes with a row of the Levenshtein distances between the prefix and the node
+ * and skips the nodes whose titles cannot be within k edits, so it visits only a small part of the titles.
+ * The reads are lock free; the writes are synchronized, because a title is shared by many movies.
+ *
+ * @author Kristiyan SLavov
+ */
+public class TitleIndex {
+
+    private final ConcurrentSkipListMap<String, Title> titles = new ConcurrentSkipListMap<>();
+
+    // the normalized title of every movie, so a movie can be moved or removed by its id
+    private final Map<Long, String> titlesById = new HashMap<>();
+
+    /**
+     * This method adds the movie with the specified id or changes its title.
+     *
+     * @param id - the id of the movie
+     * @param title - the title of the movie
+     * @param normalizedTitle - the normalized title of the movie
+     */
+    public synchronized void put(long id, String title, String normalizedTitle) {
+        String previous = titlesById.put(id, normalizedTitle);
+        if (normalizedTitle.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            release(previous);
+        }
+        Title entry = titles.get(normalizedTitle);
+        if (entry != null) {
+            entry.movies++;
+            // the movies of the same title share the string of the map key instead of holding a copy
+            titlesById.put(id, titles.ceilingKey(normalizedTitle));
+        } else {
+            titles.put(normalizedTitle, new Title(title));
+        }
+    }
+
+    /**
+     * This method removes the movie with the specified id.
+     *
+     * @param id - the id of the movie
+     */
+    public synchronized void remove(long id) {
+        String previous = titlesById.remove(id);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    /**
+     * This method returns the number of the distinct titles.
+     *
+     * @return the number of the titles
+     */
+    public int size() {
+        return titles.size();
+    }
+
+    /**
+     * This method returns the titles which start with the specified prefix,
+     * or with a string which is at most maxEdits insertions, deletions, substitutions or transpositions away from it.
+     * The titles with fewer edits are first, the titles with the same edits are in alphabetical order.
+     *
+     * @param prefix - the normalized prefix
+     * @param maxEdits - the maximum edit distance
+     * @param n - the maximum number of titles
+     * @return the original (not normalized) titles
+     */
+    public List<String> suggest(String prefix, int maxEdits, int n) {
+        List<List<String>> matchesByEdits = new ArrayList<>(maxEdits + 1);
+        for (int edits = 0; edits <= maxEdits; edits++) {
+            matchesByEdits.add(new ArrayList<>());
+        }
+        if (maxEdits == 0) {
+            // without typos the matching titles are just the range of the prefix
+            matchesByEdits.get(0).add(prefix);
+        } else {
+            int[] row = new int[prefix.length() + 1];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = i;
+            }
+            visit("", null, row, row[prefix.length()], prefix, maxEdits, matchesByEdits);
+        }
+
+        // a title may be a match of more than one node, it is added with its fewest edits
+        Set<String> suggestions = new LinkedHashSet<>();
+        for (List<String> matches : matchesByEdits) {
+            for (String node : matches) {
+                for (Map.Entry<String, Title> entry : titles.tailMap(node, true).entrySet()) {
+                    if (suggestions.size() >= n || !entry.getKey().startsWith(node)) {
+                        break;
+                    }
+                    suggestions.add(entry.getValue().title);
+                }
+                if (suggestions.size() >= n) {
+                    return new ArrayList<>(suggestions);
+                }
+            }
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * This method visits a node of the implicit trie.
+     *
+     * @param node - the prefix of the titles of the node
+     * @param parentRow - the row of the parent node or null for the root
+     * @param row - the edit distances between the prefixes of the searched prefix and the node
+     * @param best - the fewest edits of the searched prefix on the path to the node
+     * @param prefix - the searched prefix
+     * @param maxEdits - the maximum edit distance
+     * @param matchesByEdits - the matching nodes by their edits
+     */
+    private void visit(String node, int[] parentRow, int[] row, int best, String prefix, int maxEdits,
+                       List<List<String>> matchesByEdits) {
+        int min = min(row);
+        // the longer titles cannot have fewer edits, so the whole range matches with the best edits so far
+        if (best <= maxEdits && min >= best) {
+            matchesByEdits.get(best).add(node);
+            return;
+        }
+        if (min > maxEdits) {
+            return;
+        }
+        if (best <= maxEdits && titles.containsKey(node)) {
+            matchesByEdits.get(best).add(node);
+        }
+        String child = titles.higherKey(node);
+        while (child != null && child.length() > node.length() && child.startsWith(node)) {
+            char c = child.charAt(node.length());
+            int[] childRow = next(node, parentRow, row, prefix, c);
+            int childBest = Math.min(best, childRow[prefix.length()]);
+            // the child is visited only if some of its titles may match, so most children cost one map lookup
+            if (childBest <= maxEdits || min(childRow) <= maxEdits) {
+                visit(node + c, row, childRow, childBest, prefix, maxEdits, matchesByEdits);
+            }
+            if (c == Character.MAX_VALUE) {
+                return;
+            }
+            child = titles.ceilingKey(node + (char) (c + 1));
+        }
+    }
+
+    /**
+     * This method returns the row of the edit distances of a child node.
+     * Two swapped adjacent characters are a single edit (a transposition), because it is the most common typo.
+     *
+     * @param node - the parent node
+     * @param parentRow - the row of the parent of the parent node or null
+     * @param row - the row of the parent node
+     * @param prefix - the searched prefix
+     * @param c - the last character of the child node
+     * @return the row of the child node
+     */
+    private static int[] next(String node, int[] parentRow, int[] row, String prefix, char c) {
+        int[] next = new int[row.length];
+        next[0] = row[0] + 1;
+        for (int i = 1; i < row.length; i++) {
+            int substitution = row[i - 1] + (prefix.charAt(i - 1) == c ? 0 : 1);
+            next[i] = Math.min(substitution, Math.min(row[i], next[i - 1]) + 1);
+            if (parentRow != null && i > 1 && prefix.charAt(i - 1) == node.charAt(node.length() - 1)
+                    && prefix.charAt(i - 2) == c) {
+                next[i] = Math.min(next[i], parentRow[i - 2] + 1);
+            }
+        }
+        return next;
+    }
+
+    private static int min(int[] row) {
+        int min = row[0];
+        for (int distance : row) {
+            min = Math.min(min, distance);
+        }
+        return min;
+    }
+
+    /**
+     * This method releases a movie of the specified title and removes the title when it has no movies.
+     *
+     * @param normalizedTitle - the normalized title
+     */
+    private void release(String normalizedTitle) {
+        Title entry = titles.get(normalizedTitle);
+        if (entry != null && --entry.movies == 0) {
+            titles.remove(normalizedTitle);
+        }
+    }
+
+    /**
+     * A distinct title - the original title of its first movie and the number of its movies.
+     */
+    private static final class Title {
+
+        private final String title;
+
+        private int movies = 1;
+
+        private Title(String title) {
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.scalefocus.springtraining.moviecatalog.service.suggest;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The title suggester class.
+ * This class serves the title autocomplete from the in-memory {@link TitleIndex},
+ * so the requests sent on every keystroke never reach the database.
+ * The index is loaded from the movies collection at startup or on the first request, it is updated
+ * incrementally on every local write and it is rebuilt every 'movies.suggest.refresh-interval',
+ * so it sees the writes of the other nodes. Like in the
+ * {@link com.scalefocus.springtraining.moviecatalog.service.snapshot.MovieSnapshot}, the local writes made
+ * while a load streams the collection are applied to the new index too, so a deleted title never comes back.
+ * The typos allowed in a prefix depend on its length - none for up to 2 characters,
+ * 1 for up to 5 characters and 2 (at most 'movies.suggest.max-edits') for the longer ones.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+public class TitleSuggester {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TitleSuggester.class);
+
+    private final MongoOperations mongoOperations;
+
+    private final int maxEdits;
+
+    private final int maxResults;
+
+    private final boolean warmUp;
+
+    // only one load streams the collection at a time
+    private final Object loadLock = new Object();
+
+    private volatile TitleIndex titleIndex = new TitleIndex();
+
+    private volatile boolean loaded;
+
+    // the local writes made during a load, null if there is no load; guarded by this
+    private List<Consumer<TitleIndex>> pendingWrites;
+
+    public TitleSuggester(MongoOperations mongoOperations,
+                          @Value("${movies.suggest.max-edits}") int maxEdits,
+                          @Value("${movies.suggest.max-results}") int maxResults,
+                          @Value("${movies.suggest.warm-up}") boolean warmUp) {
+        this.mongoOperations = mongoOperations;
+        this.maxEdits = maxEdits;
+        this.maxResults = maxResults;
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * This method loads the index once the application is started,
+     * if the 'movies.suggest.warm-up' property is true.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUp) {
+            synchronized (loadLock) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    /**
+     * This method rebuilds the loaded index from the movies collection every 'movies.suggest.refresh-interval',
+     * so the titles written or deleted by the other nodes are seen after at most one interval.
+     * An index which is not loaded yet is left to the first request (or to the warm up).
+     * If the collection can not be read, the current index is kept.
+     */
+    @Scheduled(fixedDelayString = "${movies.suggest.refresh-interval}")
+    public void refresh() {
+        if (!loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            try {
+                load();
+            } catch (DataAccessException ex) {
+                LOGGER.warn("The titles can not be loaded, the current title index is kept", ex);
+            }
+        }
+    }
+
+    /**
+     * This method returns the titles which start with the specified prefix, allowing a few typos.
+     *
+     * @param prefix - the prefix typed by the user
+     * @param n - the number of titles, it is limited to 'movies.suggest.max-results'
+     * @return - the titles, the closest to the prefix first
+     */
+    public List<String> suggest(String prefix, int n) {
+        if (!loaded) {
+            synchronized (loadLock) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+        String normalizedPrefix = NormalizationUtils.normalize(prefix);
+        return titleIndex.suggest(normalizedPrefix, maxEditsOf(normalizedPrefix), Math.min(n, maxResults));
+    }
+
+    /**
+     * This method updates the index after the specified movie is inserted or updated.
+     *
+     * @param movie - the saved movie
+     */
+    public void onSaved(Movie movie) {
+        if (movie.getTitle() == null) {
+            return;
+        }
+        String normalizedTitle = NormalizationUtils.normalize(movie.getTitle());
+        apply(index -> index.put(movie.getId(), movie.getTitle(), normalizedTitle));
+    }
+
+    /**
+     * This method removes the movie with the specified id from the index.
+     *
+     * @param id - the id of the deleted movie
+     */
+    public void onDeleted(Long id) {
+        apply(index -> index.remove(id));
+    }
+
+    /**
+     * This method loads the titles of all movies from the database into a new index and replaces the current one.
+     * Only the ids and the titles are read, and they are streamed, so the movies are not held in memory.
+     * The local writes made during the load are buffered and applied to the new index before it is published.
+     * It must be called while holding the load lock.
+     */
+    private void load() {
+        synchronized (this) {
+            pendingWrites = new ArrayList<>();
+        }
+        try {
+            TitleIndex loadedIndex = new TitleIndex();
+            Query query = new Query();
+            query.fields().include("title");
+            try (CloseableIterator<Movie> movies = mongoOperations.stream(query, Movie.class)) {
+                movies.forEachRemaining(movie -> {
+                    if (movie.getTitle() != null) {
+                        loadedIndex.put(movie.getId(), movie.getTitle(),
+                                NormalizationUtils.normalize(movie.getTitle()));
+                    }
+                });
+            }
+            synchronized (this) {
+                pendingWrites.forEach(write -> write.accept(loadedIndex));
+                titleIndex = loadedIndex;
+            }
+            loaded = true;
+            LOGGER.info("The title index of {} titles is loaded", loadedIndex.size());
+        } finally {
+            synchronized (this) {
+                pendingWrites = null;
+            }
+        }
+    }
+
+    private synchronized void apply(Consumer<TitleIndex> write) {
+        write.accept(titleIndex);
+        if (pendingWrites != null) {
+            pendingWrites.add(write);
+        }
+    }
+
+    private int maxEditsOf(String prefix) {
+        if (prefix.length() <= 2) {
+            return 0;
+        }
+        return Math.min(prefix.length() <= 5 ? 1 : 2, maxEdits);
+    }
+}
@@ -0,0 +1,336 @@
+package com.scalefocus.springtraining.moviecatalog.service.support;
+
+import com.scalefocus.springtraining.moviecatalog.exception.MovieDuplicateKeyException;
+import com.scalefocus.springtraining.moviecatalog.exception.MovieNotFoundException;
+import com.scalefocus.springtraining.moviecatalog.exception.MoviePreconditionFailedException;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieProjectionDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import com.scalefocus.springtraining.moviecatalog.service.filter.MovieFilterCriteria;
+import com.scalefocus.springtraining.moviecatalog.service.snapshot.MovieSnapshot;
+import com.scalefocus.springtraining.moviecatalog.util.ETagUtils;
+import com.scalefocus.springtraining.moviecatalog.util.ErrorMessage;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * The movie service support class.
+ * This class holds the logic which is shared by the blocking
+ * {@link com.scalefocus.springtraining.moviecatalog.service.MovieService} and the reactive
+ * {@link com.scalefocus.springtraining.moviecatalog.service.reactive.ReactiveMovieService}:
+ * it turns the requests into queries (the cursor, the page size, the criteria and the projection)
+ * and the read movies into responses (the pages, their ETags and the conditional responses).
+ * It never calls the database, so the services only differ in how they execute the queries.
+ *
+ * @author Kristiyan SLavov
+ */
+@Component
+public class MovieServiceSupport {
+
+    private static final String ID_FIELD = "id";
+
+    private final MovieConverter movieConverter;
+
+    private final MovieSnapshot movieSnapshot;
+
+    private final int defaultPageLimit;
+
+    private final int maxPageLimit;
+
+    public MovieServiceSupport(MovieConverter movieConverter, MovieSnapshot movieSnapshot,
+                               @Value("${movies.page.default-limit}") int defaultPageLimit,
+                               @Value("${movies.page.max-limit}") int maxPageLimit) {
+        this.movieConverter = movieConverter;
+        this.movieSnapshot = movieSnapshot;
+        this.defaultPageLimit = defaultPageLimit;
+        this.maxPageLimit = maxPageLimit;
+    }
+
+    /**
+     * This method returns the cursor of a page.
+     *
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @return - the cursor, 0 for the first page
+     */
+    public long cursorOf(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    /**
+     * This method returns the size of a page.
+     *
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @return - the limit (at most the max limit) or the default limit
+     */
+    public int sizeOf(Integer limit) {
+        return limit != null ? Math.min(limit, maxPageLimit) : defaultPageLimit;
+    }
+
+    /**
+     * This method returns the first page of the specified size, ordered by id.
+     *
+     * @param size - the size of the page
+     * @return - the pageable of the page
+     */
+    public Pageable pageOf(int size) {
+        return PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, ID_FIELD));
+    }
+
+    /**
+     * This method returns the criteria of the movies after the specified cursor.
+     *
+     * @param after - the cursor or null for the first page
+     * @return - the criteria
+     */
+    public Criteria allCriteria(Long after) {
+        return where(ID_FIELD).gt(cursorOf(after));
+    }
+
+    /**
+     * This method returns the criteria of the movies of the specified genre after the specified cursor.
+     *
+     * @param genre - the genre (it is normalized here)
+     * @param after - the cursor or null for the first page
+     * @return - the criteria
+     */
+    public Criteria genreCriteria(String genre, Long after) {
+        return where("normalizedGenre").is(NormalizationUtils.normalize(genre)).and(ID_FIELD).gt(cursorOf(after));
+    }
+
+    /**
+     * This method returns the criteria of the movies with the specified rate after the specified cursor.
+     *
+     * @param rate - the rate
+     * @param after - the cursor or null for the first page
+     * @return - the criteria
+     */
+    public Criteria rateCriteria(Double rate, Long after) {
+        return where("rate").is(rate).and(ID_FIELD).gt(cursorOf(after));
+    }
+
+    /**
+     * This method returns the criteria of the movies which match the specified filter after the specified cursor
+     * (see {@link MovieFilterCriteria}).
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor or null for the first page
+     * @return - the criteria
+     */
+    public Criteria filterCriteria(MovieFilterDto filter, Long after) {
+        return MovieFilterCriteria.of(filter, cursorOf(after));
+    }
+
+    /**
+     * This method builds the query of a page of movies, ordered by id.
+     * One movie more than the page size is requested, so its presence
+     * tells whether there is a next page, without an additional count query.
+     *
+     * @param criteria - the criteria of the movies (including the cursor)
+     * @param size - the size of the page
+     * @return - the query of the page
+     */
+    public Query pageQuery(Criteria criteria, int size) {
+        return query(criteria).with(Sort.by(Sort.Direction.ASC, ID_FIELD)).limit(size + 1);
+    }
+
+    /**
+     * This method builds the query of a page of movies with only the selected fields.
+     * The id is returned by the database even if it is not selected.
+     *
+     * @param criteria - the criteria of the movies (including the cursor)
+     * @param size - the size of the page
+     * @param fields - the comma separated fields of the movies
+     * @return - the query of the page
+     */
+    public Query projectionQuery(Criteria criteria, int size, String fields) {
+        Query query = pageQuery(criteria, size);
+        for (String field : fields.split(",")) {
+            query.fields().include(field);
+        }
+        return query;
+    }
+
+    /**
+     * This method returns the query of the movie with the specified id.
+     * If the 'If-Match' header is supplied and it is not '*', the query matches
+     * the movie only if its version matches the header.
+     *
+     * @param id - the id of the movie
+     * @param ifMatch - the value of the 'If-Match' header or null
+     * @return - the query of the movie
+     */
+    public Query conditionalQuery(Long id, String ifMatch) {
+        Query query = query(where(ID_FIELD).is(id));
+        if (ifMatch != null && !ETagUtils.isAny(ifMatch)) {
+            query.addCriteria(where("version").in(ETagUtils.versionsOf(ifMatch)));
+        }
+        return query;
+    }
+
+    /**
+     * This method converts the received slice of movies to a page of moviesDto
+     * or @throws MovieNotFoundException if the slice is empty.
+     * The cursor of the next page is the id of the last movie in the slice
+     * and it is null if there are no more movies.
+     *
+     * @param slice - the slice of movies returned by the repository
+     * @return - a page of moviesDto and the cursor of the next page
+     * @throws MovieNotFoundException - if the slice is empty
+     */
+    public MoviePageDto<MovieDto> toPage(Slice<Movie> slice) throws MovieNotFoundException {
+        List<Movie> movies = slice.getContent();
+        if (movies.isEmpty()) {
+            throw notFound();
+        }
+        String nextCursor = slice.hasNext() ? String.valueOf(movies.get(movies.size() - 1).getId()) : null;
+        return new MoviePageDto<>(movieConverter.toDtoList(movies), nextCursor);
+    }
+
+    /**
+     * This method converts the movies read by {@link #pageQuery} to a page of moviesDto
+     * or @throws MovieNotFoundException if there are not found movies.
+     *
+     * @param movies - the movies, at most one more than the page size
+     * @param size - the size of the page
+     * @return - a page of moviesDto and the cursor of the next page
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    public MoviePageDto<MovieDto> toPage(List<Movie> movies, int size) throws MovieNotFoundException {
+        List<Movie> content = contentOf(movies, size);
+        String nextCursor = movies.size() > size ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+        return new MoviePageDto<>(movieConverter.toDtoList(content), nextCursor);
+    }
+
+    /**
+     * This method returns a page of the movies read by {@link #projectionQuery}
+     * or @throws MovieNotFoundException if there are not found movies.
+     *
+     * @param movies - the movies with only the selected fields, at most one more than the page size
+     * @param size - the size of the page
+     * @return - a page of movies with only the selected fields and the cursor of the next page
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    public MoviePageDto<MovieProjectionDto> toProjectionPage(List<MovieProjectionDto> movies, int size)
+            throws MovieNotFoundException {
+        List<MovieProjectionDto> content = contentOf(movies, size);
+        String nextCursor = movies.size() > size ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+        return new MoviePageDto<>(content, nextCursor);
+    }
+
+    /**
+     * This method returns a page of the movies of the {@link MovieSnapshot}, which match the specified filter,
+     * with its ETag or @throws MovieNotFoundException if there are not found movies.
+     * The ETag is derived from the version of the snapshot and the request (see {@link ETagUtils#toSnapshotETag})
+     * and it is matched before the scan, so the unchanged page is neither scanned nor serialized.
+     * The page is a scan of memory, so it is cheap enough for the event loop of the reactive mode.
+     *
+     * @param filter - the filter of the movies
+     * @param after - the cursor (the id of the last movie from the previous page) or null for the first page
+     * @param limit - the maximum number of movies in the page or null for the default one
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - a page of movies and the cursor of the next page
+     * or 304 (Not Modified) without a body if the ETag matches 'If-None-Match'
+     * @throws MovieNotFoundException - if there are not found movies
+     */
+    public ResponseEntity<MoviePageDto<?>> snapshotPageResponse(MovieFilterDto filter, Long after, Integer limit,
+                                                                String fields, String ifNoneMatch)
+            throws MovieNotFoundException {
+        long cursor = cursorOf(after);
+        int size = sizeOf(limit);
+        // the version is read before the scan, so the page is never older than its ETag
+        String eTag = ETagUtils.toSnapshotETag(movieSnapshot.version(), filter, cursor, size, fields);
+        if (ETagUtils.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        MoviePageDto<?> page = movieSnapshot.page(filter, cursor, size, fields);
+        if (page.getMovies().isEmpty()) {
+            throw notFound();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(page);
+    }
+
+    /**
+     * This method returns the specified page with its ETag or 304 (Not Modified) without a body
+     * if the ETag matches the 'If-None-Match' header, so the unchanged page is not serialized.
+     *
+     * @param page - the page of movies
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - the response
+     */
+    public <P extends MoviePageDto<?>> ResponseEntity<P> pageResponse(P page, String ifNoneMatch) {
+        return conditionalResponse(page, ETagUtils.toListETag(page.getMovies(), page.getNextCursor()), ifNoneMatch);
+    }
+
+    /**
+     * This method returns the specified list with its ETag or 304 (Not Modified) without a body
+     * if the ETag matches the 'If-None-Match' header, so the unchanged list is not serialized.
+     *
+     * @param list - the movies or the titles
+     * @param ifNoneMatch - the value of the 'If-None-Match' header or null
+     * @return - the response
+     * @throws MovieNotFoundException - if the list is empty
+     */
+    public <T> ResponseEntity<List<T>> listResponse(List<T> list, String ifNoneMatch) throws MovieNotFoundException {
+        if (list.isEmpty()) {
+            throw notFound();
+        }
+        return conditionalResponse(list, ETagUtils.toListETag(list, null), ifNoneMatch);
+    }
+
+    /**
+     * This method returns the response of a written movie - the movieDto with the version of the movie as ETag.
+     *
+     * @param status - the status of the response
+     * @param movie - the written movie
+     * @return - the response
+     */
+    public ResponseEntity<MovieDto> movieResponse(HttpStatus status, Movie movie) {
+        return ResponseEntity.status(status)
+                .eTag(ETagUtils.toETag(movie.getVersion()))
+                .body(movieConverter.toDto(movie));
+    }
+
+    public MovieNotFoundException notFound() {
+        return new MovieNotFoundException(ErrorMessage.MOVIE_NOT_FOUND.toString());
+    }
+
+    public MovieDuplicateKeyException duplicate() {
+        return new MovieDuplicateKeyException(ErrorMessage.DUPLICATE_RECORDS.toString());
+    }
+
+    public MoviePreconditionFailedException preconditionFailed() {
+        return new MoviePreconditionFailedException(ErrorMessage.PRECONDITION_FAILED.toString());
+    }
+
+    private <T> ResponseEntity<T> conditionalResponse(T body, String eTag, String ifNoneMatch) {
+        if (ETagUtils.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body);
+    }
+
+    private <T> List<T> contentOf(List<T> movies, int size) throws MovieNotFoundException {
+        if (movies.isEmpty()) {
+            throw notFound();
+        }
+        return movies.size() > size ? movies.subList(0, size) : movies;
+    }
+}
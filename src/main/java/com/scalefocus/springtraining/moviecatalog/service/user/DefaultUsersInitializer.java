@@ -0,0 +1,66 @@
+package com.scalefocus.springtraining.moviecatalog.service.user;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.UserAccount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * The default users initializer class.
+ * It creates the default users of the application (the users which were hardcoded
+ * before the users collection was introduced), if they do not exist yet.
+ * The existing users are never changed. It runs at startup only if the
+ * 'users.seed-defaults' property is true.
+ *
+ * @author Kristiyan SLavov
+ */
+@Service
+@ConditionalOnProperty(name = "users.seed-defaults", havingValue = "true")
+public class DefaultUsersInitializer implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultUsersInitializer.class);
+
+    private final MongoOperations mongoOperations;
+
+    public DefaultUsersInitializer(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    /**
+     * This method creates the default users which do not exist.
+     *
+     * @param args - the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        //BCrypted pass: 123456789
+        createIfAbsent("javainuse", "$2a$12$xVqzk8Fq6rZRfuXX106o8.hvDJMoPQYPeGzbt7ahOahvM6lOE0xlG",
+                Arrays.asList("ROLE_ADMIN", "ROLE_USER"));
+
+        //BCrypted pass: 12345678
+        createIfAbsent("testuser", "$2a$12$39OFhWEhoEjiieD8CT9tXe7XFwsk9R6taifWrRek6O18OvXMHjVeC",
+                Collections.singletonList("ROLE_USER"));
+    }
+
+    private void createIfAbsent(String username, String password, List<String> roles) {
+        boolean created = mongoOperations.upsert(query(where("_id").is(username)), new Update()
+                .setOnInsert("password", password)
+                .setOnInsert("roles", roles)
+                .setOnInsert("enabled", true), UserAccount.class).getUpsertedId() != null;
+        if (created) {
+            LOGGER.info("The default user {} is created", username);
+        }
+    }
+}
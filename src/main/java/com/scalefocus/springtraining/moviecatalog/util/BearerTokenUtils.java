@@ -0,0 +1,39 @@
+package com.scalefocus.springtraining.moviecatalog.util;
+
+/**
+ * This class is responsible for extracting the JWT
+ * from the value of the Authorization header.
+ *
+ * @author Kristiyan SLavov
+ */
+public final class BearerTokenUtils {
+
+    private BearerTokenUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * This method returns the token of a header in the form "Bearer token".
+     * The token type is case-insensitive. The header is scanned once,
+     * without splitting it and without converting it to lower case.
+     *
+     * @param header - the value of the Authorization header
+     * @return the token or null if the header is null or it does not contain a bearer token
+     */
+    public static String resolveToken(String header) {
+        if (header == null) {
+            return null;
+        }
+        int start = 0;
+        while (start < header.length() && Character.isWhitespace(header.charAt(start))) {
+            start++;
+        }
+        int typeEnd = start + GeneralConstant.BEARER_TOKEN_TYPE.length();
+        if (!header.regionMatches(true, start, GeneralConstant.BEARER_TOKEN_TYPE, 0, GeneralConstant.BEARER_TOKEN_TYPE.length())
+                || typeEnd >= header.length() || header.charAt(typeEnd) != ' ') {
+            return null;
+        }
+        String token = header.substring(typeEnd + 1).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
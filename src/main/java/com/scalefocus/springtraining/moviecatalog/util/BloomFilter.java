@@ -0,0 +1,101 @@
+package com.scalefocus.springtraining.moviecatalog.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a Bloom filter of strings - a set which may answer
+ * "maybe contains" for a string which was never added (with the configured probability),
+ * but never answers "does not contain" for a string which was added.
+ * The strings are hashed char by char without allocations and the bits are set atomically,
+ * so the filter can be read and updated by many threads at the same time.
+ *
+ * @author Kristiyan SLavov
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    /**
+     * This constructor creates an empty filter, sized for the specified number of strings
+     * and false positive probability.
+     *
+     * @param expectedInsertions - the expected number of strings
+     * @param falsePositiveProbability - the probability of "maybe contains" for a string which was not added
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (m + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * This method adds the specified string to the filter.
+     *
+     * @param value - the string to be added
+     */
+    public void put(String value) {
+        long hash1 = hash(value, FNV_OFFSET_BASIS);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = bits.get(index);
+            } while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    /**
+     * This method checks if the specified string may have been added to the filter.
+     *
+     * @param value - the string to be checked
+     * @return false if the string was never added or true if it may have been added.
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value, FNV_OFFSET_BASIS);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the chars of the string.
+     */
+    private static long hash(String value, long seed) {
+        long hash = seed;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The finalizer of MurmurHash3 - it spreads the bits of the hash.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
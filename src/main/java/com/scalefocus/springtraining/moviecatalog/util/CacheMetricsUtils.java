@@ -0,0 +1,35 @@
+package com.scalefocus.springtraining.moviecatalog.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * This class is responsible for registering the metrics of the Caffeine caches
+ * which are not managed by the cache manager (the caches of the JWT and the user services).
+ * Prometheus requires the same tags for all meters with the same name, so these caches
+ * get the same tags as the caches of the cache manager, which Spring Boot registers itself.
+ *
+ * @author Kristiyan SLavov
+ */
+public final class CacheMetricsUtils {
+
+    private static final String CACHE_MANAGER = "none";
+
+    private CacheMetricsUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * This method registers the size, hits, misses and evictions of the specified cache.
+     * The cache has to record its statistics.
+     *
+     * @param meterRegistry - the registry of the metrics
+     * @param cache - the cache to be monitored
+     * @param cacheName - the name of the cache in the metrics
+     */
+    public static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String cacheName) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName,
+                "cacheManager", CACHE_MANAGER, "name", cacheName);
+    }
+}
@@ -0,0 +1,222 @@
+package com.scalefocus.springtraining.moviecatalog.util;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieProjectionDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is responsible for the entity tags (ETags) of the movies
+ * and for matching them against the 'If-None-Match' and 'If-Match' headers.
+ * The ETag of a movie is its version in quotes, e.g. "3". Every format of the movie is a different representation,
+ * so the Smile and the CBOR bodies have their own strong ETags - the version with the subtype of the format,
+ * e.g. "3-cbor", and the responses vary by the 'Accept' header.
+ * The ETag of a list is a weak hash of its content, e.g. W/"5f0c2a9e1b7d4c33", so it is changed by every
+ * write which changes the list, no matter which node or tool has made it.
+ * The ETag of a list served from the in-memory snapshot is a weak hash of the version of the snapshot
+ * and of the request instead, so it is known before the list is scanned.
+ *
+ * @author Kristiyan SLavov
+ */
+public final class ETagUtils {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETagUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * This method returns the ETag of a movie with the specified version.
+     *
+     * @param version - the version of the movie, null for the movies saved before the version was added
+     * @return the strong ETag of the movie
+     */
+    public static String toETag(Long version) {
+        return "\"" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * This method returns the ETag of a movie with the specified version in the specified format.
+     *
+     * @param version - the version of the movie, null for the movies saved before the version was added
+     * @param format - the media type of the body
+     * @return the strong ETag of the movie, which is the JSON one if the format is JSON
+     */
+    public static String toETag(Long version, MediaType format) {
+        if (MediaType.APPLICATION_JSON.equals(format)) {
+            return toETag(version);
+        }
+        return "\"" + (version != null ? version : 0L) + "-" + format.getSubtype() + "\"";
+    }
+
+    /**
+     * This method replaces the ETag of a movie response (which is the JSON one) with the ETag of the specified format.
+     *
+     * @param response - the response with the ETag of the movie or without an ETag
+     * @param format - the media type of the body
+     * @return the response with the ETag of the format
+     */
+    public static <T> ResponseEntity<T> withFormat(ResponseEntity<T> response, MediaType format) {
+        String eTag = response.getHeaders().getETag();
+        if (eTag == null || MediaType.APPLICATION_JSON.equals(format)) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.setETag(toETag(Long.valueOf(eTag.substring(1, eTag.length() - 1)), format));
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    /**
+     * This method returns the ETag of a list of movies (or of titles) with the specified cursor of the next page.
+     * It is a 64-bit hash of the fields which are sent to the client, computed without serializing them,
+     * so two lists have the same ETag only if they have the same content.
+     * The ETag is weak, because the same list is sent as JSON, Smile or CBOR.
+     *
+     * @param movies - the moviesDto, the movies with only the selected fields or the titles
+     * @param nextCursor - the cursor of the next page or null
+     * @return the weak ETag of the list
+     */
+    public static String toListETag(List<?> movies, String nextCursor) {
+        long hash = FNV_OFFSET_BASIS;
+        for (Object movie : movies) {
+            if (movie instanceof MovieProjectionDto) {
+                MovieProjectionDto projection = (MovieProjectionDto) movie;
+                hash = hash(hash, projection.getId(), projection.getTitle(), projection.getWriter(),
+                        projection.getGenre(), projection.getRuntime(), projection.getReleaseDate(), projection.getRate());
+            } else if (movie instanceof MovieDto) {
+                MovieDto movieDto = (MovieDto) movie;
+                hash = hash(hash, movieDto.getTitle(), movieDto.getWriter(), movieDto.getGenre(),
+                        movieDto.getRuntime(), movieDto.getReleaseDate(), movieDto.getRate());
+            } else {
+                hash = hash(hash, movie);
+            }
+        }
+        hash = hash(hash, nextCursor);
+        return WEAK_PREFIX + "\"" + Long.toHexString(mix(hash)) + "\"";
+    }
+
+    /**
+     * This method returns the ETag of a page of the in-memory snapshot with the specified version.
+     * Every change of the snapshot changes its version, so the ETag is changed by every change of the page.
+     *
+     * @param version - the version of the snapshot
+     * @param filter - the filter of the movies
+     * @param after - the cursor of the page
+     * @param size - the size of the page
+     * @param fields - the comma separated fields of the movies or null for all fields
+     * @return the weak ETag of the page
+     */
+    public static String toSnapshotETag(long version, MovieFilterDto filter, long after, int size, String fields) {
+        long hash = hash(FNV_OFFSET_BASIS, version, filter.getGenre(), filter.getMinRate(), filter.getMaxRate(),
+                filter.getReleasedFrom(), filter.getReleasedTo(), after, size, fields);
+        return WEAK_PREFIX + "\"" + Long.toHexString(mix(hash)) + "\"";
+    }
+
+    /**
+     * This method checks if the value of an 'If-None-Match' header matches the specified ETag.
+     * The comparison is weak - the 'W/' prefix of the tags is ignored.
+     *
+     * @param ifNoneMatch - the value of the header or null if there is not such header
+     * @param eTag - the current ETag
+     * @return true if the header is '*' or it contains the ETag
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = eTag.startsWith(WEAK_PREFIX) ? eTag.substring(WEAK_PREFIX.length()) : eTag;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(ANY) || tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method checks if the value of an 'If-Match' header matches any version of the movie.
+     *
+     * @param ifMatch - the value of the header
+     * @return true if the header is '*'
+     */
+    public static boolean isAny(String ifMatch) {
+        return ANY.equals(ifMatch.trim());
+    }
+
+    /**
+     * This method returns the versions of the movie which match the value of an 'If-Match' header.
+     * The comparison is strong, so the weak tags and the tags which are not versions never match.
+     * The ETag of any format of a version matches, because all of them are representations of the same movie.
+     * The movies saved before the version was added have no version and their ETag is "0",
+     * so if "0" matches, null (which matches a missing field) matches too.
+     *
+     * @param ifMatch - the value of the header
+     * @return the matching versions, it is empty if no version matches
+     */
+    public static List<Long> versionsOf(String ifMatch) {
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+                continue;
+            }
+            try {
+                String value = tag.substring(1, tag.length() - 1);
+                int format = value.indexOf('-');
+                long version = Long.parseLong(format > 0 ? value.substring(0, format) : value);
+                versions.add(version);
+                if (version == 0L) {
+                    versions.add(null);
+                }
+            } catch (NumberFormatException ex) {
+                // the tag is not a version of a movie, so it does not match
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * FNV-1a of the specified values. Every value is preceded by its length (-1 for null),
+     * so the boundaries of the values are a part of the hash.
+     */
+    private static long hash(long hash, Object... values) {
+        for (Object value : values) {
+            String string = value != null ? value.toString() : null;
+            int length = string != null ? string.length() : -1;
+            hash = (hash ^ length) * FNV_PRIME;
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ string.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * The finalizer of MurmurHash3 - it spreads the bits of the hash.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -9,11 +9,16 @@ package com.scalefocus.springtraining.moviecatalog.util;
  */
 public enum ErrorMessage {
     BAD_TOKEN("Bad Token"),
+    REVOKED_TOKEN("Revoked Token"),
     USER_DISABLED("User Disabled"),
     INVALID_CREDENTIALS("Invalid Credentials"),
     USER_NOT_FOUND("User is not found"),
     MOVIE_NOT_FOUND("Movie is not found"),
-    DUPLICATE_RECORDS("Duplicate records");
+    DUPLICATE_RECORDS("Duplicate records"),
+    PRECONDITION_FAILED("The movie is changed or deleted by another request"),
+    INVALID_BULK_OPERATION("The operation does not contain the required id or movie"),
+    CONCURRENT_BULK_DELETE("The movie is deleted, but some of the deleted movies were deleted by another request"),
+    AUTHENTICATION_OVERLOADED("Too many authentication requests, please try again later");
 
     private String errorMsg;
 
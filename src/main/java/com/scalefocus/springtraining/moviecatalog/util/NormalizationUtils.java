@@ -0,0 +1,44 @@
+package com.scalefocus.springtraining.moviecatalog.util;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+
+import java.util.Locale;
+
+/**
+ * This class is responsible for normalizing the values
+ * which are searched case-insensitively.
+ * The normalized values are stored next to the original ones,
+ * so they can be matched exactly (and with an index) instead of
+ * with a case-insensitive regular expression.
+ *
+ * @author Kristiyan SLavov
+ */
+public final class NormalizationUtils {
+
+    private NormalizationUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * This method normalizes the specified value - it removes the leading
+     * and trailing whitespaces and converts it to lower case.
+     *
+     * @param value - the value to be normalized
+     * @return the normalized value or null if the value is null
+     */
+    public static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * This method sets the normalized title, writer and genre of the specified movie.
+     * It is used by every write which does not go through the mongo event listeners.
+     *
+     * @param movie - the movie to be normalized
+     */
+    public static void normalizeFields(Movie movie) {
+        movie.setNormalizedTitle(normalize(movie.getTitle()));
+        movie.setNormalizedWriter(normalize(movie.getWriter()));
+        movie.setNormalizedGenre(normalize(movie.getGenre()));
+    }
+}
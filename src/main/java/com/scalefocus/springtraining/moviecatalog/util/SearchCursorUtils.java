@@ -0,0 +1,54 @@
+package com.scalefocus.springtraining.moviecatalog.util;
+
+/**
+ * This class is responsible for the cursors of the search pages.
+ * The search results are ordered by relevance (the text score, the highest first) and then by id,
+ * so the cursor is the pair of the score and the id of the last movie of the page, e.g. "1.25_42".
+ * The score is written with {@link Double#toString(double)}, so it is read back exactly.
+ *
+ * @author Kristiyan SLavov
+ */
+public final class SearchCursorUtils {
+
+    /**
+     * The pattern of the 'after' parameter of the search endpoint.
+     */
+    public static final String PATTERN = "^\\d+\\.\\d+(E-?\\d+)?_\\d+$";
+
+    private static final char SEPARATOR = '_';
+
+    private SearchCursorUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * This method returns the cursor of the page after the specified movie.
+     *
+     * @param score - the text score of the last movie of the page
+     * @param id - the id of the last movie of the page
+     * @return the cursor of the next page
+     */
+    public static String toCursor(double score, long id) {
+        return Double.toString(score) + SEPARATOR + id;
+    }
+
+    /**
+     * This method returns the score of a cursor which matches {@link #PATTERN}.
+     *
+     * @param cursor - the cursor
+     * @return the text score of the last movie of the previous page
+     */
+    public static double scoreOf(String cursor) {
+        return Double.parseDouble(cursor.substring(0, cursor.indexOf(SEPARATOR)));
+    }
+
+    /**
+     * This method returns the id of a cursor which matches {@link #PATTERN}.
+     *
+     * @param cursor - the cursor
+     * @return the id of the last movie of the previous page
+     */
+    public static long idOf(String cursor) {
+        return Long.parseLong(cursor.substring(cursor.indexOf(SEPARATOR) + 1));
+    }
+}
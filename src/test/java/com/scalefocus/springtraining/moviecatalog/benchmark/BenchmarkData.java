@@ -0,0 +1,35 @@
+package com.scalefocus.springtraining.moviecatalog.benchmark;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The data shared by the benchmarks - movies which look like the movies in the catalog.
+ */
+final class BenchmarkData {
+
+	private static final String[] GENRES = {"Action", "Animation", "Comedy", "Drama", "Sci-Fi", "Thriller"};
+
+	private BenchmarkData() {
+		throw new AssertionError();
+	}
+
+	static List<Movie> movies(int size) {
+		List<Movie> movies = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Movie movie = new Movie();
+			movie.setId((long) i + 1);
+			movie.setTitle("The Matrix " + i);
+			movie.setWriter("Lilly Wachowski");
+			movie.setGenre(GENRES[i % GENRES.length]);
+			movie.setRuntime("136 min");
+			movie.setReleaseDate(LocalDate.of(1999, 3, 31).plusDays(i));
+			movie.setRate((i % 100) / 10.0);
+			movies.add(movie);
+		}
+		return movies;
+	}
+}
@@ -0,0 +1,195 @@
+package com.scalefocus.springtraining.moviecatalog.benchmark;
+
+import com.scalefocus.springtraining.moviecatalog.config.jwt.JwtRequestFilter;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtTokenService;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the cost of {@link JwtRequestFilter} for a single authenticated request:
+ * <ul>
+ * <li>legacyFilter - the former filter, which parsed the token three times, split the header twice
+ * and loaded the user (here from memory, in the application from the database)</li>
+ * <li>filterCacheMiss - the current filter, when the token is not in the cache (one parse)</li>
+ * <li>filterCacheHit - the current filter, when the token is already verified (no parse)</li>
+ * </ul>
+ * Run it with the main method (or with the 'jmh' Maven profile).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+	private static final String SECRET = "javainuse";
+
+	private static final int TOKENS = 1024;
+
+	private static final UserDetails USER = User.withUsername("javainuse")
+			.password("password")
+			.authorities(AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"))
+			.build();
+
+	private final UserDetailsService userDetailsService = username -> USER;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private OncePerRequestFilter legacyFilter;
+
+	private JwtRequestFilter uncachedFilter;
+
+	private JwtRequestFilter cachedFilter;
+
+	private MockHttpServletRequest request;
+
+	private MockHttpServletRequest[] distinctRequests;
+
+	private int next;
+
+	private MockHttpServletResponse response;
+
+	@Setup
+	public void setUp() {
+		JwtTokenService cachedTokenService = new JwtTokenService(SECRET, 10_000,
+				Duration.ofHours(1), Duration.ofDays(14), Duration.ZERO, meterRegistry);
+		// a cache with no room for any token - every request parses the token
+		JwtTokenService uncachedTokenService = new JwtTokenService(SECRET, 0,
+				Duration.ofHours(1), Duration.ofDays(14), Duration.ZERO, meterRegistry);
+
+		legacyFilter = new LegacyJwtRequestFilter(userDetailsService);
+		// nothing is revoked, so every request stops at the Bloom filter and the database is never used
+		uncachedFilter = new JwtRequestFilter(uncachedTokenService, revocationService(uncachedTokenService), meterRegistry);
+		cachedFilter = new JwtRequestFilter(cachedTokenService, revocationService(cachedTokenService), meterRegistry);
+
+		request = requestWith(cachedTokenService.generateToken(USER));
+		// the cache misses are measured with many distinct tokens, so none of them stays in the cache
+		distinctRequests = new MockHttpServletRequest[TOKENS];
+		for (int i = 0; i < TOKENS; i++) {
+			distinctRequests[i] = requestWith(Jwts.builder()
+					.setSubject("javainuse")
+					.claim("roles", AuthorityUtils.authorityListToSet(USER.getAuthorities()))
+					.setId(String.valueOf(i))
+					.setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+					.signWith(SignatureAlgorithm.HS512, SECRET)
+					.compact());
+		}
+		response = new MockHttpServletResponse();
+	}
+
+	@Benchmark
+	public Object legacyFilter() throws Exception {
+		return filter(legacyFilter, nextDistinctRequest());
+	}
+
+	@Benchmark
+	public Object filterCacheMiss() throws Exception {
+		return filter(uncachedFilter, nextDistinctRequest());
+	}
+
+	@Benchmark
+	public Object filterCacheHit() throws Exception {
+		return filter(cachedFilter, request);
+	}
+
+	private TokenRevocationService revocationService(JwtTokenService tokenService) {
+		return new TokenRevocationService(null, tokenService, 100_000, 0.01, Duration.ofSeconds(30), false,
+				meterRegistry);
+	}
+
+	private MockHttpServletRequest nextDistinctRequest() {
+		next = (next + 1) % TOKENS;
+		return distinctRequests[next];
+	}
+
+	private Object filter(OncePerRequestFilter filter, MockHttpServletRequest request) throws Exception {
+		filter.doFilter(request, response, new MockFilterChain());
+		Object authentication = SecurityContextHolder.getContext().getAuthentication();
+		SecurityContextHolder.clearContext();
+		return authentication;
+	}
+
+	private static MockHttpServletRequest requestWith(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies");
+		request.addHeader("Authorization", "Bearer " + token);
+		return request;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JwtRequestFilterBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+	/**
+	 * The request path of the former filter: the header is split twice and the token
+	 * is parsed (and its signature verified) for the username, again for the username
+	 * in the validation and once more for the expiration.
+	 */
+	private static final class LegacyJwtRequestFilter extends OncePerRequestFilter {
+
+		private final UserDetailsService userDetailsService;
+
+		private LegacyJwtRequestFilter(UserDetailsService userDetailsService) {
+			this.userDetailsService = userDetailsService;
+		}
+
+		@Override
+		protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+				throws ServletException, IOException {
+			String header = request.getHeader("Authorization");
+			if (header != null && header.trim().split(" ")[0].toLowerCase().equals("bearer")) {
+				String token = header.split(" ")[1];
+				String username = claims(token).getSubject();
+				UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+				if (claims(token).getSubject().equals(userDetails.getUsername())
+						&& !claims(token).getExpiration().before(new Date())) {
+					SecurityContextHolder.getContext().setAuthentication(
+							new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+				}
+			}
+			chain.doFilter(request, response);
+		}
+
+		private Claims claims(String token) {
+			return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+		}
+	}
+}
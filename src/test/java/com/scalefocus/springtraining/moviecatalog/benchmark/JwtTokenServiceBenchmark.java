@@ -0,0 +1,76 @@
+package com.scalefocus.springtraining.moviecatalog.benchmark;
+
+import com.scalefocus.springtraining.moviecatalog.service.jwt.JwtTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures {@link JwtTokenService}:
+ * <ul>
+ * <li>generateToken - signing a new access token (every login and refresh)</li>
+ * <li>getUsernameFromTokenCacheMiss - parsing and verifying a token which is not in the cache</li>
+ * <li>getUsernameFromTokenCacheHit - a token which is already verified (every authenticated request)</li>
+ * </ul>
+ * Run it with the 'jmh' Maven profile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenServiceBenchmark {
+
+	private static final String SECRET = "javainuse";
+
+	private static final UserDetails USER = User.withUsername("javainuse")
+			.password("password")
+			.authorities(AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"))
+			.build();
+
+	private JwtTokenService cachedTokenService;
+
+	private JwtTokenService uncachedTokenService;
+
+	private String token;
+
+	@Setup
+	public void setUp() {
+		cachedTokenService = new JwtTokenService(SECRET, 10_000,
+				Duration.ofHours(1), Duration.ofDays(14), Duration.ZERO, new SimpleMeterRegistry());
+		// a cache with no room for any token - every call parses the token
+		uncachedTokenService = new JwtTokenService(SECRET, 0,
+				Duration.ofHours(1), Duration.ofDays(14), Duration.ZERO, new SimpleMeterRegistry());
+		token = cachedTokenService.generateToken(USER);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return cachedTokenService.generateToken(USER);
+	}
+
+	@Benchmark
+	public String getUsernameFromTokenCacheMiss() {
+		return uncachedTokenService.getUsernameFromToken(token);
+	}
+
+	@Benchmark
+	public String getUsernameFromTokenCacheHit() {
+		return cachedTokenService.getUsernameFromToken(token);
+	}
+}
@@ -0,0 +1,107 @@
+package com.scalefocus.springtraining.moviecatalog.benchmark;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.seed.MovieCatalogGenerator;
+import com.scalefocus.springtraining.moviecatalog.service.snapshot.MovieColumns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the pages of {@link MovieColumns} on the seed catalog (see {@link MovieCatalogGenerator}):
+ * <ul>
+ * <li>genre - the first page of a common genre, which is found after a short scan</li>
+ * <li>rateRange - the first page of a narrow rate range of old movies, which is found after a long scan</li>
+ * <li>noMatch - a filter which no movie matches, so all rows are scanned</li>
+ * </ul>
+ * The 'parallelThreshold' parameter compares the sequential scan (Integer.MAX_VALUE) with the fork-join one.
+ * The memory footprint of the columns is printed once per trial, before the measurement,
+ * e.g. "[memory] 1000000 movies: 50 bytes per movie without the strings".
+ * It is the difference of the used heap after a full GC, so it is an estimate.
+ * Run it with the 'jmh' Maven profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieColumnsBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	private static final MovieFilterDto GENRE = MovieFilterDto.ofGenre("Comedy");
+
+	private static final MovieFilterDto RATE_RANGE = new MovieFilterDto(null, 9.5, 10.0,
+			LocalDate.of(1950, 1, 1), LocalDate.of(1970, 12, 31));
+
+	private static final MovieFilterDto NO_MATCH = new MovieFilterDto("Sport", 10.0, 10.0, null, LocalDate.of(1900, 1, 1));
+
+	@Param({"1000000"})
+	private int size;
+
+	@Param({"2147483647", "65536"})
+	private int parallelThreshold;
+
+	private MovieColumns movieColumns;
+
+	private Movie[] movies;
+
+	@Setup
+	public void setUp() {
+		// the movies are generated before the heap is measured and they are kept until it is measured again,
+		// so only the arrays and the pool are measured - the strings are shared with the movies
+		movies = new Movie[size];
+		MovieCatalogGenerator generator = new MovieCatalogGenerator(42, 0.02);
+		for (int i = 0; i < size; i++) {
+			movies[i] = generator.next();
+			movies[i].setId(i + 1L);
+		}
+
+		long before = usedHeap();
+		movieColumns = new MovieColumns(parallelThreshold);
+		for (Movie movie : movies) {
+			movieColumns.put(movie);
+		}
+		long footprint = usedHeap() - before;
+		System.out.printf("[memory] %d movies: %d bytes per movie without the strings%n", size, footprint / size);
+		movies = null;
+	}
+
+	@Benchmark
+	public MoviePageDto<MovieDto> genre() {
+		return movieColumns.page(GENRE, 0, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public MoviePageDto<MovieDto> rateRange() {
+		return movieColumns.page(RATE_RANGE, 0, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public MoviePageDto<MovieDto> noMatch() {
+		return movieColumns.page(NO_MATCH, 0, PAGE_SIZE);
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
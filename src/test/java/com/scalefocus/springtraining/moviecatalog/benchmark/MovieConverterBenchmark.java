@@ -0,0 +1,58 @@
+package com.scalefocus.springtraining.moviecatalog.benchmark;
+
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures {@link MovieConverter}, which converts every movie a list endpoint returns:
+ * <ul>
+ * <li>toDto - a single movie</li>
+ * <li>toDtoList - a page of movies (the default page, the maximum page and the top movies of a genre)</li>
+ * </ul>
+ * Run it with the 'jmh' Maven profile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieConverterBenchmark {
+
+	@Param({"10", "20", "1000"})
+	private int size;
+
+	private final MovieConverter movieConverter = new MovieConverter();
+
+	private List<Movie> movies;
+
+	@Setup
+	public void setUp() {
+		movies = BenchmarkData.movies(size);
+	}
+
+	@Benchmark
+	public MovieDto toDto() {
+		return movieConverter.toDto(movies.get(0));
+	}
+
+	@Benchmark
+	public List<MovieDto> toDtoList() {
+		return movieConverter.toDtoList(movies);
+	}
+}
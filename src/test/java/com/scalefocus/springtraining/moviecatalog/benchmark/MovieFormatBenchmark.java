@@ -0,0 +1,97 @@
+package com.scalefocus.springtraining.moviecatalog.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares the formats of the bodies - JSON, Smile and CBOR - on a list of {@link MovieDto}.
+ * The mappers are built like the ones of the application (dates are not written as timestamps):
+ * <ul>
+ * <li>encode - writes the list with a writer prepared once for List&lt;MovieDto&gt;</li>
+ * <li>decode - reads the encoded list back</li>
+ * </ul>
+ * The payload size of every format is printed once per trial, before the measurement,
+ * e.g. "[format] smile, 1000 movies: 71234 bytes".
+ * Run it with the 'jmh' Maven profile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieFormatBenchmark {
+
+	@Param({"json", "smile", "cbor"})
+	private String format;
+
+	@Param({"20", "1000"})
+	private int size;
+
+	private ObjectWriter listWriter;
+
+	private ObjectReader listReader;
+
+	private List<MovieDto> movies;
+
+	private byte[] payload;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+				.factory(factory(format))
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+		JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, MovieDto.class);
+		listWriter = objectMapper.writerFor(listType);
+		listReader = objectMapper.readerFor(listType);
+		movies = new MovieConverter().toDtoList(BenchmarkData.movies(size));
+		payload = listWriter.writeValueAsBytes(movies);
+		System.out.printf("[format] %s, %d movies: %d bytes%n", format, size, payload.length);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return listWriter.writeValueAsBytes(movies);
+	}
+
+	@Benchmark
+	public List<MovieDto> decode() throws IOException {
+		return listReader.readValue(payload);
+	}
+
+	private static JsonFactory factory(String format) {
+		switch (format) {
+			case "smile":
+				return new SmileFactory();
+			case "cbor":
+				return new CBORFactory();
+			default:
+				return new JsonFactory();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.scalefocus.springtraining.moviecatalog.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the Jackson serialization of a list of {@link MovieDto},
+ * which is the body of every list endpoint. The {@link ObjectMapper} is built by
+ * {@link Jackson2ObjectMapperBuilder}, the same way Spring Boot builds the one of the application:
+ * <ul>
+ * <li>writeValueAsBytes - the mapper, which looks up the serializer of the list on every call</li>
+ * <li>writerForList - a writer prepared once for List&lt;MovieDto&gt;</li>
+ * </ul>
+ * Run it with the 'jmh' Maven profile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieSerializationBenchmark {
+
+	@Param({"10", "20", "1000"})
+	private int size;
+
+	private ObjectMapper objectMapper;
+
+	private ObjectWriter listWriter;
+
+	private List<MovieDto> movies;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+				.constructCollectionType(List.class, MovieDto.class));
+		movies = new MovieConverter().toDtoList(BenchmarkData.movies(size));
+	}
+
+	@Benchmark
+	public byte[] writeValueAsBytes() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(movies);
+	}
+
+	@Benchmark
+	public byte[] writerForList() throws JsonProcessingException {
+		return listWriter.writeValueAsBytes(movies);
+	}
+}
@@ -0,0 +1,99 @@
+package com.scalefocus.springtraining.moviecatalog.benchmark;
+
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.seed.MovieCatalogGenerator;
+import com.scalefocus.springtraining.moviecatalog.service.suggest.TitleIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the title autocomplete lookups of {@link TitleIndex}
+ * on the titles of the seed catalog (see {@link MovieCatalogGenerator}):
+ * <ul>
+ * <li>exactPrefix - a prefix which many titles start with, no typos</li>
+ * <li>typoPrefix - a long prefix with two typos</li>
+ * <li>shortTypoPrefix - a short prefix with one typo, which is the widest search of the index</li>
+ * <li>noMatch - a prefix which no title is close to</li>
+ * </ul>
+ * The memory footprint of the index is printed once per trial, before the measurement,
+ * e.g. "[memory] 1000000 movies, 97500 titles: 180 bytes per title, 40 bytes per movie".
+ * It is the difference of the used heap after a full GC, so it is an estimate.
+ * Run it with the 'jmh' Maven profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TitleIndexBenchmark {
+
+	private static final int SUGGESTIONS = 10;
+
+	@Param({"10000", "1000000"})
+	private int size;
+
+	private TitleIndex titleIndex;
+
+	@Setup
+	public void setUp() {
+		// the titles are generated before the heap is measured, so only the index is measured
+		String[] titles = new String[size];
+		String[] normalizedTitles = new String[size];
+		MovieCatalogGenerator generator = new MovieCatalogGenerator(42, 0.02);
+		for (int i = 0; i < size; i++) {
+			Movie movie = generator.next();
+			titles[i] = movie.getTitle();
+			normalizedTitles[i] = movie.getNormalizedTitle();
+		}
+
+		long before = usedHeap();
+		titleIndex = new TitleIndex();
+		for (int i = 0; i < size; i++) {
+			titleIndex.put(i + 1, titles[i], normalizedTitles[i]);
+		}
+		long footprint = usedHeap() - before;
+		System.out.printf("[memory] %d movies, %d titles: %d bytes per title, %d bytes per movie%n",
+				size, titleIndex.size(), footprint / titleIndex.size(), footprint / size);
+	}
+
+	@Benchmark
+	public List<String> exactPrefix() {
+		return titleIndex.suggest("the dark", 0, SUGGESTIONS);
+	}
+
+	@Benchmark
+	public List<String> typoPrefix() {
+		return titleIndex.suggest("the lsot kingdon", 2, SUGGESTIONS);
+	}
+
+	@Benchmark
+	public List<String> shortTypoPrefix() {
+		return titleIndex.suggest("dsrk", 1, SUGGESTIONS);
+	}
+
+	@Benchmark
+	public List<String> noMatch() {
+		return titleIndex.suggest("zzzzzz", 2, SUGGESTIONS);
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
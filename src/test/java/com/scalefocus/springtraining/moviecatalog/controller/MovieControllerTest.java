@@ -0,0 +1,277 @@
+package com.scalefocus.springtraining.moviecatalog.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.idgenerator.IdGenerator;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * This test sends requests through the whole stack (the JWT filter, the controller and the service)
+ * of the application, which runs against an in-memory MongoDB stand-in. It checks the conditional requests
+ * (304 for a matching 'If-None-Match' and 412 for a stale 'If-Match'), the ETags of the formats, the PATCH and the results of a bulk request.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "users.seed-defaults=true")
+@ActiveProfiles("test")
+class MovieControllerTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private MongoOperations mongoOperations;
+
+	@Autowired
+	private IdGenerator idGenerator;
+
+	private WebClient webClient;
+
+	private long matrixId;
+
+	private long inceptionId;
+
+	private long ladyBirdId;
+
+	@BeforeEach
+	void setUp() {
+		mongoOperations.dropCollection(Movie.class);
+		// the in-memory MongoDB ignores the partial filter of the real index, so this is the same constraint
+		mongoOperations.indexOps(Movie.class).ensureIndex(new Index().on("normalizedTitle", Sort.Direction.ASC)
+				.on("normalizedWriter", Sort.Direction.ASC).unique());
+		matrixId = insert("The Matrix", "Lana Wachowski", "Sci-Fi", 8.7);
+		inceptionId = insert("Inception", "Christopher Nolan", "Sci-Fi", 8.8);
+		ladyBirdId = insert("Lady Bird", "Greta Gerwig", "Drama", 7.4);
+
+		String token = WebClient.create("http://localhost:" + port)
+				.post().uri("/authenticate")
+				.bodyValue(credentials())
+				.retrieve()
+				.bodyToMono(JsonNode.class)
+				.map(response -> response.get("token").asText())
+				.block();
+		webClient = WebClient.builder().baseUrl("http://localhost:" + port)
+				.defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+				.build();
+	}
+
+	@Test
+	void getByIdIsNotModifiedForMatchingETag() {
+		ClientResponse response = exchange(HttpMethod.GET, "/movies/" + matrixId, null, null);
+		assertEquals(HttpStatus.OK, response.statusCode());
+		String eTag = eTagOf(response);
+
+		ClientResponse notModified = exchange(HttpMethod.GET, "/movies/" + matrixId, HttpHeaders.IF_NONE_MATCH, eTag);
+		assertEquals(HttpStatus.NOT_MODIFIED, notModified.statusCode());
+		assertEquals(eTag, eTagOf(notModified));
+	}
+
+	@Test
+	void everyFormatHasItsOwnETag() {
+		ClientResponse json = exchange(HttpMethod.GET, "/movies/" + matrixId, null, null);
+		ClientResponse cbor = exchange(HttpMethod.GET, "/movies/" + matrixId, HttpHeaders.ACCEPT, "application/cbor");
+		assertEquals(HttpStatus.OK, cbor.statusCode());
+		assertEquals(Collections.singletonList(HttpHeaders.ACCEPT), json.headers().asHttpHeaders().getVary());
+		assertEquals(Collections.singletonList(HttpHeaders.ACCEPT), cbor.headers().asHttpHeaders().getVary());
+		assertNotEquals(eTagOf(json), eTagOf(cbor));
+
+		assertEquals(HttpStatus.OK, webClient.get().uri("/movies/" + matrixId)
+				.header(HttpHeaders.ACCEPT, "application/cbor")
+				.header(HttpHeaders.IF_NONE_MATCH, eTagOf(json))
+				.exchange().block().statusCode());
+		ClientResponse notModified = webClient.get().uri("/movies/" + matrixId)
+				.header(HttpHeaders.ACCEPT, "application/cbor")
+				.header(HttpHeaders.IF_NONE_MATCH, eTagOf(cbor))
+				.exchange().block();
+		assertEquals(HttpStatus.NOT_MODIFIED, notModified.statusCode());
+		assertEquals(Collections.singletonList(HttpHeaders.ACCEPT), notModified.headers().asHttpHeaders().getVary());
+
+		assertEquals(HttpStatus.OK, exchange(HttpMethod.PUT, "/movies/" + matrixId,
+				movieJson("The Matrix", "Lana Wachowski", "Sci-Fi", 8.8), HttpHeaders.IF_MATCH, eTagOf(cbor)).statusCode());
+	}
+
+	@Test
+	void pageIsNotModifiedUntilItsMoviesChange() {
+		ClientResponse response = exchange(HttpMethod.GET, "/movies/genre/sci-fi", null, null);
+		assertEquals(HttpStatus.OK, response.statusCode());
+		String eTag = eTagOf(response);
+
+		assertEquals(HttpStatus.NOT_MODIFIED,
+				exchange(HttpMethod.GET, "/movies/genre/sci-fi", HttpHeaders.IF_NONE_MATCH, eTag).statusCode());
+
+		assertEquals(HttpStatus.OK, exchange(HttpMethod.PUT, "/movies/" + inceptionId,
+				movieJson("Inception", "Christopher Nolan", "Sci-Fi", 9.0), null, null).statusCode());
+		ClientResponse changed = exchange(HttpMethod.GET, "/movies/genre/sci-fi", HttpHeaders.IF_NONE_MATCH, eTag);
+		assertEquals(HttpStatus.OK, changed.statusCode());
+		assertNotEquals(eTag, eTagOf(changed));
+	}
+
+	@Test
+	void writesWithStaleIfMatchArePreconditionFailed() {
+		String staleETag = eTagOf(exchange(HttpMethod.GET, "/movies/" + ladyBirdId, null, null));
+		ClientResponse updated = exchange(HttpMethod.PUT, "/movies/" + ladyBirdId,
+				movieJson("Lady Bird", "Greta Gerwig", "Drama", 7.5), HttpHeaders.IF_MATCH, staleETag);
+		assertEquals(HttpStatus.OK, updated.statusCode());
+		String currentETag = eTagOf(updated);
+
+		assertEquals(HttpStatus.PRECONDITION_FAILED, exchange(HttpMethod.PUT, "/movies/" + ladyBirdId,
+				movieJson("Lady Bird", "Greta Gerwig", "Drama", 1.0), HttpHeaders.IF_MATCH, staleETag).statusCode());
+		assertEquals(HttpStatus.PRECONDITION_FAILED,
+				exchange(HttpMethod.DELETE, "/movies/" + ladyBirdId, HttpHeaders.IF_MATCH, staleETag).statusCode());
+		assertEquals(7.5, body(HttpMethod.GET, "/movies/" + ladyBirdId).get("rate").asDouble());
+
+		assertEquals(HttpStatus.OK, exchange(HttpMethod.DELETE, "/movies/" + ladyBirdId, HttpHeaders.IF_MATCH, currentETag).statusCode());
+		assertEquals(HttpStatus.NOT_FOUND, exchange(HttpMethod.GET, "/movies/" + ladyBirdId, null, null).statusCode());
+	}
+
+	@Test
+	void patchChangesOnlyTheSuppliedFields() {
+		Map<String, Object> patch = new HashMap<>();
+		patch.put("rate", 9.1);
+		ClientResponse response = exchange(HttpMethod.PATCH, "/movies/" + matrixId, patch, null, null);
+		assertEquals(HttpStatus.OK, response.statusCode());
+
+		JsonNode movie = body(HttpMethod.GET, "/movies/" + matrixId);
+		assertEquals(9.1, movie.get("rate").asDouble());
+		assertEquals("The Matrix", movie.get("title").asText());
+		assertEquals("Lana Wachowski", movie.get("writer").asText());
+		assertEquals("Sci-Fi", movie.get("genre").asText());
+	}
+
+	@Test
+	void bulkReturnsTheResultOfEveryOperation() {
+		// the movie is cached, so the upsert must evict it
+		assertEquals(8.8, body(HttpMethod.GET, "/movies/" + inceptionId).get("rate").asDouble());
+
+		List<Map<String, Object>> operations = Arrays.asList(
+				operation("INSERT", null, movieJson("Barbie", "Greta Gerwig", "Comedy", 6.9)),
+				operation("INSERT", null, movieJson("The Matrix", "Lana Wachowski", "Sci-Fi", 8.7)),
+				operation("UPSERT", inceptionId, movieJson("Inception", "Christopher Nolan", "Sci-Fi", 9.2)),
+				operation("DELETE", ladyBirdId, null),
+				operation("DELETE", Long.MAX_VALUE, null),
+				operation("INSERT", null, null),
+				// it is rejected by the unique index, not by the check before the bulk write
+				operation("UPSERT", Long.MAX_VALUE, movieJson("The Matrix", "Lana Wachowski", "Sci-Fi", 1.0)));
+		ClientResponse response = exchange(HttpMethod.POST, "/movies/bulk", operations, null, null);
+		assertEquals(HttpStatus.OK, response.statusCode());
+
+		JsonNode results = response.bodyToMono(JsonNode.class).block();
+		assertNotNull(results);
+		List<String> expected = Arrays.asList("INSERTED", "DUPLICATE", "UPDATED", "DELETED", "NOT_FOUND", "INVALID",
+				"DUPLICATE");
+		assertEquals(expected.size(), results.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(i, results.get(i).get("index").asInt());
+			assertEquals(expected.get(i), results.get(i).get("status").asText(), "operation " + i);
+		}
+
+		assertEquals(9.2, body(HttpMethod.GET, "/movies/" + inceptionId).get("rate").asDouble());
+		assertEquals(HttpStatus.NOT_FOUND, exchange(HttpMethod.GET, "/movies/" + ladyBirdId, null, null).statusCode());
+	}
+
+	private ClientResponse exchange(HttpMethod method, String uri, String header, String value) {
+		return exchange(method, uri, null, header, value);
+	}
+
+	private ClientResponse exchange(HttpMethod method, String uri, Object body, String header, String value) {
+		WebClient.RequestBodySpec request = webClient.method(method).uri(uri);
+		if (header != null) {
+			request.header(header, value);
+		}
+		if (body != null) {
+			request.bodyValue(body);
+		}
+		return request.exchange().block();
+	}
+
+	private JsonNode body(HttpMethod method, String uri) {
+		return webClient.method(method).uri(uri).retrieve().bodyToMono(JsonNode.class).block();
+	}
+
+	private static String eTagOf(ClientResponse response) {
+		return response.headers().asHttpHeaders().getETag();
+	}
+
+	private long insert(String title, String writer, String genre, double rate) {
+		Movie movie = new Movie();
+		movie.setId(idGenerator.generateId());
+		movie.setTitle(title);
+		movie.setWriter(writer);
+		movie.setGenre(genre);
+		movie.setRuntime("120 min");
+		movie.setReleaseDate(LocalDate.of(2010, 7, 16));
+		movie.setRate(rate);
+		mongoOperations.insert(movie);
+		return movie.getId();
+	}
+
+	private static Map<String, Object> movieJson(String title, String writer, String genre, double rate) {
+		Map<String, Object> movie = new HashMap<>();
+		movie.put("title", title);
+		movie.put("writer", writer);
+		movie.put("genre", genre);
+		movie.put("runtime", "120 min");
+		movie.put("releaseDate", "2010-07-16");
+		movie.put("rate", rate);
+		return movie;
+	}
+
+	private static Map<String, Object> operation(String type, Long id, Map<String, Object> movie) {
+		Map<String, Object> operation = new HashMap<>();
+		operation.put("type", type);
+		operation.put("id", id);
+		operation.put("movie", movie);
+		return operation;
+	}
+
+	private static Map<String, String> credentials() {
+		Map<String, String> credentials = new HashMap<>();
+		credentials.put("username", "javainuse");
+		credentials.put("password", "password");
+		return credentials;
+	}
+
+	@TestConfiguration
+	static class InMemoryMongoConfig {
+
+		@Bean(destroyMethod = "shutdown")
+		MongoServer mongoServer() {
+			MongoServer mongoServer = new MongoServer(new MemoryBackend());
+			mongoServer.bind();
+			return mongoServer;
+		}
+
+		@Bean(destroyMethod = "close")
+		MongoClient mongoClient(MongoServer mongoServer) {
+			return new MongoClient(new ServerAddress(mongoServer.getLocalAddress()));
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.scalefocus.springtraining.moviecatalog.controller.jwt;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
+import com.scalefocus.springtraining.moviecatalog.service.jwt.AuthenticationExecutor;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This test sends the authentication requests through the security filters and the controller, which verifies
+ * the credentials on the {@link AuthenticationExecutor}. It checks that the bad credentials rejected on the pool
+ * are 401 (and not a 500 of the wrapping exception of the future) after the async dispatch, and that
+ * an authentication rejected by the full pool is 503 with a 'Retry-After' header.
+ */
+@SpringBootTest(properties = {"users.seed-defaults=true", "authentication.executor.pool-size=1",
+		"authentication.executor.queue-capacity=1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtAuthenticationControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AuthenticationExecutor authenticationExecutor;
+
+	@Test
+	void badCredentialsAreUnauthorized() throws Exception {
+		MvcResult result = mockMvc.perform(authenticate("javainuse", "wrong-password"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		// waits for the verification on the pool
+		result.getAsyncResult();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void rejectedAuthenticationIsServiceUnavailable() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			// one task runs on the single thread and one fills the queue
+			for (int i = 0; i < 2; i++) {
+				authenticationExecutor.submit(() -> {
+					try {
+						release.await();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					return null;
+				});
+			}
+
+			mockMvc.perform(authenticate("javainuse", "password"))
+					.andExpect(request().asyncNotStarted())
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	private static RequestBuilder authenticate(String username, String password) {
+		return post("/authenticate")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+	}
+
+	@TestConfiguration
+	static class InMemoryMongoConfig {
+
+		@Bean(destroyMethod = "shutdown")
+		MongoServer mongoServer() {
+			MongoServer mongoServer = new MongoServer(new MemoryBackend());
+			mongoServer.bind();
+			return mongoServer;
+		}
+
+		@Bean(destroyMethod = "close")
+		MongoClient mongoClient(MongoServer mongoServer) {
+			return new MongoClient(new ServerAddress(mongoServer.getLocalAddress()));
+		}
+	}
+}
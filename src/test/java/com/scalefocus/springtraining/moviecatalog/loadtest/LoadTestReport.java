@@ -0,0 +1,221 @@
+package com.scalefocus.springtraining.moviecatalog.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of a load test run: the throughput and the latency percentiles of every endpoint.
+ * It is written as JSON, so it can be kept as the baseline of the next runs and compared with them.
+ */
+public class LoadTestReport {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	private int rate;
+
+	private String duration;
+
+	private long dropped;
+
+	private Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+
+	static LoadTestReport of(int rate, Duration duration, long dropped,
+							 Map<String, OpenModelLoadGenerator.EndpointSample> samples) {
+		LoadTestReport report = new LoadTestReport();
+		report.rate = rate;
+		report.duration = duration.toString();
+		report.dropped = dropped;
+		double seconds = duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+		samples.forEach((endpoint, sample) -> report.endpoints.put(endpoint,
+				EndpointResult.of(sample.getLatencies(), sample.getErrors(), seconds)));
+		return report;
+	}
+
+	static LoadTestReport read(File file) throws IOException {
+		return OBJECT_MAPPER.readValue(file, LoadTestReport.class);
+	}
+
+	void write(File file) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Can not create " + directory);
+		}
+		OBJECT_MAPPER.writeValue(file, this);
+	}
+
+	/**
+	 * This method compares the report with the baseline and returns the regressions:
+	 * an endpoint whose p99 latency is higher, or whose throughput is lower, than the baseline
+	 * by more than the tolerance, or which has errors while the baseline has none.
+	 *
+	 * @param baseline  - the report of the baseline run
+	 * @param tolerance - the allowed difference, for example 0.2 for 20%
+	 * @return the description of every regression
+	 */
+	List<String> regressionsAgainst(LoadTestReport baseline, double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		baseline.endpoints.forEach((endpoint, expected) -> {
+			EndpointResult actual = endpoints.get(endpoint);
+			if (actual == null) {
+				return;
+			}
+			if (actual.p99Millis > expected.p99Millis * (1 + tolerance)) {
+				regressions.add(String.format("%s p99 %.3f ms > baseline %.3f ms",
+						endpoint, actual.p99Millis, expected.p99Millis));
+			}
+			if (actual.throughput < expected.throughput * (1 - tolerance)) {
+				regressions.add(String.format("%s throughput %.1f/s < baseline %.1f/s",
+						endpoint, actual.throughput, expected.throughput));
+			}
+			if (actual.errors > 0 && expected.errors == 0) {
+				regressions.add(String.format("%s %d errors, baseline had none", endpoint, actual.errors));
+			}
+		});
+		return regressions;
+	}
+
+	String toTable() {
+		StringBuilder table = new StringBuilder(String.format("%nLoad test: %d requests/s for %s, %d dropped%n",
+				rate, duration, dropped));
+		table.append(String.format("%-14s %9s %7s %11s %10s %10s %10s %10s%n",
+				"endpoint", "count", "errors", "throughput", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+		endpoints.forEach((endpoint, result) -> table.append(String.format(
+				"%-14s %9d %7d %9.1f/s %10.3f %10.3f %10.3f %10.3f%n", endpoint, result.count, result.errors,
+				result.throughput, result.p50Millis, result.p99Millis, result.p999Millis, result.maxMillis)));
+		return table.toString();
+	}
+
+	public int getRate() {
+		return rate;
+	}
+
+	public void setRate(int rate) {
+		this.rate = rate;
+	}
+
+	public String getDuration() {
+		return duration;
+	}
+
+	public void setDuration(String duration) {
+		this.duration = duration;
+	}
+
+	public long getDropped() {
+		return dropped;
+	}
+
+	public void setDropped(long dropped) {
+		this.dropped = dropped;
+	}
+
+	public Map<String, EndpointResult> getEndpoints() {
+		return endpoints;
+	}
+
+	public void setEndpoints(Map<String, EndpointResult> endpoints) {
+		this.endpoints = endpoints;
+	}
+
+	/**
+	 * The throughput (successful requests per second) and the latency percentiles of an endpoint.
+	 */
+	public static class EndpointResult {
+
+		private long count;
+
+		private long errors;
+
+		private double throughput;
+
+		private double p50Millis;
+
+		private double p99Millis;
+
+		private double p999Millis;
+
+		private double maxMillis;
+
+		static EndpointResult of(Histogram latencies, long errors, double seconds) {
+			EndpointResult result = new EndpointResult();
+			result.count = latencies.getTotalCount();
+			result.errors = errors;
+			result.throughput = result.count / seconds;
+			result.p50Millis = millis(latencies.getValueAtPercentile(50));
+			result.p99Millis = millis(latencies.getValueAtPercentile(99));
+			result.p999Millis = millis(latencies.getValueAtPercentile(99.9));
+			result.maxMillis = millis(latencies.getMaxValue());
+			return result;
+		}
+
+		private static double millis(long nanos) {
+			return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public void setCount(long count) {
+			this.count = count;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		public void setErrors(long errors) {
+			this.errors = errors;
+		}
+
+		public double getThroughput() {
+			return throughput;
+		}
+
+		public void setThroughput(double throughput) {
+			this.throughput = throughput;
+		}
+
+		public double getP50Millis() {
+			return p50Millis;
+		}
+
+		public void setP50Millis(double p50Millis) {
+			this.p50Millis = p50Millis;
+		}
+
+		public double getP99Millis() {
+			return p99Millis;
+		}
+
+		public void setP99Millis(double p99Millis) {
+			this.p99Millis = p99Millis;
+		}
+
+		public double getP999Millis() {
+			return p999Millis;
+		}
+
+		public void setP999Millis(double p999Millis) {
+			this.p999Millis = p999Millis;
+		}
+
+		public double getMaxMillis() {
+			return maxMillis;
+		}
+
+		public void setMaxMillis(double maxMillis) {
+			this.maxMillis = maxMillis;
+		}
+	}
+}
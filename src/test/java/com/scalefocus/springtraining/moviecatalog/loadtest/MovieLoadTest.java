@@ -0,0 +1,267 @@
+package com.scalefocus.springtraining.moviecatalog.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ServerAddress;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * This load test drives the whole stack (the JWT filter, the controller, the service and the repository)
+ * of the application, which runs against an in-memory MongoDB stand-in. It authenticates through
+ * /authenticate and starts a configurable mix of requests at a fixed rate with {@link OpenModelLoadGenerator}.
+ * The throughput and the p50/p99/p999 latencies of every endpoint are printed and written
+ * to target/load-test/result.json and compared with the baseline file, if it exists.
+ * <p>
+ * It is not a part of the build - run it with the 'load-test' Maven profile:
+ * <pre>
+ * mvn -P load-test test
+ * mvn -P load-test test -Dloadtest.rate=500 -Dloadtest.duration=PT60S -Dloadtest.mix=GET_BY_ID=80,PUT=20
+ * mvn -P load-test test -Dloadtest.write-baseline=true
+ * </pre>
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"movies.indexes.create-on-startup=true", "users.seed-defaults=true"})
+@ActiveProfiles("test")
+class MovieLoadTest {
+
+	private static final String[] GENRES = {"Action", "Animation", "Comedy", "Drama", "Sci-Fi", "Thriller"};
+
+	private static final int BULK_SIZE = 10_000;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private WebClient.Builder webClientBuilder;
+
+	@Value("${loadtest.rate:50}")
+	private int rate;
+
+	@Value("${loadtest.duration:PT30S}")
+	private Duration duration;
+
+	@Value("${loadtest.warm-up:PT10S}")
+	private Duration warmUp;
+
+	@Value("${loadtest.mix:GET_BY_ID=50,GET_BY_GENRE=15,GET_BY_RATE=15,POST=10,PUT=5,DELETE=5}")
+	private String mix;
+
+	@Value("${loadtest.seed-movies:5000}")
+	private int seedMovies;
+
+	@Value("${loadtest.max-in-flight:2000}")
+	private int maxInFlight;
+
+	@Value("${loadtest.username:javainuse}")
+	private String username;
+
+	@Value("${loadtest.password:password}")
+	private String password;
+
+	@Value("${loadtest.result:target/load-test/result.json}")
+	private File result;
+
+	@Value("${loadtest.baseline:load-test-baseline.json}")
+	private File baseline;
+
+	@Value("${loadtest.write-baseline:false}")
+	private boolean writeBaseline;
+
+	@Value("${loadtest.tolerance:0.2}")
+	private double tolerance;
+
+	private WebClient webClient;
+
+	private final List<Long> movieIds = new ArrayList<>();
+
+	// the movies which are deleted by the DELETE requests, so the other requests always find their movies
+	private final Queue<Long> deletableIds = new ConcurrentLinkedQueue<>();
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	@BeforeEach
+	void setUp() {
+		String token = WebClient.create("http://localhost:" + port)
+				.post().uri("/authenticate")
+				.bodyValue(credentials())
+				.retrieve()
+				.bodyToMono(JsonNode.class)
+				.map(response -> response.get("token").asText())
+				.block();
+		webClient = webClientBuilder.baseUrl("http://localhost:" + port)
+				.defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+				.build();
+
+		movieIds.addAll(insertMovies(seedMovies));
+		// every DELETE request deletes a movie of its own - the warm-up and the run together, with a margin
+		double deleteShare = mixWeights().getOrDefault("DELETE", 0) / (double) totalWeight();
+		int deletes = (int) Math.ceil(rate * (warmUp.getSeconds() + duration.getSeconds()) * deleteShare * 1.2);
+		deletableIds.addAll(insertMovies(deletes));
+	}
+
+	@Test
+	void load() throws IOException {
+		OpenModelLoadGenerator generator = new OpenModelLoadGenerator(mixWeights(), requests(), maxInFlight);
+		generator.run(rate, warmUp);
+		generator.takeSamples();
+		generator.takeDropped();
+
+		generator.run(rate, duration);
+		LoadTestReport report = LoadTestReport.of(rate, duration, generator.takeDropped(), generator.takeSamples());
+		System.out.println(report.toTable());
+		report.write(result);
+
+		if (writeBaseline) {
+			report.write(baseline);
+			return;
+		}
+		if (baseline.isFile()) {
+			List<String> regressions = report.regressionsAgainst(LoadTestReport.read(baseline), tolerance);
+			assertTrue(regressions.isEmpty(), "Regressions against " + baseline + ": " + regressions);
+		}
+	}
+
+	private Map<String, Supplier<Mono<HttpStatus>>> requests() {
+		Map<String, Supplier<Mono<HttpStatus>>> requests = new HashMap<>();
+		requests.put("GET_BY_ID", () -> status(webClient.get()
+				.uri("/movies/{id}", randomMovieId())));
+		requests.put("GET_BY_GENRE", () -> status(webClient.get()
+				.uri("/movies/genre/{genre}", GENRES[ThreadLocalRandom.current().nextInt(GENRES.length)])));
+		requests.put("GET_BY_RATE", () -> status(webClient.get()
+				.uri("/movies/rate/{rate}", rateOf(ThreadLocalRandom.current().nextInt(seedMovies)))));
+		requests.put("POST", () -> status(webClient.post()
+				.uri("/movies/movie")
+				.bodyValue(movie(sequence.incrementAndGet()))));
+		requests.put("PUT", () -> status(webClient.put()
+				.uri("/movies/{id}", randomMovieId())
+				.bodyValue(movie(sequence.incrementAndGet()))));
+		requests.put("DELETE", () -> {
+			Long id = deletableIds.poll();
+			return id == null ? Mono.just(HttpStatus.NOT_FOUND) : status(webClient.delete().uri("/movies/{id}", id));
+		});
+		return requests;
+	}
+
+	private static Mono<HttpStatus> status(WebClient.RequestHeadersSpec<?> request) {
+		return request.exchange()
+				.flatMap(response -> response.releaseBody().thenReturn(response.statusCode()));
+	}
+
+	/**
+	 * This method inserts the specified number of movies through the bulk endpoint and returns their ids.
+	 */
+	private List<Long> insertMovies(int count) {
+		List<Long> ids = new ArrayList<>(count);
+		while (ids.size() < count) {
+			List<Map<String, Object>> operations = new ArrayList<>();
+			for (int i = ids.size(); i < Math.min(count, ids.size() + BULK_SIZE); i++) {
+				Map<String, Object> operation = new HashMap<>();
+				operation.put("type", "INSERT");
+				operation.put("movie", movie(sequence.incrementAndGet()));
+				operations.add(operation);
+			}
+			JsonNode results = webClient.post().uri("/movies/bulk")
+					.bodyValue(operations)
+					.retrieve()
+					.bodyToMono(JsonNode.class)
+					.block();
+			for (JsonNode operationResult : results) {
+				if (!"INSERTED".equals(operationResult.get("status").asText())) {
+					fail("The movies can not be inserted: " + operationResult);
+				}
+				ids.add(operationResult.get("id").asLong());
+			}
+		}
+		return ids;
+	}
+
+	private Long randomMovieId() {
+		return movieIds.get(ThreadLocalRandom.current().nextInt(movieIds.size()));
+	}
+
+	private static Map<String, Object> movie(long number) {
+		Map<String, Object> movie = new HashMap<>();
+		movie.put("title", "Load Test Movie " + number);
+		movie.put("writer", "Writer " + number % 100);
+		movie.put("genre", GENRES[(int) (number % GENRES.length)]);
+		movie.put("runtime", (90 + number % 60) + " min");
+		movie.put("releaseDate", "2000-01-01");
+		movie.put("rate", rateOf(number));
+		return movie;
+	}
+
+	private static String rateOf(long number) {
+		return String.valueOf((number % 101) / 10.0);
+	}
+
+	private Map<String, Object> credentials() {
+		Map<String, Object> credentials = new HashMap<>();
+		credentials.put("username", username);
+		credentials.put("password", password);
+		return credentials;
+	}
+
+	private Map<String, Integer> mixWeights() {
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		for (String entry : mix.split(",")) {
+			String[] endpointAndWeight = entry.trim().split("=");
+			weights.put(endpointAndWeight[0].trim(), Integer.parseInt(endpointAndWeight[1].trim()));
+		}
+		return weights;
+	}
+
+	private int totalWeight() {
+		return mixWeights().values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	@TestConfiguration
+	static class InMemoryMongoConfig {
+
+		@Bean(destroyMethod = "shutdown")
+		MongoServer mongoServer() {
+			MongoServer mongoServer = new MongoServer(new MemoryBackend());
+			mongoServer.bind();
+			return mongoServer;
+		}
+
+		// the options of the application, so the MongoDB commands are in the metrics as well
+		@Bean(destroyMethod = "close")
+		MongoClient mongoClient(MongoServer mongoServer, MongoClientOptions mongoClientOptions) {
+			return new MongoClient(new ServerAddress(mongoServer.getLocalAddress()), mongoClientOptions);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.scalefocus.springtraining.moviecatalog.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * An open-model load generator: the requests are started at a fixed rate, no matter how fast
+ * the application answers, so a slow application gets a queue of requests just like in production.
+ * The endpoint of every request is chosen randomly by the weights of the mix.
+ * The latency of a request is measured from the moment it was scheduled to start (not from the moment
+ * it was actually sent), so the time spent waiting behind the slow requests is not hidden
+ * (no coordinated omission). The latencies are recorded in an HdrHistogram per endpoint.
+ */
+final class OpenModelLoadGenerator {
+
+	private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final Map<String, Supplier<Mono<HttpStatus>>> requests;
+
+	private final String[] endpoints;
+
+	private final int[] cumulativeWeights;
+
+	private final int maxInFlight;
+
+	private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+
+	private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/**
+	 * @param mix         - the endpoint -> its weight in the mix
+	 * @param requests    - the endpoint -> the request, which emits the status of the response
+	 * @param maxInFlight - the requests which may wait for a response at the same time,
+	 *                    the requests over it are dropped (and reported) to protect the load generator
+	 */
+	OpenModelLoadGenerator(Map<String, Integer> mix, Map<String, Supplier<Mono<HttpStatus>>> requests, int maxInFlight) {
+		this.requests = requests;
+		this.maxInFlight = maxInFlight;
+		this.endpoints = new String[mix.size()];
+		this.cumulativeWeights = new int[mix.size()];
+		int total = 0;
+		int i = 0;
+		for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+			if (!requests.containsKey(entry.getKey())) {
+				throw new IllegalArgumentException("Unknown endpoint in the mix: " + entry.getKey());
+			}
+			total += entry.getValue();
+			endpoints[i] = entry.getKey();
+			cumulativeWeights[i] = total;
+			recorders.put(entry.getKey(), new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS));
+			errors.put(entry.getKey(), new AtomicLong());
+			i++;
+		}
+	}
+
+	/**
+	 * This method starts requests at the specified rate for the specified duration
+	 * and waits (at most the highest trackable latency) for the last responses.
+	 *
+	 * @param rate     - the requests per second
+	 * @param duration - the duration of the run
+	 */
+	void run(int rate, Duration duration) {
+		long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+		for (long intended = start; intended < end; intended += interval) {
+			long delay = intended - System.nanoTime();
+			if (delay > 0) {
+				LockSupport.parkNanos(delay);
+			}
+			send(nextEndpoint(), intended);
+		}
+		long deadline = System.nanoTime() + HIGHEST_TRACKABLE_NANOS;
+		while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+	}
+
+	/**
+	 * This method returns the latencies recorded since the previous call and resets the errors,
+	 * so the warm-up is not included in the results.
+	 *
+	 * @return the endpoint -> its latencies (in nanoseconds) and errors
+	 */
+	Map<String, EndpointSample> takeSamples() {
+		Map<String, EndpointSample> samples = new LinkedHashMap<>();
+		recorders.forEach((endpoint, recorder) -> samples.put(endpoint,
+				new EndpointSample(recorder.getIntervalHistogram(), errors.get(endpoint).getAndSet(0))));
+		return Collections.unmodifiableMap(samples);
+	}
+
+	long takeDropped() {
+		return dropped.getAndSet(0);
+	}
+
+	private String nextEndpoint() {
+		int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		for (int i = 0; i < cumulativeWeights.length; i++) {
+			if (value < cumulativeWeights[i]) {
+				return endpoints[i];
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	private void send(String endpoint, long intended) {
+		if (inFlight.incrementAndGet() > maxInFlight) {
+			inFlight.decrementAndGet();
+			dropped.incrementAndGet();
+			return;
+		}
+		requests.get(endpoint).get().subscribe(status -> {
+			if (status.is2xxSuccessful()) {
+				recorders.get(endpoint).recordValue(Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS));
+			} else {
+				errors.get(endpoint).incrementAndGet();
+			}
+			inFlight.decrementAndGet();
+		}, ex -> {
+			errors.get(endpoint).incrementAndGet();
+			inFlight.decrementAndGet();
+		});
+	}
+
+	/**
+	 * The latencies (in nanoseconds) of the successful requests of an endpoint and the number of failed requests.
+	 */
+	static final class EndpointSample {
+
+		private final Histogram latencies;
+
+		private final long errors;
+
+		EndpointSample(Histogram latencies, long errors) {
+			this.latencies = latencies;
+			this.errors = errors;
+		}
+
+		Histogram getLatencies() {
+			return latencies;
+		}
+
+		long getErrors() {
+			return errors;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.scalefocus.springtraining.moviecatalog.service;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
+import com.scalefocus.springtraining.moviecatalog.exception.MovieDuplicateKeyException;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * This test fires parallel inserts of the same movie (with different letter case and whitespace)
+ * against an in-memory MongoDB and checks that the unique index lets exactly one of them through.
+ */
+@SpringBootTest(properties = "movies.indexes.create-on-startup=true")
+@ActiveProfiles("test")
+class MovieServiceConcurrencyTest {
+
+	private static final int THREADS = 16;
+
+	private static final String[] TITLES = {"The Matrix", " the matrix ", "THE MATRIX", "tHe MaTrIx"};
+
+	@Autowired
+	private MovieService movieService;
+
+	@Autowired
+	private MongoOperations mongoOperations;
+
+	@Test
+	void parallelIdenticalInsertsCreateASingleMovie() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> inserts = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			MovieDto movie = movie(TITLES[i % TITLES.length]);
+			inserts.add(executor.submit(() -> {
+				start.await();
+				try {
+					movieService.insert(movie);
+					return true;
+				} catch (MovieDuplicateKeyException ex) {
+					return false;
+				}
+			}));
+		}
+		start.countDown();
+
+		int inserted = 0;
+		for (Future<Boolean> insert : inserts) {
+			if (insert.get(30, TimeUnit.SECONDS)) {
+				inserted++;
+			}
+		}
+		executor.shutdown();
+
+		assertEquals(1, inserted);
+		assertEquals(1, mongoOperations.count(query(where("normalizedTitle").is("the matrix")), Movie.class));
+	}
+
+	private static MovieDto movie(String title) {
+		MovieDto movie = new MovieDto();
+		movie.setTitle(title);
+		movie.setWriter("Lana Wachowski");
+		movie.setGenre("Sci-Fi");
+		movie.setRuntime("136 min");
+		movie.setReleaseDate(LocalDate.of(1999, 3, 31));
+		movie.setRate(8.7);
+		return movie;
+	}
+
+	@TestConfiguration
+	static class InMemoryMongoConfig {
+
+		@Bean(destroyMethod = "shutdown")
+		MongoServer mongoServer() {
+			MongoServer mongoServer = new MongoServer(new MemoryBackend());
+			mongoServer.bind();
+			return mongoServer;
+		}
+
+		@Bean(destroyMethod = "close")
+		MongoClient mongoClient(MongoServer mongoServer) {
+			return new MongoClient(new ServerAddress(mongoServer.getLocalAddress()));
+		}
+	}
+}
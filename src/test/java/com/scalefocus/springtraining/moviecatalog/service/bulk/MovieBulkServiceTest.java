@@ -0,0 +1,144 @@
+package com.scalefocus.springtraining.moviecatalog.service.bulk;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkMovieOperation;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationResult;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationStatus;
+import com.scalefocus.springtraining.moviecatalog.model.bulk.BulkOperationType;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import com.scalefocus.springtraining.moviecatalog.service.listener.MovieWriteListener;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * This test runs the {@link MovieBulkService} against an in-memory MongoDB and checks that the write listener
+ * gets the stored versions of the movies and that the outcomes are taken from the result of the bulk write.
+ */
+class MovieBulkServiceTest {
+
+	private MongoServer mongoServer;
+
+	private MongoClient mongoClient;
+
+	private MongoOperations mongoOperations;
+
+	private MovieWriteListener movieWriteListener;
+
+	private MovieBulkService movieBulkService;
+
+	@BeforeEach
+	void setUp() {
+		mongoServer = new MongoServer(new MemoryBackend());
+		mongoServer.bind();
+		mongoClient = new MongoClient(new ServerAddress(mongoServer.getLocalAddress()));
+		mongoOperations = spy(new MongoTemplate(mongoClient, "movie_catalog"));
+		movieWriteListener = mock(MovieWriteListener.class);
+		AtomicLong ids = new AtomicLong(100);
+		movieBulkService = new MovieBulkService(mongoOperations, new MovieConverter(), ids::incrementAndGet,
+				movieWriteListener);
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongoClient.close();
+		mongoServer.shutdown();
+	}
+
+	@Test
+	void listenerGetsTheStoredVersions() {
+		insert(1L, "Inception", "Christopher Nolan");
+
+		List<BulkOperationResult> results = movieBulkService.execute(Arrays.asList(
+				operation(BulkOperationType.UPSERT, 1L, movie("Inception", "Christopher Nolan")),
+				operation(BulkOperationType.INSERT, null, movie("Lady Bird", "Greta Gerwig")),
+				operation(BulkOperationType.UPSERT, 2L, movie("Barbie", "Greta Gerwig")))).getBody();
+
+		assertEquals(BulkOperationStatus.UPDATED, results.get(0).getStatus());
+		assertEquals(BulkOperationStatus.INSERTED, results.get(1).getStatus());
+		assertEquals(BulkOperationStatus.INSERTED, results.get(2).getStatus());
+		ArgumentCaptor<Movie> saved = ArgumentCaptor.forClass(Movie.class);
+		verify(movieWriteListener, times(3)).onSaved(saved.capture());
+		for (Movie movie : saved.getAllValues()) {
+			assertEquals(mongoOperations.findById(movie.getId(), Movie.class).getVersion(), movie.getVersion(),
+					movie.getTitle());
+		}
+	}
+
+	@Test
+	void moviesDeletedByAnotherRequestAreNotReportedAsDeleted() {
+		insert(1L, "Inception", "Christopher Nolan");
+		insert(2L, "Lady Bird", "Greta Gerwig");
+		// the movie is deleted by another request after the query which finds the existing ids
+		AtomicBoolean deleted = new AtomicBoolean();
+		doAnswer(invocation -> {
+			Object existing = invocation.callRealMethod();
+			if (deleted.compareAndSet(false, true)) {
+				mongoOperations.remove(query(where("_id").is(1L)), Movie.class);
+			}
+			return existing;
+		}).when(mongoOperations).find(any(Query.class), eq(Movie.class));
+
+		List<BulkOperationResult> results = movieBulkService.execute(Arrays.asList(
+				operation(BulkOperationType.DELETE, 1L, null),
+				operation(BulkOperationType.DELETE, 2L, null))).getBody();
+
+		assertEquals(BulkOperationStatus.NOT_FOUND, results.get(0).getStatus());
+		assertEquals(BulkOperationStatus.NOT_FOUND, results.get(1).getStatus());
+		verify(movieWriteListener).onDeleted(1L);
+		verify(movieWriteListener).onDeleted(2L);
+	}
+
+	private void insert(long id, String title, String writer) {
+		Movie movie = new MovieConverter().toEntity(movie(title, writer));
+		movie.setId(id);
+		NormalizationUtils.normalizeFields(movie);
+		mongoOperations.insert(movie);
+	}
+
+	private static MovieDto movie(String title, String writer) {
+		MovieDto movie = new MovieDto();
+		movie.setTitle(title);
+		movie.setWriter(writer);
+		movie.setGenre("Drama");
+		movie.setRuntime("120 min");
+		movie.setReleaseDate(LocalDate.of(2010, 7, 16));
+		movie.setRate(8.0);
+		return movie;
+	}
+
+	private static BulkMovieOperation operation(BulkOperationType type, Long id, MovieDto movie) {
+		BulkMovieOperation operation = new BulkMovieOperation();
+		operation.setType(type);
+		operation.setId(id);
+		operation.setMovie(movie);
+		return operation;
+	}
+}
@@ -0,0 +1,32 @@
+package com.scalefocus.springtraining.moviecatalog.service.idgenerator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This test checks that the {@link SnowflakeIdGenerator} generates growing ids which are exact as JSON numbers
+ * read as doubles (below 2^53), also from the highest node id and faster than the sequence of a millisecond.
+ */
+class SnowflakeIdGeneratorTest {
+
+	private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+	@Test
+	void idsGrowAndStayBelowTwoToTheFiftyThird() {
+		SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(31);
+		long previous = 0;
+		for (int i = 0; i < 100_000; i++) {
+			long id = idGenerator.generateId();
+			assertTrue(id > previous, "the ids must grow");
+			assertTrue(id <= MAX_SAFE_INTEGER, "the id must be exact as a double");
+			previous = id;
+		}
+	}
+
+	@Test
+	void nodeIdMustFitInItsBits() {
+		assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(32));
+	}
+}
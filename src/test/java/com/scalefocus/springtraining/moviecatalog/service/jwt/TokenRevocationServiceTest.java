@@ -0,0 +1,164 @@
+package com.scalefocus.springtraining.moviecatalog.service.jwt;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
+import com.scalefocus.springtraining.moviecatalog.model.entity.RevokedToken;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.TokenType;
+import com.scalefocus.springtraining.moviecatalog.model.jwt.VerifiedToken;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * This test runs the {@link TokenRevocationService} against an in-memory MongoDB and checks that
+ * no revoked token is missed after the Bloom filter is rebuilt - neither the tokens revoked by the other nodes
+ * (which are only in the collection) nor the tokens revoked by this node while the rebuild streams the collection,
+ * and that the rebuild drops the cached answers.
+ */
+class TokenRevocationServiceTest {
+
+	// smaller than the revoked tokens, so the rebuilt filter must be sized by the collection
+	private static final long EXPECTED_REVOCATIONS = 100;
+
+	private MongoServer mongoServer;
+
+	private MongoClient mongoClient;
+
+	private MongoOperations mongoOperations;
+
+	private TokenRevocationService tokenRevocationService;
+
+	@BeforeEach
+	void setUp() {
+		mongoServer = new MongoServer(new MemoryBackend());
+		mongoServer.bind();
+		mongoClient = new MongoClient(new ServerAddress(mongoServer.getLocalAddress()));
+		mongoOperations = spy(new MongoTemplate(mongoClient, "movie_catalog"));
+		tokenRevocationService = new TokenRevocationService(mongoOperations, null, EXPECTED_REVOCATIONS, 0.01,
+				Duration.ofSeconds(30), true, new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongoClient.close();
+		mongoServer.shutdown();
+	}
+
+	@Test
+	void tokensRevokedByOtherNodesAreNeverMissedAfterRefresh() {
+		List<VerifiedToken> tokens = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			VerifiedToken token = token();
+			mongoOperations.save(new RevokedToken(token.getId(), Date.from(token.getExpiration())));
+			tokens.add(token);
+		}
+
+		tokenRevocationService.refresh();
+
+		for (VerifiedToken token : tokens) {
+			assertTrue(tokenRevocationService.mightBeRevoked(token), token.getId());
+			assertTrue(tokenRevocationService.isRevoked(token), token.getId());
+		}
+	}
+
+	@Test
+	void tokensRevokedDuringRefreshAreKept() {
+		VerifiedToken revokedBefore = token();
+		tokenRevocationService.revoke(revokedBefore);
+		tokenRevocationService.refresh();
+
+		// the token is revoked after the rebuild has read the collection, but before the new filter is published
+		VerifiedToken revokedDuring = token();
+		doAnswer(invocation -> {
+			List<RevokedToken> revokedTokens = new ArrayList<>();
+			try (CloseableIterator<?> stream = (CloseableIterator<?>) invocation.callRealMethod()) {
+				stream.forEachRemaining(revokedToken -> revokedTokens.add((RevokedToken) revokedToken));
+			}
+			tokenRevocationService.revoke(revokedDuring);
+			return new ListIterator<>(revokedTokens);
+		}).when(mongoOperations).stream(any(Query.class), eq(RevokedToken.class));
+
+		tokenRevocationService.refresh();
+
+		assertTrue(tokenRevocationService.mightBeRevoked(revokedBefore));
+		assertTrue(tokenRevocationService.mightBeRevoked(revokedDuring));
+
+		// the next rebuild reads the token from the collection
+		tokenRevocationService.refresh();
+
+		assertTrue(tokenRevocationService.mightBeRevoked(revokedDuring));
+		assertTrue(tokenRevocationService.isRevoked(revokedDuring));
+	}
+
+	@Test
+	void cachedAnswersAreDroppedByRefresh() {
+		// the id stays in the filter, but not in the collection, so the next lookup caches false
+		VerifiedToken token = token();
+		tokenRevocationService.revoke(token);
+		mongoOperations.remove(query(where("_id").is(token.getId())), RevokedToken.class);
+		tokenRevocationService.refresh();
+		assertFalse(tokenRevocationService.isRevoked(token));
+
+		// another node revokes the token
+		mongoOperations.save(new RevokedToken(token.getId(), Date.from(token.getExpiration())));
+		tokenRevocationService.refresh();
+
+		assertTrue(tokenRevocationService.isRevoked(token));
+	}
+
+	private static VerifiedToken token() {
+		return new VerifiedToken(UUID.randomUUID().toString(), TokenType.ACCESS, "javainuse",
+				Instant.now().plus(Duration.ofHours(1)), Collections.emptyList());
+	}
+
+	/**
+	 * A closeable iterator of the already read revoked tokens.
+	 */
+	private static final class ListIterator<T> implements CloseableIterator<T> {
+
+		private final Iterator<T> iterator;
+
+		private ListIterator(List<T> list) {
+			this.iterator = list.iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		@Override
+		public T next() {
+			return iterator.next();
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
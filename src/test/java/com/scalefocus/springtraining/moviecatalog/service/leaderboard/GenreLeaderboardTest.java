@@ -0,0 +1,134 @@
+package com.scalefocus.springtraining.moviecatalog.service.leaderboard;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import com.scalefocus.springtraining.moviecatalog.util.NormalizationUtils;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * This test runs the {@link GenreLeaderboard} against an in-memory MongoDB and checks that the genres
+ * without movies are not loaded and that the concurrent reads of a genre which is not loaded share one load.
+ */
+class GenreLeaderboardTest {
+
+	private MongoServer mongoServer;
+
+	private MongoClient mongoClient;
+
+	private MongoOperations mongoOperations;
+
+	private GenreLeaderboard genreLeaderboard;
+
+	@BeforeEach
+	void setUp() {
+		mongoServer = new MongoServer(new MemoryBackend());
+		mongoServer.bind();
+		mongoClient = new MongoClient(new ServerAddress(mongoServer.getLocalAddress()));
+		mongoOperations = spy(new MongoTemplate(mongoClient, "movie_catalog"));
+		genreLeaderboard = new GenreLeaderboard(mongoOperations, new MovieConverter(), 10, false);
+		for (long id = 1; id <= 20; id++) {
+			insert(id, id % 2 == 0 ? "Drama" : "Comedy", id / 2.0);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongoClient.close();
+		mongoServer.shutdown();
+	}
+
+	@Test
+	void unknownGenreIsEmptyWithoutLoad() {
+		for (int i = 0; i < 100; i++) {
+			assertTrue(genreLeaderboard.getTop("made up " + i, 5).isEmpty());
+		}
+
+		verify(mongoOperations, never()).find(any(Query.class), eq(Movie.class));
+	}
+
+	@Test
+	void savedGenreIsKnown() {
+		Movie movie = insert(21L, "Western", 7.0);
+		genreLeaderboard.onSaved(movie);
+
+		List<MovieDto> top = genreLeaderboard.getTop("western", 5);
+		assertEquals(1, top.size());
+		assertEquals("Western", top.get(0).getGenre());
+	}
+
+	@Test
+	void concurrentReadsShareOneLoad() throws Exception {
+		CountDownLatch loadStarted = new CountDownLatch(1);
+		CountDownLatch releaseLoad = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			loadStarted.countDown();
+			releaseLoad.await(10, TimeUnit.SECONDS);
+			return invocation.callRealMethod();
+		}).when(mongoOperations).find(any(Query.class), eq(Movie.class));
+
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<List<MovieDto>>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> genreLeaderboard.getTop("Drama", 3)));
+			}
+			assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+			// the other reads are waiting for the load by now
+			Thread.sleep(200);
+			releaseLoad.countDown();
+			for (Future<List<MovieDto>> future : futures) {
+				List<MovieDto> top = future.get(10, TimeUnit.SECONDS);
+				assertEquals(3, top.size());
+				assertEquals(10.0, top.get(0).getRate());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		verify(mongoOperations, times(1)).find(any(Query.class), eq(Movie.class));
+	}
+
+	private Movie insert(long id, String genre, double rate) {
+		Movie movie = new Movie();
+		movie.setId(id);
+		movie.setTitle("Movie " + id);
+		movie.setWriter("Writer " + id);
+		movie.setGenre(genre);
+		movie.setRuntime("100 min");
+		movie.setReleaseDate(LocalDate.of(2000, 1, 1));
+		movie.setRate(rate);
+		NormalizationUtils.normalizeFields(movie);
+		mongoOperations.insert(movie);
+		return movie;
+	}
+}
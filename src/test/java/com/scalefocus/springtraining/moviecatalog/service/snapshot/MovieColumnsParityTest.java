@@ -0,0 +1,189 @@
+package com.scalefocus.springtraining.moviecatalog.service.snapshot;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
+import com.scalefocus.springtraining.moviecatalog.exception.MovieNotFoundException;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieProjectionDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.MovieService;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * This test fills an in-memory MongoDB and a {@link MovieColumns} with the same movies (some of them without
+ * writer, genre, runtime, release date or rate) and checks that every page of every filter is the same
+ * in both, also after deletes and after the columns have dropped the deleted rows.
+ */
+@SpringBootTest(properties = "movies.snapshot.enabled=false")
+@ActiveProfiles("test")
+class MovieColumnsParityTest {
+
+	private static final int PAGE_SIZE = 50;
+
+	// the initial capacity of the columns, the first insert into the full columns drops the deleted rows
+	private static final int CAPACITY = 1024;
+
+	private static final String FIELDS = "title,writer,genre,runtime,releaseDate,rate";
+
+	private static final Set<String> FIELD_SET = new HashSet<>(Arrays.asList(FIELDS.split(",")));
+
+	private static final String[] GENRES = {"Drama", "Comedy", " drama ", "Horror", null};
+
+	private static final String[] WRITERS = {"Lana Wachowski", "Christopher Nolan", "Greta Gerwig", null};
+
+	private static final List<MovieFilterDto> FILTERS = Arrays.asList(
+			new MovieFilterDto(null, null, null, null, null),
+			MovieFilterDto.ofGenre("drama"),
+			MovieFilterDto.ofGenre("Western"),
+			MovieFilterDto.ofRate(7.5),
+			new MovieFilterDto(null, 5.0, 8.0, null, null),
+			new MovieFilterDto(null, 9.0, null, null, null),
+			new MovieFilterDto(null, null, null, null, LocalDate.of(1980, 1, 1)),
+			new MovieFilterDto(null, null, null, LocalDate.of(2000, 1, 1), null),
+			new MovieFilterDto("Comedy", 3.0, null, LocalDate.of(1960, 1, 1), LocalDate.of(2010, 12, 31)));
+
+	@Autowired
+	private MovieService movieService;
+
+	@Autowired
+	private MongoOperations mongoOperations;
+
+	private MovieColumns movieColumns;
+
+	private Random random;
+
+	private long nextId;
+
+	@BeforeEach
+	void setUp() {
+		mongoOperations.dropCollection(Movie.class);
+		movieColumns = new MovieColumns(Integer.MAX_VALUE);
+		random = new Random(42);
+		nextId = 1;
+	}
+
+	@Test
+	void pagesMatchTheDatabase() throws Exception {
+		insert(CAPACITY / 2);
+
+		assertSamePages();
+	}
+
+	@Test
+	void pagesMatchTheDatabaseAfterDeletesAndCompaction() throws Exception {
+		insert(CAPACITY);
+		for (long id = 3; id <= CAPACITY; id += 3) {
+			delete(id);
+		}
+		assertSamePages();
+
+		// more than a quarter of the full columns is deleted, so this insert drops the deleted rows
+		insert(CAPACITY / 4);
+		delete(nextId - 1);
+		assertEquals(mongoOperations.count(query(where("id").exists(true)), Movie.class), movieColumns.size());
+		assertSamePages();
+	}
+
+	private void assertSamePages() throws MovieNotFoundException {
+		for (MovieFilterDto filter : FILTERS) {
+			long after = 0;
+			while (true) {
+				MoviePageDto<MovieProjectionDto> expected = databasePage(filter, after);
+				MoviePageDto<MovieProjectionDto> actual = movieColumns.page(filter, after, PAGE_SIZE, FIELD_SET);
+				assertEquals(describe(expected), describe(actual), "page after " + after + " of " + describe(filter));
+				if (actual.getNextCursor() == null) {
+					break;
+				}
+				after = Long.parseLong(actual.getNextCursor());
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private MoviePageDto<MovieProjectionDto> databasePage(MovieFilterDto filter, long after)
+			throws MovieNotFoundException {
+		try {
+			return (MoviePageDto<MovieProjectionDto>) movieService.filter(filter, after, PAGE_SIZE, FIELDS, null)
+					.getBody();
+		} catch (MovieNotFoundException ex) {
+			return new MoviePageDto<>(Collections.emptyList(), null);
+		}
+	}
+
+	private void insert(int count) {
+		List<Movie> movies = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Movie movie = new Movie();
+			movie.setId(nextId++);
+			movie.setTitle("Movie " + movie.getId());
+			movie.setWriter(WRITERS[random.nextInt(WRITERS.length)]);
+			movie.setGenre(GENRES[random.nextInt(GENRES.length)]);
+			movie.setRuntime(random.nextInt(10) > 0 ? (80 + random.nextInt(100)) + " min" : null);
+			movie.setReleaseDate(random.nextInt(10) > 1 ? LocalDate.of(1950 + random.nextInt(70), 1, 1)
+					.plusDays(random.nextInt(365)) : null);
+			movie.setRate(random.nextInt(10) > 0 ? random.nextInt(101) / 10.0 : null);
+			movies.add(movie);
+		}
+		mongoOperations.insertAll(movies);
+		movies.forEach(movieColumns::put);
+	}
+
+	private void delete(long id) {
+		mongoOperations.remove(query(where("id").is(id)), Movie.class);
+		movieColumns.remove(id);
+	}
+
+	private static List<String> describe(MoviePageDto<MovieProjectionDto> page) {
+		List<String> movies = new ArrayList<>();
+		for (MovieProjectionDto movie : page.getMovies()) {
+			movies.add(movie.getId() + "|" + movie.getTitle() + "|" + movie.getWriter() + "|" + movie.getGenre()
+					+ "|" + movie.getRuntime() + "|" + movie.getReleaseDate() + "|" + movie.getRate());
+		}
+		movies.add("next: " + page.getNextCursor());
+		return movies;
+	}
+
+	private static String describe(MovieFilterDto filter) {
+		return "[" + filter.getGenre() + ", " + filter.getMinRate() + ", " + filter.getMaxRate() + ", "
+				+ filter.getReleasedFrom() + ", " + filter.getReleasedTo() + "]";
+	}
+
+	@TestConfiguration
+	static class InMemoryMongoConfig {
+
+		@Bean(destroyMethod = "shutdown")
+		MongoServer mongoServer() {
+			MongoServer mongoServer = new MongoServer(new MemoryBackend());
+			mongoServer.bind();
+			return mongoServer;
+		}
+
+		@Bean(destroyMethod = "close")
+		MongoClient mongoClient(MongoServer mongoServer) {
+			return new MongoClient(new ServerAddress(mongoServer.getLocalAddress()));
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.scalefocus.springtraining.moviecatalog.service.suggest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This test checks the lookups of the {@link TitleIndex} - the exact prefixes, the prefixes with
+ * a substituted, a transposed, a missing or an extra character, the order of the titles and the limit.
+ */
+class TitleIndexTest {
+
+	private TitleIndex titleIndex;
+
+	@BeforeEach
+	void setUp() {
+		titleIndex = new TitleIndex();
+		put(1, "The Matrix");
+		put(2, "The Matrix Reloaded");
+		put(3, "The Mask");
+		put(4, "Titanic");
+		put(5, "Cat Ballou");
+		put(6, "Bat Man");
+		put(7, "Cart Wheel");
+		put(8, "Dog Day");
+	}
+
+	@Test
+	void exactPrefixMatchesTheRangeOfThePrefix() {
+		assertEquals(Arrays.asList("The Matrix", "The Matrix Reloaded"), titleIndex.suggest("the matr", 0, 10));
+		assertEquals(Arrays.asList("The Mask", "The Matrix", "The Matrix Reloaded"),
+				titleIndex.suggest("the ma", 0, 10));
+		assertEquals(Collections.emptyList(), titleIndex.suggest("the mbtr", 0, 10));
+	}
+
+	@Test
+	void substitutionIsOneEdit() {
+		assertEquals(Arrays.asList("The Matrix", "The Matrix Reloaded"), titleIndex.suggest("the mbtr", 1, 10));
+		assertEquals(Collections.emptyList(), titleIndex.suggest("the mbbr", 1, 10));
+		assertEquals(Arrays.asList("The Matrix", "The Matrix Reloaded"), titleIndex.suggest("the mbbr", 2, 10));
+	}
+
+	@Test
+	void transpositionIsOneEdit() {
+		assertEquals(Arrays.asList("The Matrix", "The Matrix Reloaded"), titleIndex.suggest("the mtarix", 1, 10));
+	}
+
+	@Test
+	void missingAndExtraCharactersAreOneEdit() {
+		assertEquals(Arrays.asList("The Matrix", "The Matrix Reloaded"), titleIndex.suggest("the mtrix", 1, 10));
+		assertEquals(Arrays.asList("The Matrix", "The Matrix Reloaded"), titleIndex.suggest("the maatrix", 1, 10));
+	}
+
+	@Test
+	void titlesWithFewerEditsAreFirst() {
+		// 'cat b' is exact, 'bat m' is a substitution and 'cart' is an extra character
+		assertEquals(Arrays.asList("Cat Ballou", "Bat Man", "Cart Wheel"), titleIndex.suggest("cat", 1, 10));
+	}
+
+	@Test
+	void suggestionsAreLimitedToN() {
+		assertEquals(Arrays.asList("The Mask", "The Matrix"), titleIndex.suggest("the ma", 0, 2));
+		assertEquals(Collections.singletonList("Cat Ballou"), titleIndex.suggest("cat", 1, 1));
+	}
+
+	@Test
+	void titleIsKeptWhileItHasMovies() {
+		put(9, "The Matrix");
+		titleIndex.remove(1);
+		assertEquals(Arrays.asList("The Matrix", "The Matrix Reloaded"), titleIndex.suggest("the matr", 0, 10));
+
+		titleIndex.remove(9);
+		put(2, "Matrix Reloaded");
+		assertEquals(Collections.emptyList(), titleIndex.suggest("the matr", 0, 10));
+		assertEquals(7, titleIndex.size());
+	}
+
+	private void put(long id, String title) {
+		titleIndex.put(id, title, title.toLowerCase());
+	}
+}
@@ -0,0 +1,104 @@
+package com.scalefocus.springtraining.moviecatalog.service.support;
+
+import com.scalefocus.springtraining.moviecatalog.exception.MovieNotFoundException;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MovieFilterDto;
+import com.scalefocus.springtraining.moviecatalog.model.dto.MoviePageDto;
+import com.scalefocus.springtraining.moviecatalog.model.entity.Movie;
+import com.scalefocus.springtraining.moviecatalog.service.converter.MovieConverter;
+import com.scalefocus.springtraining.moviecatalog.service.snapshot.MovieSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * This test checks that the ETag of a page of the {@link MovieSnapshot} is derived from its version and the request,
+ * so a matching 'If-None-Match' is answered before the snapshot is scanned.
+ */
+class MovieServiceSupportTest {
+
+	private static final MovieFilterDto DRAMA = MovieFilterDto.ofGenre("drama");
+
+	private MovieSnapshot movieSnapshot;
+
+	private MovieServiceSupport support;
+
+	@BeforeEach
+	void setUp() throws MovieNotFoundException {
+		movieSnapshot = mock(MovieSnapshot.class);
+		doReturn(new MoviePageDto<>(Collections.singletonList("movie"), null))
+				.when(movieSnapshot).page(any(), anyLong(), anyInt(), any());
+		support = new MovieServiceSupport(new MovieConverter(), movieSnapshot, 20, 100);
+	}
+
+	@Test
+	void matchingETagIsAnsweredWithoutScan() throws MovieNotFoundException {
+		when(movieSnapshot.version()).thenReturn(7L);
+		String eTag = support.snapshotPageResponse(DRAMA, null, null, null, null).getHeaders().getETag();
+
+		ResponseEntity<MoviePageDto<?>> response = support.snapshotPageResponse(DRAMA, null, null, null, eTag);
+
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertEquals(eTag, response.getHeaders().getETag());
+		// only the first request has scanned the snapshot
+		verify(movieSnapshot).page(any(), anyLong(), anyInt(), any());
+	}
+
+	@Test
+	void eTagIsChangedByTheVersionAndTheRequest() throws MovieNotFoundException {
+		when(movieSnapshot.version()).thenReturn(7L);
+		String eTag = eTagOf(DRAMA, null, null, null);
+
+		assertEquals(eTag, eTagOf(DRAMA, null, 20, null));
+		assertNotEquals(eTag, eTagOf(MovieFilterDto.ofGenre("comedy"), null, null, null));
+		assertNotEquals(eTag, eTagOf(DRAMA, 5L, null, null));
+		assertNotEquals(eTag, eTagOf(DRAMA, null, 10, null));
+		assertNotEquals(eTag, eTagOf(DRAMA, null, null, "title"));
+
+		when(movieSnapshot.version()).thenReturn(8L);
+		ResponseEntity<MoviePageDto<?>> response = support.snapshotPageResponse(DRAMA, null, null, null, eTag);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertNotEquals(eTag, response.getHeaders().getETag());
+	}
+
+	@Test
+	void versionIsChangedByEveryWriteOfTheLoadedSnapshot() {
+		MongoOperations mongoOperations = mock(MongoOperations.class);
+		when(mongoOperations.stream(any(Query.class), eq(Movie.class))).thenReturn(mock(CloseableIterator.class));
+		MovieSnapshot snapshot = new MovieSnapshot(mongoOperations, true, 1000);
+		snapshot.refresh();
+		long version = snapshot.version();
+
+		Movie movie = new Movie();
+		movie.setId(1L);
+		movie.setTitle("Inception");
+		snapshot.onSaved(movie);
+		assertNotEquals(version, snapshot.version());
+
+		version = snapshot.version();
+		snapshot.onDeleted(1L);
+		assertNotEquals(version, snapshot.version());
+	}
+
+	private String eTagOf(MovieFilterDto filter, Long after, Integer limit, String fields)
+			throws MovieNotFoundException {
+		return support.snapshotPageResponse(filter, after, limit, fields, null).getHeaders().getETag();
+	}
+}
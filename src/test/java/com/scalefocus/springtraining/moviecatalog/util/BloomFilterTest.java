@@ -0,0 +1,88 @@
+package com.scalefocus.springtraining.moviecatalog.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This test checks that the {@link BloomFilter} never misses an added string, also when the strings
+ * are added by many threads at the same time, and that its false positive rate is close to the configured one.
+ */
+class BloomFilterTest {
+
+	private static final int INSERTIONS = 10_000;
+
+	private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+	@Test
+	void addedStringsAreNeverMissed() {
+		BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+		List<String> values = randomValues(INSERTIONS);
+		values.forEach(filter::put);
+
+		values.forEach(value -> assertTrue(filter.mightContain(value), value));
+	}
+
+	@Test
+	void stringsAddedConcurrentlyAreNeverMissed() throws Exception {
+		BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+		List<String> values = randomValues(INSERTIONS);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int first = t;
+				futures.add(executor.submit(() -> {
+					for (int i = first; i < values.size(); i += threads) {
+						filter.put(values.get(i));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		values.forEach(value -> assertTrue(filter.mightContain(value), value));
+	}
+
+	@Test
+	void falsePositiveRateIsCloseToTheConfiguredOne() {
+		BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+		randomValues(INSERTIONS).forEach(filter::put);
+
+		int falsePositives = 0;
+		for (String value : randomValues(INSERTIONS)) {
+			if (filter.mightContain(value)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < INSERTIONS * FALSE_POSITIVE_PROBABILITY * 2, falsePositives + " false positives");
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+
+		randomValues(1000).forEach(value -> assertFalse(filter.mightContain(value), value));
+	}
+
+	private static List<String> randomValues(int count) {
+		List<String> values = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			values.add(UUID.randomUUID().toString());
+		}
+		return values;
+	}
+}